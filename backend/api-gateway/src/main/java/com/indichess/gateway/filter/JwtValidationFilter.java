@@ -1,10 +1,9 @@
 package com.indichess.gateway.filter;
 
+import com.indichess.jwt.JwtVerifier;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
@@ -15,16 +14,17 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Mono;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class JwtValidationFilter implements GlobalFilter, Ordered {
     
-    @Value("${app.jwt.secret}")
-    private String secret;
+    private static final String USER_ID_HEADER = "X-User-Id";
+    private static final String USERNAME_HEADER = "X-Username";
+    
+    private final JwtVerifier jwtVerifier;
     
     private static final List<String> EXCLUDED_PATHS = List.of(
             "/api/auth/register",
@@ -38,7 +38,14 @@ public class JwtValidationFilter implements GlobalFilter, Ordered {
     
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
-        ServerHttpRequest request = exchange.getRequest();
+        // Identity headers are set only here; never forward ones sent by the client
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> {
+                    headers.remove(USER_ID_HEADER);
+                    headers.remove(USERNAME_HEADER);
+                })
+                .build();
+        exchange = exchange.mutate().request(request).build();
         String path = request.getURI().getPath();
         
         // Skip JWT validation for excluded paths
@@ -54,12 +61,12 @@ public class JwtValidationFilter implements GlobalFilter, Ordered {
         
         try {
             String token = authHeader.substring(7);
-            Claims claims = validateToken(token);
+            Claims claims = jwtVerifier.verify(token);
             
             // Add user info to headers for downstream services
-            ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
-                    .header("X-User-Id", String.valueOf(claims.get("userId")))
-                    .header("X-Username", claims.getSubject())
+            ServerHttpRequest modifiedRequest = request.mutate()
+                    .header(USER_ID_HEADER, String.valueOf(claims.get("userId")))
+                    .header(USERNAME_HEADER, claims.getSubject())
                     .build();
             
             return chain.filter(exchange.mutate().request(modifiedRequest).build());
@@ -70,15 +77,6 @@ public class JwtValidationFilter implements GlobalFilter, Ordered {
         }
     }
     
-    private Claims validateToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-    
     private Mono<Void> onError(ServerWebExchange exchange, String message, HttpStatus status) {
         ServerHttpResponse response = exchange.getResponse();
         response.setStatusCode(status);
@@ -0,0 +1,30 @@
+package com.indichess.jwt;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+import java.time.Duration;
+
+/**
+ * Registers a shared {@link JwtVerifier} for any service that sets {@code app.jwt.secret}.
+ */
+@AutoConfiguration
+@ConditionalOnProperty(prefix = "app.jwt", name = "secret")
+public class JwtAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public JwtVerifier jwtVerifier(@Value("${app.jwt.secret}") String secret,
+                                   @Value("${app.jwt.cache.max-size:10000}") long cacheMaxSize,
+                                   @Value("${app.jwt.cache.max-ttl-seconds:300}") long cacheMaxTtlSeconds,
+                                   ObjectProvider<MeterRegistry> meterRegistry) {
+        return new JwtVerifier(secret, cacheMaxSize, Duration.ofSeconds(cacheMaxTtlSeconds),
+                meterRegistry.getIfAvailable(() -> Metrics.globalRegistry));
+    }
+}
@@ -0,0 +1,118 @@
+package com.indichess.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verifies HS256 tokens with a signing key and parser built once.
+ * Verified claims are cached by token digest until the token expires (capped at {@code maxCacheTtl}),
+ * so repeated requests with the same token skip the HMAC check. Cached claims are shared and must
+ * not be modified by callers.
+ * Latency is recorded in the {@code jwt.verify} timer, tagged with {@code result} = hit, miss or invalid.
+ */
+public class JwtVerifier {
+
+    private final SecretKey signingKey;
+    private final JwtParser parser;
+    private final Map<Long, JwtParser> gracefulParsers = new ConcurrentHashMap<>();
+    private final Cache<String, Claims> claimsCache;
+    private final Timer hitTimer;
+    private final Timer missTimer;
+    private final Timer invalidTimer;
+
+    public JwtVerifier(String secret, long cacheMaxSize, Duration maxCacheTtl, MeterRegistry meterRegistry) {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+        this.claimsCache = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new UntilTokenExpiry(maxCacheTtl.toNanos()))
+                .build();
+        this.hitTimer = timer(meterRegistry, "hit");
+        this.missTimer = timer(meterRegistry, "miss");
+        this.invalidTimer = timer(meterRegistry, "invalid");
+    }
+
+    /** Returns the verified claims or throws {@link JwtException} / {@link IllegalArgumentException}. */
+    public Claims verify(String token) {
+        long start = System.nanoTime();
+        String key = TokenDigest.sha256(token);
+        Claims cached = claimsCache.getIfPresent(key);
+        if (cached != null) {
+            hitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return cached;
+        }
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            claimsCache.put(key, claims);
+            missTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return claims;
+        } catch (JwtException | IllegalArgumentException e) {
+            invalidTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    /** Verifies a token that may have expired up to {@code graceSeconds} ago (e.g. for refresh). Not cached. */
+    public Claims verifyAllowingExpiry(String token, long graceSeconds) {
+        JwtParser graceful = gracefulParsers.computeIfAbsent(graceSeconds, skew -> Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .setAllowedClockSkewSeconds(skew)
+                .build());
+        return graceful.parseClaimsJws(token).getBody();
+    }
+
+    /** Drops a cached verification, e.g. when the token is revoked. */
+    public void invalidate(String token) {
+        claimsCache.invalidate(TokenDigest.sha256(token));
+    }
+
+    public SecretKey getSigningKey() {
+        return signingKey;
+    }
+
+    private static Timer timer(MeterRegistry registry, String result) {
+        return Timer.builder("jwt.verify")
+                .description("JWT verification latency")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private record UntilTokenExpiry(long maxTtlNanos) implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date exp = claims.getExpiration();
+            if (exp == null) {
+                return maxTtlNanos;
+            }
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(exp.getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(untilExpiry, maxTtlNanos));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
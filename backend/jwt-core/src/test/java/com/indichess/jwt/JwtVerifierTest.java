@@ -0,0 +1,63 @@
+package com.indichess.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtVerifierTest {
+
+    private static final String SECRET = "test-secret-test-secret-test-secret-32chars";
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final JwtVerifier verifier = new JwtVerifier(SECRET, 100, Duration.ofMinutes(5), registry);
+
+    @Test
+    void verify_cachesVerifiedClaims() {
+        String token = token(42L, "alice", 60_000);
+
+        Claims first = verifier.verify(token);
+        Claims second = verifier.verify(token);
+
+        assertThat(first.getSubject()).isEqualTo("alice");
+        assertThat(second.get("userId", Long.class)).isEqualTo(42L);
+        assertThat(registry.get("jwt.verify").tag("result", "miss").timer().count()).isEqualTo(1);
+        assertThat(registry.get("jwt.verify").tag("result", "hit").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void verify_rejectsTamperedAndExpiredTokens() {
+        String token = token(42L, "alice", 60_000);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertThatThrownBy(() -> verifier.verify(tampered)).isInstanceOf(JwtException.class);
+        assertThatThrownBy(() -> verifier.verify(token(42L, "alice", -1_000))).isInstanceOf(ExpiredJwtException.class);
+        assertThat(registry.get("jwt.verify").tag("result", "invalid").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    void verifyAllowingExpiry_acceptsRecentlyExpiredToken() {
+        Claims claims = verifier.verifyAllowingExpiry(token(7L, "bob", -1_000), 300);
+
+        assertThat(claims.getSubject()).isEqualTo("bob");
+    }
+
+    private String token(Long userId, String username, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .claim("userId", userId)
+                .setSubject(username)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + ttlMillis))
+                .signWith(verifier.getSigningKey())
+                .compact();
+    }
+}
@@ -0,0 +1,38 @@
+package com.indichess.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples (nanoseconds) and reports exact percentiles. Sized for one run.
+ */
+final class LatencySamples {
+
+    private long[] samples = new long[4096];
+    private int size;
+
+    synchronized void record(long nanos) {
+        if (size == samples.length) {
+            samples = Arrays.copyOf(samples, size * 2);
+        }
+        samples[size++] = nanos;
+    }
+
+    synchronized int count() {
+        return size;
+    }
+
+    /** Count and p50/p90/p99/p99.9/max in milliseconds. */
+    synchronized String summary() {
+        if (size == 0) return "n=0";
+        long[] sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        return String.format("n=%d, p50=%.1fms, p90=%.1fms, p99=%.1fms, p99.9=%.1fms, max=%.1fms",
+                size, ms(sorted, 0.50), ms(sorted, 0.90), ms(sorted, 0.99), ms(sorted, 0.999),
+                sorted[size - 1] / 1e6);
+    }
+
+    private static double ms(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+    }
+}
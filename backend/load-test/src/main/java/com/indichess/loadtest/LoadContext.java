@@ -0,0 +1,27 @@
+package com.indichess.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Everything the synthetic players of one run share.
+ */
+record LoadContext(WebSocketStompClient stomp,
+                   RestClient http,
+                   ObjectMapper objectMapper,
+                   ScheduledExecutorService scheduler,
+                   ExecutorService workers,
+                   LoadStats stats,
+                   String wsUrl,
+                   long thinkTimeMs,
+                   int maxPlies,
+                   long acceptGamesUntilNanos) {
+
+    boolean acceptingNewGames() {
+        return System.nanoTime() < acceptGamesUntilNanos;
+    }
+}
@@ -0,0 +1,64 @@
+package com.indichess.loadtest;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and latency samples shared by all synthetic players.
+ */
+final class LoadStats {
+
+    final LatencySamples moveRoundTrip = new LatencySamples();
+    final LatencySamples fanOutLag = new LatencySamples();
+    final LatencySamples matchmakingWait = new LatencySamples();
+
+    final AtomicLong connects = new AtomicLong();
+    final AtomicLong connectErrors = new AtomicLong();
+    final AtomicLong transportErrors = new AtomicLong();
+    final AtomicLong joins = new AtomicLong();
+    final AtomicLong joinErrors = new AtomicLong();
+    final AtomicLong movesSent = new AtomicLong();
+    final AtomicLong moveErrors = new AtomicLong();
+    final AtomicLong stalls = new AtomicLong();
+    final AtomicLong gamesStarted = new AtomicLong();
+    final AtomicLong gamesFinished = new AtomicLong();
+    final AtomicLong resigns = new AtomicLong();
+
+    /** First arrival (nanoTime) of each sequenced game event, until the second receiver sees it. */
+    private final Map<String, Long> firstArrival = new ConcurrentHashMap<>();
+
+    /** Records the spread between the two players receiving the same broadcast. */
+    void eventReceived(Long matchId, Long seq, long nowNanos) {
+        String key = matchId + ":" + seq;
+        Long first = firstArrival.putIfAbsent(key, nowNanos);
+        if (first != null && firstArrival.remove(key) != null) {
+            fanOutLag.record(nowNanos - first);
+        }
+    }
+
+    String progressLine() {
+        return String.format("connected=%d games started=%d finished=%d moves=%d move errors=%d join errors=%d",
+                connects.get() - transportErrors.get(), gamesStarted.get(), gamesFinished.get(),
+                movesSent.get(), moveErrors.get(), joinErrors.get());
+    }
+
+    String report() {
+        return String.join(System.lineSeparator(),
+                "==== Load test report ====",
+                "Move round trip:   " + moveRoundTrip.summary(),
+                "Broadcast fan-out: " + fanOutLag.summary(),
+                "Matchmaking wait:  " + matchmakingWait.summary(),
+                String.format("Connections: %d ok, %d failed (%s), %d dropped",
+                        connects.get(), connectErrors.get(), rate(connectErrors.get(), connects.get() + connectErrors.get()),
+                        transportErrors.get()),
+                String.format("Joins: %d, errors %d (%s)", joins.get(), joinErrors.get(), rate(joinErrors.get(), joins.get())),
+                String.format("Moves: %d sent, errors %d (%s)", movesSent.get(), moveErrors.get(), rate(moveErrors.get(), movesSent.get())),
+                String.format("Games: %d started, %d finished, %d resigned at ply limit, %d stalls recovered",
+                        gamesStarted.get(), gamesFinished.get(), resigns.get(), stalls.get()));
+    }
+
+    private static String rate(long errors, long total) {
+        return total == 0 ? "n/a" : String.format("%.3f%%", 100.0 * errors / total);
+    }
+}
@@ -0,0 +1,131 @@
+package com.indichess.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.indichess.jwt.JwtVerifier;
+import io.jsonwebtoken.Jwts;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ramps up the configured number of synthetic players, lets them play for the configured
+ * duration, waits for running games to drain and prints latency percentiles and error rates.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoadTestRunner implements CommandLineRunner {
+
+    private final JwtVerifier jwtVerifier;
+    private final ObjectMapper objectMapper;
+
+    @Value("${app.load.base-url}")
+    private String baseUrl;
+
+    @Value("${app.load.players:1000}")
+    private int players;
+
+    @Value("${app.load.ramp-up-seconds:60}")
+    private long rampUpSeconds;
+
+    @Value("${app.load.duration-seconds:300}")
+    private long durationSeconds;
+
+    @Value("${app.load.drain-seconds:60}")
+    private long drainSeconds;
+
+    @Value("${app.load.think-time-ms:1500}")
+    private long thinkTimeMs;
+
+    @Value("${app.load.max-plies:160}")
+    private int maxPlies;
+
+    @Value("${app.load.user-id-offset:1000000}")
+    private long userIdOffset;
+
+    @Value("${app.load.game-types:CLASSICAL,RAPID,BLITZ,BULLET}")
+    private List<String> gameTypes;
+
+    @Value("${app.load.report-interval-seconds:10}")
+    private long reportIntervalSeconds;
+
+    @Override
+    public void run(String... args) throws Exception {
+        ThreadPoolTaskScheduler heartbeatScheduler = new ThreadPoolTaskScheduler();
+        heartbeatScheduler.setPoolSize(4);
+        heartbeatScheduler.setThreadNamePrefix("stomp-heartbeat-");
+        heartbeatScheduler.initialize();
+
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter();
+        converter.setObjectMapper(objectMapper);
+        WebSocketStompClient stomp = new WebSocketStompClient(new StandardWebSocketClient());
+        stomp.setMessageConverter(converter);
+        stomp.setTaskScheduler(heartbeatScheduler);
+        stomp.setDefaultHeartbeat(new long[]{10_000, 10_000});
+
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(Math.max(4, Runtime.getRuntime().availableProcessors()));
+        ExecutorService workers = Executors.newFixedThreadPool(64);
+        LoadStats stats = new LoadStats();
+        long start = System.nanoTime();
+        long acceptUntil = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        LoadContext ctx = new LoadContext(stomp, RestClient.builder().baseUrl(baseUrl).build(), objectMapper,
+                scheduler, workers, stats, wsUrl(baseUrl), thinkTimeMs, maxPlies, acceptUntil);
+
+        log.info("Starting {} players against {} ({}s ramp-up, {}s run)", players, baseUrl, rampUpSeconds, durationSeconds);
+        List<SyntheticPlayer> all = new ArrayList<>(players);
+        long tokenTtlMillis = TimeUnit.SECONDS.toMillis(rampUpSeconds + durationSeconds + drainSeconds + 3600);
+        for (int i = 0; i < players; i++) {
+            long userId = userIdOffset + i;
+            SyntheticPlayer player = new SyntheticPlayer(userId, gameTypes.get(i % gameTypes.size()), token(userId, tokenTtlMillis), ctx);
+            all.add(player);
+            long delayMs = TimeUnit.SECONDS.toMillis(rampUpSeconds) * i / Math.max(1, players);
+            scheduler.schedule(player::start, delayMs, TimeUnit.MILLISECONDS);
+        }
+        scheduler.scheduleAtFixedRate(() -> all.forEach(SyntheticPlayer::checkStall), 15, 15, TimeUnit.SECONDS);
+        scheduler.scheduleAtFixedRate(() -> log.info(stats.progressLine()),
+                reportIntervalSeconds, reportIntervalSeconds, TimeUnit.SECONDS);
+
+        long hardStop = acceptUntil + TimeUnit.SECONDS.toNanos(drainSeconds);
+        while (System.nanoTime() < hardStop
+                && (System.nanoTime() < acceptUntil || !all.stream().allMatch(SyntheticPlayer::isDone))) {
+            Thread.sleep(1000);
+        }
+
+        log.info("{}{}", System.lineSeparator(), stats.report());
+        all.forEach(SyntheticPlayer::stop);
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+        heartbeatScheduler.shutdown();
+    }
+
+    /** Same claims user-service issues, signed with the shared secret. */
+    private String token(long userId, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .claim("userId", userId)
+                .setSubject("load-" + userId)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + ttlMillis))
+                .signWith(jwtVerifier.getSigningKey())
+                .compact();
+    }
+
+    private static String wsUrl(String baseUrl) {
+        return baseUrl.replaceFirst("^http", "ws") + "/ws-indichess";
+    }
+}
@@ -0,0 +1,32 @@
+package com.indichess.loadtest;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * The parts of match-service payloads a synthetic player reads.
+ */
+final class Messages {
+
+    private Messages() {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record MatchView(Long id, Long player1Id, Long player2Id, String status, Integer currentPly,
+                     String fenCurrent, String gameType) {
+
+        boolean ongoing() {
+            return "ONGOING".equals(status);
+        }
+
+        int ply() {
+            return currentPly == null ? 0 : currentPly;
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record GameUpdate(Long seq, String type, MatchView match, String moveUci, String error) {
+    }
+
+    record MoveMessage(String moveUci, Integer expectedPly) {
+    }
+}
@@ -0,0 +1,274 @@
+package com.indichess.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Minimal chess position parsed from FEN, able to list legal moves in UCI.
+ * Only what a synthetic player needs: no move history, no draw rules (the server decides game end).
+ */
+final class Position {
+
+    private static final int[][] KNIGHT = {{1, 2}, {2, 1}, {2, -1}, {1, -2}, {-1, -2}, {-2, -1}, {-2, 1}, {-1, 2}};
+    private static final int[][] KING = {{1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}};
+    private static final int[][] DIAGONAL = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+    private static final int[][] STRAIGHT = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final char EMPTY = '.';
+
+    /** Square index is file + 8 * rank, with rank 0 being rank 1. */
+    private final char[] board = new char[64];
+    private boolean whiteToMove;
+    private String castling;
+    private int epSquare = -1;
+
+    private Position() {
+    }
+
+    static Position fromFen(String fen) {
+        Position p = new Position();
+        String[] parts = fen.trim().split("\\s+");
+        String[] rows = parts[0].split("/");
+        for (int row = 0; row < 8; row++) {
+            int rank = 7 - row;
+            int file = 0;
+            for (char c : rows[row].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    for (int k = 0; k < c - '0'; k++) {
+                        p.board[rank * 8 + file++] = EMPTY;
+                    }
+                } else {
+                    p.board[rank * 8 + file++] = c;
+                }
+            }
+        }
+        p.whiteToMove = parts.length < 2 || "w".equals(parts[1]);
+        p.castling = parts.length > 2 ? parts[2] : "-";
+        p.epSquare = parts.length > 3 && !"-".equals(parts[3]) ? square(parts[3]) : -1;
+        return p;
+    }
+
+    boolean isWhiteToMove() {
+        return whiteToMove;
+    }
+
+    /** A uniformly random legal move, or null if there is none (mate or stalemate). */
+    String randomLegalMove(Random random) {
+        List<String> moves = legalMoves();
+        return moves.isEmpty() ? null : moves.get(random.nextInt(moves.size()));
+    }
+
+    List<String> legalMoves() {
+        List<String> moves = new ArrayList<>();
+        for (int sq = 0; sq < 64; sq++) {
+            char piece = board[sq];
+            if (piece == EMPTY || isWhite(piece) != whiteToMove) continue;
+            switch (Character.toLowerCase(piece)) {
+                case 'p' -> pawnMoves(sq, moves);
+                case 'n' -> stepMoves(sq, KNIGHT, moves);
+                case 'b' -> slideMoves(sq, DIAGONAL, moves);
+                case 'r' -> slideMoves(sq, STRAIGHT, moves);
+                case 'q' -> {
+                    slideMoves(sq, DIAGONAL, moves);
+                    slideMoves(sq, STRAIGHT, moves);
+                }
+                case 'k' -> {
+                    stepMoves(sq, KING, moves);
+                    castleMoves(sq, moves);
+                }
+                default -> {
+                }
+            }
+        }
+        moves.removeIf(this::leavesKingInCheck);
+        return moves;
+    }
+
+    private void pawnMoves(int sq, List<String> moves) {
+        int dir = whiteToMove ? 1 : -1;
+        int rank = sq / 8;
+        int file = sq % 8;
+        int next = rank + dir;
+        if (next < 0 || next > 7) return;
+        boolean promotes = next == (whiteToMove ? 7 : 0);
+        int one = next * 8 + file;
+        if (board[one] == EMPTY) {
+            addPawnMove(sq, one, promotes, moves);
+            int start = whiteToMove ? 1 : 6;
+            int two = (rank + 2 * dir) * 8 + file;
+            if (rank == start && board[two] == EMPTY) {
+                moves.add(uci(sq, two));
+            }
+        }
+        for (int df = -1; df <= 1; df += 2) {
+            int f = file + df;
+            if (f < 0 || f > 7) continue;
+            int to = next * 8 + f;
+            if (to == epSquare || (board[to] != EMPTY && isWhite(board[to]) != whiteToMove)) {
+                addPawnMove(sq, to, promotes, moves);
+            }
+        }
+    }
+
+    private static void addPawnMove(int from, int to, boolean promotes, List<String> moves) {
+        if (!promotes) {
+            moves.add(uci(from, to));
+            return;
+        }
+        for (char promo : new char[]{'q', 'r', 'b', 'n'}) {
+            moves.add(uci(from, to) + promo);
+        }
+    }
+
+    private void stepMoves(int sq, int[][] offsets, List<String> moves) {
+        int rank = sq / 8;
+        int file = sq % 8;
+        for (int[] o : offsets) {
+            int f = file + o[0];
+            int r = rank + o[1];
+            if (f < 0 || f > 7 || r < 0 || r > 7) continue;
+            int to = r * 8 + f;
+            if (board[to] == EMPTY || isWhite(board[to]) != whiteToMove) {
+                moves.add(uci(sq, to));
+            }
+        }
+    }
+
+    private void slideMoves(int sq, int[][] directions, List<String> moves) {
+        int rank = sq / 8;
+        int file = sq % 8;
+        for (int[] d : directions) {
+            int f = file + d[0];
+            int r = rank + d[1];
+            while (f >= 0 && f <= 7 && r >= 0 && r <= 7) {
+                int to = r * 8 + f;
+                if (board[to] != EMPTY) {
+                    if (isWhite(board[to]) != whiteToMove) moves.add(uci(sq, to));
+                    break;
+                }
+                moves.add(uci(sq, to));
+                f += d[0];
+                r += d[1];
+            }
+        }
+    }
+
+    private void castleMoves(int sq, List<String> moves) {
+        int home = whiteToMove ? 4 : 60;
+        if (sq != home || isAttacked(home, !whiteToMove)) return;
+        char rook = whiteToMove ? 'R' : 'r';
+        char kingSide = whiteToMove ? 'K' : 'k';
+        char queenSide = whiteToMove ? 'Q' : 'q';
+        if (castling.indexOf(kingSide) >= 0 && board[home + 3] == rook
+                && board[home + 1] == EMPTY && board[home + 2] == EMPTY
+                && !isAttacked(home + 1, !whiteToMove) && !isAttacked(home + 2, !whiteToMove)) {
+            moves.add(uci(home, home + 2));
+        }
+        if (castling.indexOf(queenSide) >= 0 && board[home - 4] == rook
+                && board[home - 1] == EMPTY && board[home - 2] == EMPTY && board[home - 3] == EMPTY
+                && !isAttacked(home - 1, !whiteToMove) && !isAttacked(home - 2, !whiteToMove)) {
+            moves.add(uci(home, home - 2));
+        }
+    }
+
+    private boolean leavesKingInCheck(String move) {
+        Position after = copy();
+        after.apply(move);
+        char king = whiteToMove ? 'K' : 'k';
+        for (int sq = 0; sq < 64; sq++) {
+            if (after.board[sq] == king) {
+                return after.isAttacked(sq, !whiteToMove);
+            }
+        }
+        return true;
+    }
+
+    /** Moves pieces only; side to move and rights are not updated (used for the check test). */
+    private void apply(String move) {
+        int from = square(move.substring(0, 2));
+        int to = square(move.substring(2, 4));
+        char piece = board[from];
+        boolean pawn = Character.toLowerCase(piece) == 'p';
+        if (pawn && to == epSquare && board[to] == EMPTY && from % 8 != to % 8) {
+            board[to - (whiteToMove ? 8 : -8)] = EMPTY;
+        }
+        if (Character.toLowerCase(piece) == 'k' && Math.abs(to - from) == 2) {
+            int rookFrom = to > from ? from + 3 : from - 4;
+            int rookTo = to > from ? from + 1 : from - 1;
+            board[rookTo] = board[rookFrom];
+            board[rookFrom] = EMPTY;
+        }
+        board[to] = move.length() == 5
+                ? (whiteToMove ? Character.toUpperCase(move.charAt(4)) : move.charAt(4))
+                : piece;
+        board[from] = EMPTY;
+    }
+
+    private boolean isAttacked(int sq, boolean byWhite) {
+        int rank = sq / 8;
+        int file = sq % 8;
+        int pawnRank = byWhite ? rank - 1 : rank + 1;
+        char pawn = byWhite ? 'P' : 'p';
+        for (int df = -1; df <= 1; df += 2) {
+            int f = file + df;
+            if (f >= 0 && f <= 7 && pawnRank >= 0 && pawnRank <= 7 && board[pawnRank * 8 + f] == pawn) {
+                return true;
+            }
+        }
+        if (attackedByStep(rank, file, KNIGHT, byWhite ? 'N' : 'n')
+                || attackedByStep(rank, file, KING, byWhite ? 'K' : 'k')) {
+            return true;
+        }
+        return attackedBySlide(rank, file, DIAGONAL, byWhite ? 'B' : 'b', byWhite ? 'Q' : 'q')
+                || attackedBySlide(rank, file, STRAIGHT, byWhite ? 'R' : 'r', byWhite ? 'Q' : 'q');
+    }
+
+    private boolean attackedByStep(int rank, int file, int[][] offsets, char attacker) {
+        for (int[] o : offsets) {
+            int f = file + o[0];
+            int r = rank + o[1];
+            if (f >= 0 && f <= 7 && r >= 0 && r <= 7 && board[r * 8 + f] == attacker) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean attackedBySlide(int rank, int file, int[][] directions, char slider, char queen) {
+        for (int[] d : directions) {
+            int f = file + d[0];
+            int r = rank + d[1];
+            while (f >= 0 && f <= 7 && r >= 0 && r <= 7) {
+                char piece = board[r * 8 + f];
+                if (piece != EMPTY) {
+                    if (piece == slider || piece == queen) return true;
+                    break;
+                }
+                f += d[0];
+                r += d[1];
+            }
+        }
+        return false;
+    }
+
+    private Position copy() {
+        Position p = new Position();
+        System.arraycopy(board, 0, p.board, 0, 64);
+        p.whiteToMove = whiteToMove;
+        p.castling = castling;
+        p.epSquare = epSquare;
+        return p;
+    }
+
+    private static boolean isWhite(char piece) {
+        return Character.isUpperCase(piece);
+    }
+
+    private static int square(String name) {
+        return (name.charAt(1) - '1') * 8 + (name.charAt(0) - 'a');
+    }
+
+    private static String uci(int from, int to) {
+        return "" + (char) ('a' + from % 8) + (char) ('1' + from / 8) + (char) ('a' + to % 8) + (char) ('1' + to / 8);
+    }
+}
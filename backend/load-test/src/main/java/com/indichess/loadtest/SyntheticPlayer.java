@@ -0,0 +1,291 @@
+package com.indichess.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.indichess.loadtest.Messages.GameUpdate;
+import com.indichess.loadtest.Messages.MatchView;
+import com.indichess.loadtest.Messages.MoveMessage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * One simulated user: connects over STOMP, joins matchmaking over REST, plays random legal
+ * moves with log-normal think times until the game ends, then queues again until the run stops
+ * accepting new games.
+ */
+@Slf4j
+final class SyntheticPlayer extends StompSessionHandlerAdapter {
+
+    private static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final long STALL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int MAX_ERRORS_PER_GAME = 5;
+    private static final double THINK_TIME_SIGMA = 0.6;
+
+    private final long userId;
+    private final String gameType;
+    private final String token;
+    private final LoadContext ctx;
+    private final Random random;
+
+    private StompSession session;
+    private StompSession.Subscription gameSubscription;
+    private MatchView match;
+    private Long lastMatchId;
+    private Integer pendingPly;
+    private long pendingSentNanos;
+    private boolean moveScheduled;
+    private int errorsThisGame;
+    private long joinedAtNanos;
+    private long lastEventNanos;
+    private volatile boolean done;
+
+    SyntheticPlayer(long userId, String gameType, String token, LoadContext ctx) {
+        this.userId = userId;
+        this.gameType = gameType;
+        this.token = token;
+        this.ctx = ctx;
+        this.random = new Random(userId);
+    }
+
+    void start() {
+        ctx.stomp().connectAsync(ctx.wsUrl() + "?token={token}", this, token)
+                .whenComplete((s, ex) -> {
+                    if (ex != null) {
+                        ctx.stats().connectErrors.incrementAndGet();
+                        log.debug("Player {} failed to connect: {}", userId, ex.getMessage());
+                        done = true;
+                    }
+                });
+    }
+
+    boolean isDone() {
+        return done;
+    }
+
+    synchronized void stop() {
+        done = true;
+        if (session != null && session.isConnected()) {
+            session.disconnect();
+        }
+    }
+
+    @Override
+    public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+        ctx.stats().connects.incrementAndGet();
+        synchronized (this) {
+            this.session = session;
+        }
+        session.subscribe("/topic/matchmaking/" + userId, frameHandler(MatchView.class, this::onMatched));
+        ctx.workers().execute(this::join);
+    }
+
+    @Override
+    public void handleTransportError(StompSession session, Throwable exception) {
+        ctx.stats().transportErrors.incrementAndGet();
+        log.debug("Player {} lost its connection: {}", userId, exception.getMessage());
+        done = true;
+    }
+
+    @Override
+    public void handleException(StompSession session, StompCommand command, StompHeaders headers,
+                                byte[] payload, Throwable exception) {
+        log.debug("Player {} failed to handle a frame: {}", userId, exception.getMessage());
+    }
+
+    /** Called periodically; reloads the match over REST if no event arrived for a while. */
+    void checkStall() {
+        Long matchId;
+        synchronized (this) {
+            if (done || match == null || System.nanoTime() - lastEventNanos < STALL_NANOS) return;
+            lastEventNanos = System.nanoTime();
+            matchId = match.id();
+        }
+        ctx.stats().stalls.incrementAndGet();
+        ctx.workers().execute(() -> refresh(matchId));
+    }
+
+    private void join() {
+        if (done || !ctx.acceptingNewGames()) {
+            done = true;
+            return;
+        }
+        synchronized (this) {
+            joinedAtNanos = System.nanoTime();
+        }
+        ctx.stats().joins.incrementAndGet();
+        try {
+            ResponseEntity<JsonNode> response = ctx.http().post()
+                    .uri("/api/matchmaking/join?gameType={type}", gameType)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .retrieve()
+                    .toEntity(JsonNode.class);
+            if (response.getStatusCode().value() == 201 && response.getBody() != null) {
+                onMatched(ctx.objectMapper().treeToValue(response.getBody(), MatchView.class));
+            }
+        } catch (Exception e) {
+            ctx.stats().joinErrors.incrementAndGet();
+            log.debug("Player {} failed to join: {}", userId, e.getMessage());
+            ctx.scheduler().schedule(() -> ctx.workers().execute(this::join), 1, TimeUnit.SECONDS);
+        }
+    }
+
+    /** Both the joiner's REST response and the matchmaking topic announce a match; the first one wins. */
+    private synchronized void onMatched(MatchView m) {
+        if (m == null || m.id() == null || match != null || m.id().equals(lastMatchId)) return;
+        ctx.stats().matchmakingWait.record(System.nanoTime() - joinedAtNanos);
+        if (userId == m.player1Id()) {
+            ctx.stats().gamesStarted.incrementAndGet();
+        }
+        match = m;
+        pendingPly = null;
+        errorsThisGame = 0;
+        lastEventNanos = System.nanoTime();
+        gameSubscription = session.subscribe("/topic/game/" + m.id(), frameHandler(GameUpdate.class, this::onGameUpdate));
+        scheduleMoveIfMyTurn();
+    }
+
+    private synchronized void onGameUpdate(GameUpdate update) {
+        long now = System.nanoTime();
+        if (match == null) return;
+        if (update.match() == null) {
+            // ERROR frames go to both players; only the one with a move in flight owns it
+            if (pendingPly != null) {
+                ctx.stats().moveErrors.incrementAndGet();
+                pendingPly = null;
+                if (++errorsThisGame > MAX_ERRORS_PER_GAME) {
+                    resign();
+                } else {
+                    scheduleMoveIfMyTurn();
+                }
+            }
+            return;
+        }
+        if (!match.id().equals(update.match().id())) return;
+        lastEventNanos = now;
+        if (update.seq() != null) {
+            ctx.stats().eventReceived(match.id(), update.seq(), now);
+        }
+        if (pendingPly != null && update.match().ply() >= pendingPly) {
+            ctx.stats().moveRoundTrip.record(now - pendingSentNanos);
+            pendingPly = null;
+        }
+        if (update.match().ply() < match.ply()) return;
+        apply(update.match());
+    }
+
+    private void apply(MatchView m) {
+        match = m;
+        if (!m.ongoing()) {
+            endGame();
+            return;
+        }
+        scheduleMoveIfMyTurn();
+    }
+
+    private void scheduleMoveIfMyTurn() {
+        if (moveScheduled || pendingPly != null || !isMyTurn()) return;
+        moveScheduled = true;
+        int ply = match.ply();
+        ctx.scheduler().schedule(() -> makeMove(ply), thinkTimeMs(), TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void makeMove(int ply) {
+        moveScheduled = false;
+        if (match == null || match.ply() != ply || !isMyTurn() || !session.isConnected()) return;
+        if (ply >= ctx.maxPlies()) {
+            resign();
+            return;
+        }
+        String move = Position.fromFen(fen()).randomLegalMove(random);
+        if (move == null) return; // mate or stalemate; the server ends the game
+        pendingPly = ply + 1;
+        pendingSentNanos = System.nanoTime();
+        session.send("/app/game/" + match.id() + "/move", new MoveMessage(move, ply + 1));
+        ctx.stats().movesSent.incrementAndGet();
+    }
+
+    private void resign() {
+        ctx.stats().resigns.incrementAndGet();
+        session.send("/app/game/" + match.id() + "/resign", Map.of());
+    }
+
+    private void endGame() {
+        if (userId == match.player1Id()) {
+            ctx.stats().gamesFinished.incrementAndGet();
+        }
+        if (gameSubscription != null) {
+            gameSubscription.unsubscribe();
+            gameSubscription = null;
+        }
+        lastMatchId = match.id();
+        match = null;
+        pendingPly = null;
+        long pauseMs = 500 + random.nextInt(1500);
+        ctx.scheduler().schedule(() -> ctx.workers().execute(this::join), pauseMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void refresh(Long matchId) {
+        try {
+            MatchView m = ctx.http().get()
+                    .uri("/api/matches/{id}", matchId)
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .retrieve()
+                    .body(MatchView.class);
+            synchronized (this) {
+                if (m != null && match != null && match.id().equals(matchId)) {
+                    pendingPly = null;
+                    apply(m);
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Player {} failed to reload match {}: {}", userId, matchId, e.getMessage());
+        }
+    }
+
+    private boolean isMyTurn() {
+        boolean whiteToMove = fen().contains(" w ");
+        return whiteToMove ? userId == match.player1Id() : userId == match.player2Id();
+    }
+
+    private String fen() {
+        return match.fenCurrent() != null ? match.fenCurrent() : START_FEN;
+    }
+
+    /** Log-normal around the configured mean, scaled by time control. */
+    private long thinkTimeMs() {
+        double factor = switch (gameType) {
+            case "BULLET" -> 0.2;
+            case "BLITZ" -> 0.4;
+            case "CLASSICAL" -> 1.5;
+            default -> 1.0;
+        };
+        double mean = ctx.thinkTimeMs() * factor;
+        double sample = mean * Math.exp(THINK_TIME_SIGMA * random.nextGaussian() - THINK_TIME_SIGMA * THINK_TIME_SIGMA / 2);
+        return (long) Math.max(50, Math.min(sample, mean * 5));
+    }
+
+    private static <T> StompFrameHandler frameHandler(Class<T> type, Consumer<T> consumer) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return type;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                consumer.accept(type.cast(payload));
+            }
+        };
+    }
+}
@@ -1,11 +1,10 @@
 package com.indichess.match.config;
 
+import com.indichess.jwt.JwtVerifier;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.http.HttpSession;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpRequest;
@@ -13,16 +12,14 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.server.HandshakeInterceptor;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 @Component
+@RequiredArgsConstructor
 @Slf4j
 public class JwtHandshakeInterceptor implements HandshakeInterceptor {
 
-    @Value("${app.jwt.secret:change-me-change-me-change-me-change-me-32chars-min}")
-    private String secret;
+    private final JwtVerifier jwtVerifier;
 
     @Override
     public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
@@ -33,7 +30,7 @@ public class JwtHandshakeInterceptor implements HandshakeInterceptor {
             return false;
         }
         try {
-            Claims claims = validateToken(token);
+            Claims claims = jwtVerifier.verify(token);
             attributes.put("userId", claims.get("userId", Long.class));
             attributes.put("username", claims.getSubject());
             return true;
@@ -70,13 +67,4 @@ public class JwtHandshakeInterceptor implements HandshakeInterceptor {
         }
         return null;
     }
-
-    private Claims validateToken(String token) {
-        SecretKey key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
 }
@@ -0,0 +1,35 @@
+package com.indichess.match.config;
+
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.util.List;
+
+/**
+ * Handshake handler for the native WebSocket endpoint.
+ * Negotiates permessage-deflate (RFC 7692) when the container supports it and compression is enabled;
+ * otherwise strips it so frames are sent uncompressed. Other extensions are never negotiated.
+ */
+public class PerMessageDeflateHandshakeHandler extends DefaultHandshakeHandler {
+
+    static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+    private final boolean compressionEnabled;
+
+    public PerMessageDeflateHandshakeHandler(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    @Override
+    protected List<WebSocketExtension> filterRequestedExtensions(ServerHttpRequest request,
+                                                                 List<WebSocketExtension> requestedExtensions,
+                                                                 List<WebSocketExtension> supportedExtensions) {
+        if (!compressionEnabled) {
+            return List.of();
+        }
+        return super.filterRequestedExtensions(request, requestedExtensions, supportedExtensions).stream()
+                .filter(ext -> PERMESSAGE_DEFLATE.equalsIgnoreCase(ext.getName()))
+                .toList();
+    }
+}
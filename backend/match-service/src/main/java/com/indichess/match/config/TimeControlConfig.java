@@ -22,4 +22,12 @@ public final class TimeControlConfig {
         int[] tc = TIME_CONTROLS.get(gameType);
         return tc != null ? tc[1] : 0;
     }
+
+    public static long getInitialMillis(GameType gameType) {
+        return getInitialSeconds(gameType) * 1000L;
+    }
+
+    public static long getIncrementMillis(GameType gameType) {
+        return getIncrementSeconds(gameType) * 1000L;
+    }
 }
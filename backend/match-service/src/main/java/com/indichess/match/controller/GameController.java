@@ -1,9 +1,12 @@
 package com.indichess.match.controller;
 
+import com.indichess.match.dto.GameUpdateMessage;
 import com.indichess.match.dto.MatchResponse;
 import com.indichess.match.dto.MoveRequest;
 import com.indichess.match.dto.MoveResponse;
 import com.indichess.match.service.GameService;
+import com.indichess.match.service.GameService.MoveOutcome;
+import com.indichess.match.websocket.GameEventPublisher;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +20,7 @@ import java.util.List;
 public class GameController {
 
     private final GameService gameService;
+    private final GameEventPublisher gameEventPublisher;
 
     @PostMapping("/{id}/move")
     public ResponseEntity<MatchResponse> makeMove(
@@ -27,8 +31,11 @@ public class GameController {
         if (playerId == null) {
             return ResponseEntity.status(401).build();
         }
-        MatchResponse response = gameService.makeMove(id, playerId, request.getMoveUci());
-        return ResponseEntity.ok(response);
+        MoveOutcome outcome = gameService.makeMove(id, playerId, request.getMoveUci(), request.getExpectedPly());
+        if (!outcome.duplicate()) {
+            gameEventPublisher.publish(id, GameUpdateMessage.moveMade(outcome.match(), request.getMoveUci()));
+        }
+        return ResponseEntity.ok(outcome.match());
     }
 
     @PostMapping("/{id}/resign")
@@ -40,6 +47,7 @@ public class GameController {
             return ResponseEntity.status(401).build();
         }
         MatchResponse response = gameService.resign(id, playerId);
+        gameEventPublisher.publish(id, GameUpdateMessage.resigned(response, playerId));
         return ResponseEntity.ok(response);
     }
 
@@ -52,6 +60,7 @@ public class GameController {
             return ResponseEntity.status(401).build();
         }
         MatchResponse response = gameService.offerDraw(id, playerId);
+        gameEventPublisher.publish(id, GameUpdateMessage.drawOffered(response));
         return ResponseEntity.ok(response);
     }
 
@@ -64,6 +73,7 @@ public class GameController {
             return ResponseEntity.status(401).build();
         }
         MatchResponse response = gameService.acceptDraw(id, playerId);
+        gameEventPublisher.publish(id, GameUpdateMessage.draw(response));
         return ResponseEntity.ok(response);
     }
 
@@ -76,6 +86,7 @@ public class GameController {
             return ResponseEntity.status(401).build();
         }
         MatchResponse response = gameService.declineDraw(id, playerId);
+        gameEventPublisher.publish(id, GameUpdateMessage.drawDeclined(response));
         return ResponseEntity.ok(response);
     }
 
@@ -0,0 +1,50 @@
+package com.indichess.match.controller;
+
+import com.indichess.match.dto.LeaderboardEntry;
+import com.indichess.match.model.GameType;
+import com.indichess.match.service.LeaderboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/ratings/leaderboard")
+@RequiredArgsConstructor
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    @GetMapping("/{gameType}")
+    public ResponseEntity<List<LeaderboardEntry>> top(@PathVariable GameType gameType,
+                                                      @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(leaderboardService.top(gameType, limit));
+    }
+
+    @GetMapping("/{gameType}/me")
+    public ResponseEntity<LeaderboardEntry> myStanding(
+            @PathVariable GameType gameType,
+            @RequestHeader(value = "X-User-Id", required = false) String userIdHeader) {
+        if (userIdHeader == null) {
+            return ResponseEntity.status(401).build();
+        }
+        return ResponseEntity.of(leaderboardService.standing(gameType, Long.parseLong(userIdHeader)));
+    }
+
+    @GetMapping("/{gameType}/me/around")
+    public ResponseEntity<List<LeaderboardEntry>> aroundMe(
+            @PathVariable GameType gameType,
+            @RequestParam(defaultValue = "5") int radius,
+            @RequestHeader(value = "X-User-Id", required = false) String userIdHeader) {
+        if (userIdHeader == null) {
+            return ResponseEntity.status(401).build();
+        }
+        return ResponseEntity.ok(leaderboardService.around(gameType, Long.parseLong(userIdHeader), radius));
+    }
+
+    @GetMapping("/{gameType}/user/{userId}")
+    public ResponseEntity<LeaderboardEntry> userStanding(@PathVariable GameType gameType, @PathVariable Long userId) {
+        return ResponseEntity.of(leaderboardService.standing(gameType, userId));
+    }
+}
@@ -5,11 +5,16 @@ import com.indichess.match.model.GameType;
 import com.indichess.match.model.Match;
 import com.indichess.match.service.MatchQueueService;
 import com.indichess.match.service.MatchService;
+import com.indichess.match.service.MatchWaiters;
+import com.indichess.match.service.QueueLeases;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/matchmaking")
@@ -18,6 +23,14 @@ public class MatchmakingController {
 
     private final MatchQueueService matchQueueService;
     private final MatchService matchService;
+    private final QueueLeases queueLeases;
+    private final MatchWaiters matchWaiters;
+
+    @Value("${app.matchmaking.long-poll.timeout-ms:25000}")
+    private long longPollTimeoutMs;
+
+    @Value("${app.matchmaking.long-poll.max-timeout-ms:25000}")
+    private long longPollMaxTimeoutMs;
 
     @PostMapping("/join")
     public ResponseEntity<?> joinQueue(
@@ -32,6 +45,43 @@ public class MatchmakingController {
                 .orElse(ResponseEntity.ok().body(Map.of("status", "waiting")));
     }
 
+    /**
+     * Long-poll join: holds the request, without a worker thread, until the caller is paired or
+     * the timeout passes. Answers with the match (also when the caller is already playing one),
+     * or with {@code {status: "waiting"}} on timeout, after which the client polls again. Each
+     * poll renews the queue lease.
+     */
+    @PostMapping("/join/wait")
+    public DeferredResult<Object> joinAndWait(
+            @RequestParam GameType gameType,
+            @RequestParam(required = false) Long timeoutMs,
+            @RequestHeader(value = "X-User-Id", required = false) String userIdHeader) {
+        Long userId = userIdHeader != null ? Long.parseLong(userIdHeader) : null;
+        long timeout = timeoutMs != null && timeoutMs > 0 ? Math.min(timeoutMs, longPollMaxTimeoutMs) : longPollTimeoutMs;
+        DeferredResult<Object> result = new DeferredResult<>(timeout);
+        if (userId == null) {
+            result.setResult(ResponseEntity.status(401).build());
+            return result;
+        }
+        Optional<Match> ongoing = matchService.findOngoingMatch(userId);
+        if (ongoing.isPresent()) {
+            result.setResult(matchService.toMatchResponse(ongoing.get()));
+            return result;
+        }
+        result.onTimeout(() -> result.setResult(
+                Map.of("status", queueLeases.renew(userId) ? "waiting" : "not_queued")));
+        // Register before joining so a pairing made right after the join is not missed
+        matchWaiters.register(userId, result);
+        try {
+            matchQueueService.joinQueue(userId, gameType)
+                    .ifPresent(m -> result.setResult(matchService.toMatchResponse(m)));
+            queueLeases.renew(userId);
+        } catch (RuntimeException e) {
+            result.setErrorResult(e);
+        }
+        return result;
+    }
+
     @PostMapping("/leave")
     public ResponseEntity<Void> leaveQueue(
             @RequestHeader(value = "X-User-Id", required = false) String userIdHeader) {
@@ -42,4 +92,17 @@ public class MatchmakingController {
         matchQueueService.leaveQueue(userId);
         return ResponseEntity.ok().build();
     }
+
+    /** Keeps the caller's queue entry alive for clients without a STOMP session. */
+    @PostMapping("/heartbeat")
+    public ResponseEntity<?> heartbeat(
+            @RequestHeader(value = "X-User-Id", required = false) String userIdHeader) {
+        Long userId = userIdHeader != null ? Long.parseLong(userIdHeader) : null;
+        if (userId == null) {
+            return ResponseEntity.status(401).build();
+        }
+        return queueLeases.renew(userId)
+                ? ResponseEntity.ok(Map.of("status", "waiting", "leaseMs", queueLeases.leaseMillis()))
+                : ResponseEntity.status(404).body(Map.of("status", "not_queued"));
+    }
 }
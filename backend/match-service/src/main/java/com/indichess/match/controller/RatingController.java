@@ -1,11 +1,17 @@
 package com.indichess.match.controller;
 
+import com.indichess.match.dto.RatingHistoryResponse;
 import com.indichess.match.dto.RatingResponse;
+import com.indichess.match.model.GameType;
+import com.indichess.match.model.HistoryResolution;
+import com.indichess.match.service.RatingHistoryService;
 import com.indichess.match.service.RatingService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -14,6 +20,7 @@ import java.util.List;
 public class RatingController {
 
     private final RatingService ratingService;
+    private final RatingHistoryService ratingHistoryService;
 
     @GetMapping("/me")
     public ResponseEntity<List<RatingResponse>> getMyRatings(
@@ -29,4 +36,17 @@ public class RatingController {
     public ResponseEntity<List<RatingResponse>> getUserRatings(@PathVariable Long userId) {
         return ResponseEntity.ok(ratingService.getRatingsForUser(userId));
     }
+
+    /** Chart series; defaults to the last year, at daily or weekly resolution depending on the range. */
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<RatingHistoryResponse> getRatingHistory(
+            @PathVariable Long userId,
+            @RequestParam GameType gameType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) HistoryResolution resolution) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusYears(1);
+        return ResponseEntity.ok(ratingHistoryService.history(userId, gameType, start, end, resolution));
+    }
 }
@@ -0,0 +1,29 @@
+package com.indichess.match.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Reply to a resume request, sent to the requesting user on {@code /user/queue/game/{matchId}}.
+ * RESUME carries the events after the client's last seen seq; RESYNC means those events are no
+ * longer buffered and the client must reload the match over REST.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameResumeMessage {
+    private String type;
+    private List<GameUpdateMessage> events;
+    private Long latestSeq;
+
+    public static GameResumeMessage resume(List<GameUpdateMessage> events, Long latestSeq) {
+        return new GameResumeMessage("RESUME", events, latestSeq);
+    }
+
+    public static GameResumeMessage resync(Long latestSeq) {
+        return new GameResumeMessage("RESYNC", List.of(), latestSeq);
+    }
+}
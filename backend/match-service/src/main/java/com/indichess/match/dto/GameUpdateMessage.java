@@ -0,0 +1,86 @@
+package com.indichess.match.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Game event broadcast on {@code /topic/game/{matchId}}.
+ * {@code seq} is assigned by the game event buffer and increases by one per event within a match;
+ * ERROR messages are not sequenced.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GameUpdateMessage {
+    private Long seq;
+    private String type;
+    private MatchResponse match;
+    private String moveUci;
+    private Long resignedPlayerId;
+    private String error;
+
+    public static GameUpdateMessage moveMade(MatchResponse match, String moveUci) {
+        GameUpdateMessage m = new GameUpdateMessage();
+        m.setType("MOVE_MADE");
+        m.setMatch(match);
+        m.setMoveUci(moveUci);
+        return m;
+    }
+
+    public static GameUpdateMessage resigned(MatchResponse match, Long resignedPlayerId) {
+        GameUpdateMessage m = new GameUpdateMessage();
+        m.setType("RESIGNED");
+        m.setMatch(match);
+        m.setResignedPlayerId(resignedPlayerId);
+        return m;
+    }
+
+    public static GameUpdateMessage draw(MatchResponse match) {
+        GameUpdateMessage m = new GameUpdateMessage();
+        m.setType("DRAW");
+        m.setMatch(match);
+        return m;
+    }
+
+    /** The side to move ran out of time; {@code match.status} holds the result. */
+    public static GameUpdateMessage timeout(MatchResponse match) {
+        GameUpdateMessage m = new GameUpdateMessage();
+        m.setType("TIMEOUT");
+        m.setMatch(match);
+        return m;
+    }
+
+    /** Ended by the server without a result: nobody moved, or both players left. */
+    public static GameUpdateMessage abandoned(MatchResponse match) {
+        GameUpdateMessage m = new GameUpdateMessage();
+        m.setType("ABANDONED");
+        m.setMatch(match);
+        return m;
+    }
+
+    public static GameUpdateMessage drawOffered(MatchResponse match) {
+        GameUpdateMessage m = new GameUpdateMessage();
+        m.setType("DRAW_OFFERED");
+        m.setMatch(match);
+        return m;
+    }
+
+    public static GameUpdateMessage drawDeclined(MatchResponse match) {
+        GameUpdateMessage m = new GameUpdateMessage();
+        m.setType("DRAW_DECLINED");
+        m.setMatch(match);
+        return m;
+    }
+
+    public static GameUpdateMessage error(String error) {
+        GameUpdateMessage m = new GameUpdateMessage();
+        m.setType("ERROR");
+        m.setError(error);
+        return m;
+    }
+
+    public boolean isSequenced() {
+        return !"ERROR".equals(type);
+    }
+}
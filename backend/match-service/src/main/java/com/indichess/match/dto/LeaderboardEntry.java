@@ -0,0 +1,14 @@
+package com.indichess.match.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntry {
+    private Long rank;
+    private Long userId;
+    private Integer rating;
+}
@@ -24,7 +24,12 @@ public class MatchResponse {
     private LocalDateTime finishedAt;
     private LocalDateTime createdAt;
     private Long drawOfferedByPlayerId;
+    /** Whole seconds, rounded down; kept for clients that predate the millisecond fields. */
     private Integer player1TimeLeftSeconds;
     private Integer player2TimeLeftSeconds;
+    private Long player1TimeLeftMs;
+    private Long player2TimeLeftMs;
     private LocalDateTime lastMoveAt;
+    /** Clock time the last move took, after lag compensation; set on move results only. */
+    private Long lastMoveTimeSpentMs;
 }
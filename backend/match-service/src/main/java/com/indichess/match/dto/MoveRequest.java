@@ -21,4 +21,7 @@ public class MoveRequest {
     
     @NotBlank(message = "To square is required")
     private String toSquare;
+
+    /** Ply this move creates (client's currentPly + 1); makes resubmission idempotent. Optional. */
+    private Integer expectedPly;
 }
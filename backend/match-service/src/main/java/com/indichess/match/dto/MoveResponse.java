@@ -15,4 +15,6 @@ public class MoveResponse {
     private String fenAfter;
     private Boolean check;
     private Boolean checkmate;
+    private Long timeSpentMs;
+    private Long clockAfterMs;
 }
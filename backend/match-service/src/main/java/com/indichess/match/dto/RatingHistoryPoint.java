@@ -0,0 +1,22 @@
+package com.indichess.match.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One chart point. For a single change, {@code at} is when it happened; for a day or week it is
+ * the bucket's start, {@code rating} the last rating in the bucket and min/max its range.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingHistoryPoint {
+    private LocalDateTime at;
+    private Integer rating;
+    private Integer minRating;
+    private Integer maxRating;
+    private Integer changes;
+}
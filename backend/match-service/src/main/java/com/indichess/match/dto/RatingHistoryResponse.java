@@ -0,0 +1,18 @@
+package com.indichess.match.dto;
+
+import com.indichess.match.model.GameType;
+import com.indichess.match.model.HistoryResolution;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingHistoryResponse {
+    private GameType gameType;
+    private HistoryResolution resolution;
+    private List<RatingHistoryPoint> points;
+}
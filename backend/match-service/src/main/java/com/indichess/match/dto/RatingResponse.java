@@ -11,4 +11,5 @@ import lombok.NoArgsConstructor;
 public class RatingResponse {
     private GameType gameType;
     private Integer rating;
+    private Integer ratingDeviation;
 }
@@ -0,0 +1,8 @@
+package com.indichess.match.event;
+
+/**
+ * Published by the clock scheduler when the side to move in a match reaches its deadline.
+ * Listeners must re-check the clock against the database: the deadline may be stale.
+ */
+public record ClockExpiredEvent(Long matchId) {
+}
@@ -0,0 +1,11 @@
+package com.indichess.match.event;
+
+import com.indichess.match.dto.MatchResponse;
+
+/**
+ * Published by matchmaking when two queued players have been paired into {@code match}.
+ * Listeners that answer clients should wait for the commit, as the match is created in the
+ * publishing transaction.
+ */
+public record MatchPairedEvent(MatchResponse match) {
+}
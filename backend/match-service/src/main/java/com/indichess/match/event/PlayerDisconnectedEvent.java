@@ -0,0 +1,8 @@
+package com.indichess.match.event;
+
+/**
+ * Published when a user's last session watching a match goes away (disconnect, heartbeat
+ * timeout or unsubscribe). {@code goneSinceMillis} is the epoch time it happened.
+ */
+public record PlayerDisconnectedEvent(Long matchId, Long userId, long goneSinceMillis) {
+}
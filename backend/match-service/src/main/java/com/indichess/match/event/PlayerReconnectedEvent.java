@@ -0,0 +1,7 @@
+package com.indichess.match.event;
+
+/**
+ * Published when a user who was gone from a match subscribes to it again.
+ */
+public record PlayerReconnectedEvent(Long matchId, Long userId, long awayMillis) {
+}
@@ -0,0 +1,14 @@
+package com.indichess.match.event;
+
+import com.indichess.match.model.GameType;
+
+/**
+ * Published by {@code RatingService} whenever a player's rating for a game type is recomputed;
+ * {@code matchId} is null when a whole rating period was rated at once. Published inside the
+ * rating transaction; listeners that mirror ratings elsewhere should wait for the commit.
+ * {@code changeStamp} is the row's change stamp, assigned under the rating row lock, and orders
+ * changes of the same rating.
+ */
+public record RatingChangedEvent(Long userId, GameType gameType, Long matchId, int previousRating, int rating,
+                                 long changeStamp) {
+}
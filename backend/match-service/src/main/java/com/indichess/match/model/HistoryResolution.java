@@ -0,0 +1,8 @@
+package com.indichess.match.model;
+
+/** Granularity of a rating chart: every rating change, or one point per day or per week. */
+public enum HistoryResolution {
+    GAME,
+    DAY,
+    WEEK
+}
@@ -49,11 +49,11 @@ public class Match {
     @Column(name = "started_at")
     private LocalDateTime startedAt;
     
-    @Column(name = "player1_time_left_seconds")
-    private Integer player1TimeLeftSeconds;
+    @Column(name = "player1_time_left_ms")
+    private Long player1TimeLeftMs;
     
-    @Column(name = "player2_time_left_seconds")
-    private Integer player2TimeLeftSeconds;
+    @Column(name = "player2_time_left_ms")
+    private Long player2TimeLeftMs;
     
     @Column(name = "last_move_at")
     private LocalDateTime lastMoveAt;
@@ -8,7 +8,7 @@ import lombok.NoArgsConstructor;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "match_queue")
+@Table(name = "match_queue", uniqueConstraints = @UniqueConstraint(name = "uk_match_queue_user", columnNames = "user_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -32,6 +32,9 @@ public class MatchQueue {
     @Column(name = "joined_at")
     private LocalDateTime joinedAt;
     
+    @Column(name = "lease_expires_at", nullable = false)
+    private LocalDateTime leaseExpiresAt;
+    
     @PrePersist
     protected void onCreate() {
         this.joinedAt = LocalDateTime.now();
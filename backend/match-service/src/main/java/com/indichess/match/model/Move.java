@@ -50,6 +50,12 @@ public class Move {
     @Column(name = "fen_after", length = 200)
     private String fenAfter;
     
+    @Column(name = "time_spent_ms")
+    private Long timeSpentMs;
+    
+    @Column(name = "clock_after_ms")
+    private Long clockAfterMs;
+    
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
     
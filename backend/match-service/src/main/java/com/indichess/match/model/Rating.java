@@ -29,6 +29,19 @@ public class Rating {
     @Column(name = "rating")
     private Integer rating = 1200;
     
+    /** Unrounded rating; {@link #rating} is this rounded for display and pairing. */
+    @Column(name = "rating_exact")
+    private Double ratingExact;
+    
+    @Column(name = "rating_deviation", nullable = false)
+    private Double ratingDeviation = 350.0;
+    
+    @Column(name = "volatility", nullable = false)
+    private Double volatility = 0.06;
+    
+    @Column(name = "last_rated_at")
+    private LocalDateTime lastRatedAt;
+    
     @Column(name = "games_played")
     private Integer gamesPlayed = 0;
     
@@ -44,6 +57,10 @@ public class Rating {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    /** Epoch millis of the last rating change, kept strictly increasing per row; orders sync updates. */
+    @Column(name = "change_stamp", nullable = false)
+    private Long changeStamp = 0L;
+    
     @PrePersist
     @PreUpdate
     protected void onUpdate() {
@@ -0,0 +1,41 @@
+package com.indichess.match.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** A finished game waiting to be rated when the current rating period closes. */
+@Entity
+@Table(name = "rating_period_results")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingPeriodResult {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "result_id")
+    private Long resultId;
+
+    @Column(name = "match_id", nullable = false, unique = true)
+    private Long matchId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "game_type", nullable = false)
+    private GameType gameType;
+
+    @Column(name = "player1_id", nullable = false)
+    private Long player1Id;
+
+    @Column(name = "player2_id", nullable = false)
+    private Long player2Id;
+
+    @Column(name = "player1_score", nullable = false)
+    private Double player1Score;
+
+    @Column(name = "finished_at", nullable = false)
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,51 @@
+package com.indichess.match.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/** A player's ratings over one day or week: first, last, lowest and highest, and how many changes. */
+@Entity
+@Table(name = "rating_history_rollups")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RatingRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "rollup_id")
+    private Long rollupId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "game_type", nullable = false)
+    private GameType gameType;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resolution", nullable = false)
+    private HistoryResolution resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDate bucketStart;
+
+    @Column(name = "open_rating", nullable = false)
+    private Integer openRating;
+
+    @Column(name = "close_rating", nullable = false)
+    private Integer closeRating;
+
+    @Column(name = "min_rating", nullable = false)
+    private Integer minRating;
+
+    @Column(name = "max_rating", nullable = false)
+    private Integer maxRating;
+
+    @Column(name = "changes", nullable = false)
+    private Integer changes;
+}
@@ -3,8 +3,14 @@ package com.indichess.match.repo;
 import com.indichess.match.model.GameType;
 import com.indichess.match.model.MatchQueue;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +19,37 @@ public interface MatchQueueRepository extends JpaRepository<MatchQueue, Long> {
     Optional<MatchQueue> findByUserId(Long userId);
     List<MatchQueue> findByGameTypeOrderByJoinedAtAsc(GameType gameType);
     void deleteByUserId(Long userId);
+
+    /**
+     * Inserts or replaces the user's journal row in one statement (user_id is unique), so
+     * concurrent joins by the same user cannot leave duplicates. Locks the row until commit.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO match_queue (user_id, game_type, rating, joined_at, lease_expires_at) "
+            + "VALUES (:userId, :gameType, :rating, :joinedAt, :leaseExpiresAt) "
+            + "ON DUPLICATE KEY UPDATE game_type = VALUES(game_type), rating = VALUES(rating), "
+            + "joined_at = VALUES(joined_at), lease_expires_at = VALUES(lease_expires_at)", nativeQuery = true)
+    int upsert(@Param("userId") Long userId, @Param("gameType") String gameType, @Param("rating") int rating,
+               @Param("joinedAt") LocalDateTime joinedAt, @Param("leaseExpiresAt") LocalDateTime leaseExpiresAt);
+
+    /**
+     * Compare-and-delete: removes the user's row only if it is still queued for
+     * {@code gameType}. Returns 0 if the user left, switched queue or was claimed by another
+     * transaction first (which holds the row lock until it commits).
+     */
+    @Modifying
+    @Query("DELETE FROM MatchQueue q WHERE q.userId = :userId AND q.gameType = :gameType")
+    int claim(@Param("userId") Long userId, @Param("gameType") GameType gameType);
+
+    /** Extends the leases of the given users in one statement; rows already gone are skipped. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE MatchQueue q SET q.leaseExpiresAt = :until WHERE q.userId IN :userIds AND q.leaseExpiresAt < :until")
+    int renewLeases(@Param("userIds") Collection<Long> userIds, @Param("until") LocalDateTime until);
+
+    /** Bulk delete of every row whose lease lapsed; served by the lease index. */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MatchQueue q WHERE q.leaseExpiresAt <= :now")
+    int deleteLeaseExpired(@Param("now") LocalDateTime now);
 }
@@ -2,14 +2,57 @@ package com.indichess.match.repo;
 
 import com.indichess.match.model.Match;
 import com.indichess.match.model.MatchStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MatchRepository extends JpaRepository<Match, Long> {
     List<Match> findByPlayer1IdOrPlayer2Id(Long player1Id, Long player2Id);
     List<Match> findByPlayer1IdOrPlayer2IdAndStatus(Long player1Id, Long player2Id, MatchStatus status);
     List<Match> findByStatus(MatchStatus status);
+
+    /** Keyset page of matches in a status, in id order; pass the last id seen (0 to start). */
+    List<Match> findByStatusAndIdGreaterThanOrderByIdAsc(MatchStatus status, Long afterId, Pageable pageable);
+
+    /**
+     * Marks the given ongoing matches ABANDONED (with {@code unstartedOnly}, only if still nobody
+     * has moved). One short statement per batch; rows updated at or after {@code unchangedSince}
+     * (a move, a draw offer) are skipped by the WHERE clause, so a match that came back to life
+     * after it was read is left alone.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Match m SET m.status = com.indichess.match.model.MatchStatus.ABANDONED, "
+            + "m.finishedAt = :now, m.updatedAt = :now "
+            + "WHERE m.id IN :ids AND m.status = com.indichess.match.model.MatchStatus.ONGOING "
+            + "AND m.updatedAt < :unchangedSince "
+            + "AND (:unstartedOnly = false OR m.currentPly = 0)")
+    int abandonOngoing(@Param("ids") Collection<Long> ids, @Param("unstartedOnly") boolean unstartedOnly,
+                       @Param("unchangedSince") LocalDateTime unchangedSince, @Param("now") LocalDateTime now);
+
+    @Query("SELECT m FROM Match m WHERE m.status = com.indichess.match.model.MatchStatus.ONGOING "
+            + "AND (m.player1Id = :userId OR m.player2Id = :userId) ORDER BY m.id DESC")
+    List<Match> findOngoingByPlayer(@Param("userId") Long userId);
+
+    /** Ongoing matches of a user, read with a shared lock so a match committed a moment ago is seen. */
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT m FROM Match m WHERE m.status = com.indichess.match.model.MatchStatus.ONGOING "
+            + "AND (m.player1Id = :userId OR m.player2Id = :userId)")
+    List<Match> findOngoingByPlayerForShare(@Param("userId") Long userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Match m WHERE m.id = :id")
+    Optional<Match> findByIdForUpdate(@Param("id") Long id);
 }
@@ -8,9 +8,13 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface MoveRepository extends JpaRepository<Move, Long> {
     @Query("SELECT m FROM Move m WHERE m.match.id = :matchId ORDER BY m.ply ASC")
     List<Move> findByMatchIdOrderByPlyAsc(@Param("matchId") Long matchId);
+
+    @Query("SELECT m FROM Move m WHERE m.match.id = :matchId AND m.ply = :ply")
+    Optional<Move> findByMatchIdAndPly(@Param("matchId") Long matchId, @Param("ply") Integer ply);
 }
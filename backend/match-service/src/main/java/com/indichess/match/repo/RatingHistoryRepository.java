@@ -0,0 +1,16 @@
+package com.indichess.match.repo;
+
+import com.indichess.match.model.GameType;
+import com.indichess.match.model.RatingHistory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RatingHistoryRepository extends JpaRepository<RatingHistory, Long> {
+    List<RatingHistory> findByUserIdAndGameTypeAndRecordedAtBetweenOrderByRecordedAtDesc(
+            Long userId, GameType gameType, LocalDateTime from, LocalDateTime to, Pageable pageable);
+}
@@ -0,0 +1,28 @@
+package com.indichess.match.repo;
+
+import com.indichess.match.model.RatingPeriodResult;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RatingPeriodResultRepository extends JpaRepository<RatingPeriodResult, Long> {
+    boolean existsByMatchId(Long matchId);
+
+    /** Results of games that finished before {@code end}, i.e. those of every period that has ended by then. */
+    List<RatingPeriodResult> findByFinishedAtBeforeOrderByResultId(LocalDateTime end);
+
+    /**
+     * Deletes the given results, claiming them for the caller's transaction. A concurrent claim
+     * of the same rows waits for this one to commit and then deletes nothing.
+     */
+    @Modifying
+    @Query("DELETE FROM RatingPeriodResult r WHERE r.resultId IN :ids")
+    int claim(@Param("ids") Collection<Long> ids);
+}
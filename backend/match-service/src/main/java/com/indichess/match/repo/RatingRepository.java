@@ -2,9 +2,16 @@ package com.indichess.match.repo;
 
 import com.indichess.match.model.GameType;
 import com.indichess.match.model.Rating;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +19,16 @@ import java.util.Optional;
 public interface RatingRepository extends JpaRepository<Rating, Long> {
     Optional<Rating> findByUserIdAndGameType(Long userId, GameType gameType);
     List<Rating> findAllByUserIdOrderByGameType(Long userId);
+    List<Rating> findByGameTypeAndRatingIdGreaterThanOrderByRatingIdAsc(GameType gameType, Long afterId, Pageable pageable);
+
+    /** The users' ratings locked until commit; rows are taken in user-id order so two updaters cannot deadlock. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Rating r WHERE r.gameType = :gameType AND r.userId IN :userIds ORDER BY r.userId")
+    List<Rating> findAllForUpdate(@Param("gameType") GameType gameType, @Param("userIds") Collection<Long> userIds);
+
+    /** Creates the default row unless the user already has one; a concurrent creator is not an error. */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO ratings (user_id, game_type, rating, rating_exact, games_played, wins, losses, draws) "
+            + "VALUES (:userId, :gameType, :rating, :rating, 0, 0, 0, 0)", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId, @Param("gameType") String gameType, @Param("rating") int rating);
 }
@@ -0,0 +1,35 @@
+package com.indichess.match.repo;
+
+import com.indichess.match.model.GameType;
+import com.indichess.match.model.HistoryResolution;
+import com.indichess.match.model.RatingRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface RatingRollupRepository extends JpaRepository<RatingRollup, Long> {
+
+    /** Range scan on the unique key, newest bucket first. */
+    List<RatingRollup> findByUserIdAndGameTypeAndResolutionAndBucketStartBetweenOrderByBucketStartDesc(
+            Long userId, GameType gameType, HistoryResolution resolution, LocalDate from, LocalDate to,
+            Pageable pageable);
+
+    /** Folds one rating change into its bucket, opening the bucket if this is its first change. */
+    @Modifying
+    @Query(value = "INSERT INTO rating_history_rollups (user_id, game_type, resolution, bucket_start, "
+            + "open_rating, close_rating, min_rating, max_rating, changes) "
+            + "VALUES (:userId, :gameType, :resolution, :bucketStart, :rating, :rating, :rating, :rating, 1) "
+            + "ON DUPLICATE KEY UPDATE close_rating = VALUES(close_rating), "
+            + "min_rating = LEAST(min_rating, VALUES(min_rating)), "
+            + "max_rating = GREATEST(max_rating, VALUES(max_rating)), changes = changes + 1", nativeQuery = true)
+    int record(@Param("userId") Long userId, @Param("gameType") String gameType,
+               @Param("resolution") String resolution, @Param("bucketStart") LocalDate bucketStart,
+               @Param("rating") int rating);
+}
@@ -0,0 +1,170 @@
+package com.indichess.match.service;
+
+import com.indichess.match.event.ClockExpiredEvent;
+import com.indichess.match.model.Match;
+import com.indichess.match.model.MatchStatus;
+import com.indichess.match.repo.MatchRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracks the deadline of the side to move in every ongoing match on a hashed timing wheel and
+ * publishes a {@link ClockExpiredEvent} when one passes, so flags fall even if nobody moves.
+ * Ticking is a single thread doing O(1) work per expired clock; handling the expiry (database
+ * work) runs on a separate small pool so a slow flag cannot delay the wheel.
+ */
+@Component
+@Slf4j
+public class ClockScheduler {
+
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private final HashedTimingWheel<Long> wheel;
+    private final long tickMs;
+    private final MoveValidationService moveValidationService;
+    private final GameClock gameClock;
+    private final LagCompensator lagCompensator;
+    private final PresenceService presenceService;
+    private final MatchRepository matchRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ScheduledExecutorService ticker;
+    private final ExecutorService expiryExecutor;
+    private final Counter expired;
+
+    public ClockScheduler(MoveValidationService moveValidationService,
+                          GameClock gameClock,
+                          LagCompensator lagCompensator,
+                          PresenceService presenceService,
+                          MatchRepository matchRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.clock.tick-ms:100}") long tickMs,
+                          @Value("${app.clock.wheel-size:1024}") int wheelSize,
+                          @Value("${app.clock.expiry-threads:2}") int expiryThreads) {
+        this.moveValidationService = moveValidationService;
+        this.gameClock = gameClock;
+        this.lagCompensator = lagCompensator;
+        this.presenceService = presenceService;
+        this.matchRepository = matchRepository;
+        this.eventPublisher = eventPublisher;
+        this.tickMs = tickMs;
+        this.wheel = new HashedTimingWheel<>(wheelSize, tickMs, System.currentTimeMillis());
+        this.ticker = Executors.newSingleThreadScheduledExecutor(daemon("clock-wheel"));
+        this.expiryExecutor = Executors.newFixedThreadPool(expiryThreads, daemon("clock-expiry"));
+        this.expired = Counter.builder("game.clocks.expired")
+                .description("Clock deadlines reached on the timing wheel")
+                .register(meterRegistry);
+        Gauge.builder("game.clocks.active", wheel, HashedTimingWheel::size)
+                .description("Ongoing match clocks tracked by the timing wheel")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** Rebuilds the wheel from the database; clocks that ran out while we were down fire on the first tick. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restore() {
+        List<Match> ongoing = matchRepository.findByStatus(MatchStatus.ONGOING);
+        ongoing.forEach(this::track);
+        log.info("Tracking clocks of {} ongoing matches", ongoing.size());
+    }
+
+    @PreDestroy
+    void stop() {
+        ticker.shutdownNow();
+        expiryExecutor.shutdownNow();
+    }
+
+    /**
+     * Schedules the side-to-move deadline of an ongoing match, or forgets a finished one along
+     * with its players' presence marks.
+     */
+    public void track(Match match) {
+        if (match.getId() == null) {
+            return;
+        }
+        if (match.getStatus() != MatchStatus.ONGOING) {
+            untrack(match.getId());
+            presenceService.matchFinished(match.getId(), match.getPlayer1Id(), match.getPlayer2Id());
+            return;
+        }
+        lagCompensator.register(match.getId(), match.getPlayer1Id(), match.getPlayer2Id());
+        wheel.schedule(match.getId(), deadlineMillis(match));
+    }
+
+    /** Drops the clock and all per-match clock state. */
+    public void untrack(Long matchId) {
+        wheel.cancel(matchId);
+        gameClock.forget(matchId);
+        lagCompensator.forget(matchId);
+    }
+
+    public boolean isTracking(Long matchId) {
+        return wheel.deadlineOf(matchId) != null;
+    }
+
+    public int trackedCount() {
+        return wheel.size();
+    }
+
+    /**
+     * Epoch millis at which the side to move runs out of time if it does not move, including
+     * the lag compensation it would be credited with.
+     */
+    public long deadlineMillis(Match match) {
+        boolean whiteToMove = moveValidationService.isWhiteToMove(match.getFenCurrent());
+        Long mover = whiteToMove ? match.getPlayer1Id() : match.getPlayer2Id();
+        long remaining = gameClock.storedMillis(match, whiteToMove) - gameClock.elapsedMillis(match)
+                + lagCompensator.estimate(match.getId(), mover);
+        return System.currentTimeMillis() + remaining;
+    }
+
+    private void tick() {
+        try {
+            List<Long> due = wheel.advance(System.currentTimeMillis());
+            for (Long matchId : due) {
+                expired.increment();
+                expiryExecutor.execute(() -> publish(new ClockExpiredEvent(matchId)));
+            }
+        } catch (Exception e) {
+            log.error("Clock wheel tick failed", e);
+        }
+    }
+
+    private void publish(ClockExpiredEvent event) {
+        try {
+            eventPublisher.publishEvent(event);
+        } catch (Exception e) {
+            // Try again shortly rather than leaving the match without a clock
+            log.warn("Handling clock expiry of match {} failed", event.matchId(), e);
+            wheel.schedule(event.matchId(), System.currentTimeMillis() + RETRY_DELAY_MS);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
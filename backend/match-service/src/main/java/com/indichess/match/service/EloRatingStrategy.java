@@ -0,0 +1,32 @@
+package com.indichess.match.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/** Fixed-K Elo; deviation and volatility are carried along untouched. */
+@Component
+@ConditionalOnProperty(name = "app.rating.strategy", havingValue = "elo")
+public class EloRatingStrategy implements RatingStrategy {
+
+    private final double kFactor;
+
+    public EloRatingStrategy(@Value("${app.rating.elo.k-factor:32}") double kFactor) {
+        this.kFactor = kFactor;
+    }
+
+    @Override
+    public PlayerRating rate(PlayerRating player, List<GameResult> results) {
+        double delta = 0;
+        for (GameResult result : results) {
+            delta += kFactor * (result.score() - expectedScore(player.rating(), result.opponent().rating()));
+        }
+        return new PlayerRating(player.rating() + delta, player.deviation(), player.volatility());
+    }
+
+    private static double expectedScore(double ratingA, double ratingB) {
+        return 1.0 / (1.0 + Math.pow(10, (ratingB - ratingA) / 400.0));
+    }
+}
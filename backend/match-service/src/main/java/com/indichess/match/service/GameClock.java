@@ -0,0 +1,55 @@
+package com.indichess.match.service;
+
+import com.indichess.match.config.TimeControlConfig;
+import com.indichess.match.model.Match;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures how long the side to move has been thinking.
+ * <p>
+ * The node that applied the last move keeps a {@link System#nanoTime()} anchor for the turn,
+ * so elapsed time is immune to wall-clock steps (NTP corrections, leap smearing). A node
+ * without an anchor for the current ply (after a restart, or when another node took the
+ * move) falls back to the millisecond {@code last_move_at} timestamp.
+ */
+@Component
+public class GameClock {
+
+    private final Map<Long, Anchor> anchors = new ConcurrentHashMap<>();
+
+    /** Starts the turn that follows {@code ply} (0 for the first move of the game). */
+    public void turnStarted(Long matchId, int ply) {
+        anchors.put(matchId, new Anchor(ply, System.nanoTime()));
+    }
+
+    public void forget(Long matchId) {
+        anchors.remove(matchId);
+    }
+
+    /** Milliseconds the side to move has used since the turn started. */
+    public long elapsedMillis(Match match) {
+        Anchor anchor = anchors.get(match.getId());
+        if (anchor != null && match.getCurrentPly() != null && anchor.ply() == match.getCurrentPly()) {
+            return Math.max(0, (System.nanoTime() - anchor.nanos()) / 1_000_000);
+        }
+        LocalDateTime since = match.getLastMoveAt() != null ? match.getLastMoveAt() : match.getStartedAt();
+        if (since == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(since, LocalDateTime.now()).toMillis());
+    }
+
+    /** Clock of the given side as stored, i.e. at the start of the current turn. */
+    public long storedMillis(Match match, boolean white) {
+        Long left = white ? match.getPlayer1TimeLeftMs() : match.getPlayer2TimeLeftMs();
+        return left != null ? left : TimeControlConfig.getInitialMillis(match.getGameType());
+    }
+
+    private record Anchor(int ply, long nanos) {
+    }
+}
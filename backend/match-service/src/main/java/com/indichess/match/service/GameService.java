@@ -12,10 +12,12 @@ import com.indichess.match.repo.MoveRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,10 +29,41 @@ public class GameService {
     private final MatchService matchService;
     private final MoveValidationService moveValidationService;
     private final RatingService ratingService;
+    private final MoveDedupeWindow moveDedupeWindow;
+    private final ClockScheduler clockScheduler;
+    private final GameClock gameClock;
+    private final LagCompensator lagCompensator;
 
+    /**
+     * Result of {@link #makeMove}: the match after the call, and whether the move was a
+     * retransmission of one already applied, in which case nothing changed and nothing should
+     * be broadcast.
+     */
+    public record MoveOutcome(MatchResponse match, boolean duplicate) {
+    }
+
+    /**
+     * Applies a move. When {@code expectedPly} is given (the ply this move creates, i.e. the client's
+     * currentPly + 1), a retransmission of an already applied move is reported as a duplicate with the
+     * current match state instead of being validated and written again, and a move made against a
+     * stale position is rejected.
+     */
     @Transactional
-    public MatchResponse makeMove(Long matchId, Long playerId, String moveUci) {
-        Match match = matchService.findById(matchId);
+    public MoveOutcome makeMove(Long matchId, Long playerId, String moveUci, Integer expectedPly) {
+        if (expectedPly != null && moveDedupeWindow.find(matchId, playerId, expectedPly, moveUci).isPresent()) {
+            Match current = matchRepository.findById(matchId)
+                    .orElseThrow(() -> new RuntimeException("Match not found"));
+            return new MoveOutcome(matchService.toMatchResponse(current), true);
+        }
+        Match match = matchRepository.findByIdForUpdate(matchId)
+                .orElseThrow(() -> new RuntimeException("Match not found"));
+        if (expectedPly != null && expectedPly != match.getCurrentPly() + 1) {
+            if (isAlreadyApplied(match, playerId, moveUci, expectedPly)) {
+                return new MoveOutcome(matchService.toMatchResponse(match), true);
+            }
+            throw new IllegalStateException("Stale move: expected ply " + expectedPly
+                    + " but the next ply is " + (match.getCurrentPly() + 1));
+        }
         if (match.getStatus() != MatchStatus.ONGOING) {
             throw new IllegalStateException("Match is not ongoing");
         }
@@ -40,42 +73,34 @@ public class GameService {
             throw new IllegalStateException("Not your turn");
         }
 
-        LocalDateTime lastMoveAt = match.getLastMoveAt() != null ? match.getLastMoveAt() : match.getStartedAt();
-        if (lastMoveAt == null) lastMoveAt = LocalDateTime.now();
-        long elapsedSeconds = ChronoUnit.SECONDS.between(lastMoveAt, LocalDateTime.now());
-        int increment = TimeControlConfig.getIncrementSeconds(match.getGameType());
-        if (whiteToMove) {
-            int p1Time = match.getPlayer1TimeLeftSeconds() != null ? match.getPlayer1TimeLeftSeconds() : TimeControlConfig.getInitialSeconds(match.getGameType());
-            int after = (int) (p1Time - elapsedSeconds + increment);
-            match.setPlayer1TimeLeftSeconds(Math.max(0, after));
-            if (after <= 0) {
-                match.setStatus(MatchStatus.PLAYER2_WON);
-                match.setFinishedAt(LocalDateTime.now());
-                match.setLastMoveAt(LocalDateTime.now());
-                matchRepository.save(match);
-                ratingService.updateRatingsAfterMatch(match);
-                return matchService.toMatchResponse(match);
-            }
-        } else {
-            int p2Time = match.getPlayer2TimeLeftSeconds() != null ? match.getPlayer2TimeLeftSeconds() : TimeControlConfig.getInitialSeconds(match.getGameType());
-            int after = (int) (p2Time - elapsedSeconds + increment);
-            match.setPlayer2TimeLeftSeconds(Math.max(0, after));
-            if (after <= 0) {
-                match.setStatus(MatchStatus.PLAYER1_WON);
-                match.setFinishedAt(LocalDateTime.now());
-                match.setLastMoveAt(LocalDateTime.now());
-                matchRepository.save(match);
-                ratingService.updateRatingsAfterMatch(match);
-                return matchService.toMatchResponse(match);
-            }
+        long elapsedMs = gameClock.elapsedMillis(match);
+        long storedMs = gameClock.storedMillis(match, whiteToMove);
+        if (storedMs - elapsedMs + lagCompensator.estimate(matchId, playerId) <= 0) {
+            applyFlag(match, whiteToMove);
+            match.setLastMoveAt(LocalDateTime.now());
+            matchRepository.save(match);
+            ratingService.updateRatingsAfterMatch(match);
+            clockScheduler.track(match);
+            return new MoveOutcome(rememberResult(matchService.toMatchResponse(match), matchId, playerId, moveUci,
+                    expectedPly), false);
         }
-        match.setLastMoveAt(LocalDateTime.now());
 
         ValidationResult result = moveValidationService.validateAndApply(match.getFenCurrent(), moveUci);
         if (!result.valid()) {
             throw new IllegalArgumentException(result.error());
         }
 
+        // Credit lag only for moves that are actually applied, so rejected moves cannot drain the quota
+        long spentMs = elapsedMs - lagCompensator.compensate(matchId, playerId, elapsedMs);
+        long leftMs = storedMs - spentMs;
+        long clockAfterMs = leftMs + TimeControlConfig.getIncrementMillis(match.getGameType());
+        if (whiteToMove) {
+            match.setPlayer1TimeLeftMs(clockAfterMs);
+        } else {
+            match.setPlayer2TimeLeftMs(clockAfterMs);
+        }
+        match.setLastMoveAt(LocalDateTime.now());
+
         int nextPly = match.getCurrentPly() + 1;
         String fromSquare = moveUci.substring(0, 2);
         String toSquare = moveUci.substring(2, 4);
@@ -91,6 +116,8 @@ public class GameService {
         move.setFenAfter(result.newFen());
         move.setCheck(result.isCheck());
         move.setCheckmate(result.isCheckmate());
+        move.setTimeSpentMs(spentMs);
+        move.setClockAfterMs(clockAfterMs);
         moveRepository.save(move);
 
         match.setCurrentPly(nextPly);
@@ -107,8 +134,86 @@ public class GameService {
             ratingService.updateRatingsAfterMatch(match);
         }
         matchRepository.save(match);
+        gameClock.turnStarted(matchId, nextPly);
+        clockScheduler.track(match);
 
-        return matchService.toMatchResponse(match);
+        MatchResponse response = matchService.toMatchResponse(match);
+        response.setLastMoveTimeSpentMs(spentMs);
+        return new MoveOutcome(rememberResult(response, matchId, playerId, moveUci, expectedPly), false);
+    }
+
+    /**
+     * Ends the match on time if the side to move has run out, called when its clock deadline
+     * passes. The side that flagged loses unless the opponent cannot possibly checkmate, in
+     * which case the game is drawn. Returns empty when the match already ended or the clock
+     * has not actually run out (e.g. a move landed first), rescheduling the clock in that case.
+     */
+    @Transactional
+    public Optional<MatchResponse> flagOnTime(Long matchId) {
+        Match match = matchRepository.findByIdForUpdate(matchId).orElse(null);
+        if (match == null || match.getStatus() != MatchStatus.ONGOING) {
+            clockScheduler.untrack(matchId);
+            return Optional.empty();
+        }
+        if (clockScheduler.deadlineMillis(match) > System.currentTimeMillis()) {
+            clockScheduler.track(match);
+            return Optional.empty();
+        }
+        applyFlag(match, moveValidationService.isWhiteToMove(match.getFenCurrent()));
+        match.setUpdatedAt(LocalDateTime.now());
+        matchRepository.save(match);
+        ratingService.updateRatingsAfterMatch(match);
+        clockScheduler.track(match);
+        return Optional.of(matchService.toMatchResponse(match));
+    }
+
+    /**
+     * The side to move ran out: it loses, unless the opponent cannot possibly checkmate. A game
+     * in which nobody has moved yet is abandoned instead, so a no-show costs no rating.
+     */
+    private void applyFlag(Match match, boolean whiteFlagged) {
+        if (whiteFlagged) {
+            match.setPlayer1TimeLeftMs(0L);
+        } else {
+            match.setPlayer2TimeLeftMs(0L);
+        }
+        if (match.getCurrentPly() == 0) {
+            match.setStatus(MatchStatus.ABANDONED);
+        } else if (!moveValidationService.canCheckmate(match.getFenCurrent(), !whiteFlagged)) {
+            match.setStatus(MatchStatus.DRAW);
+        } else {
+            match.setStatus(whiteFlagged ? MatchStatus.PLAYER2_WON : MatchStatus.PLAYER1_WON);
+        }
+        match.setDrawOfferedByPlayerId(null);
+        match.setFinishedAt(LocalDateTime.now());
+    }
+
+    private boolean isAlreadyApplied(Match match, Long playerId, String moveUci, int ply) {
+        if (ply < 1 || ply > match.getCurrentPly()) return false;
+        boolean whitePly = ply % 2 == 1;
+        if (whitePly != match.getPlayer1Id().equals(playerId)) return false;
+        return moveRepository.findByMatchIdAndPly(match.getId(), ply)
+                .map(m -> moveUci.equals(m.getMoveNotation()))
+                .orElse(false);
+    }
+
+    /** Once the transaction commits, keeps the response for duplicate submissions. */
+    private MatchResponse rememberResult(MatchResponse response, Long matchId, Long playerId, String moveUci,
+                                         Integer expectedPly) {
+        if (expectedPly == null) {
+            return response;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    moveDedupeWindow.record(matchId, playerId, expectedPly, moveUci, response);
+                }
+            });
+        } else {
+            moveDedupeWindow.record(matchId, playerId, expectedPly, moveUci, response);
+        }
+        return response;
     }
 
     private String extractPieceType(String fen, String fromSquare) {
@@ -124,7 +229,7 @@ public class GameService {
 
     @Transactional
     public MatchResponse resign(Long matchId, Long playerId) {
-        Match match = matchService.findById(matchId);
+        Match match = lockMatch(matchId);
         if (match.getStatus() != MatchStatus.ONGOING) {
             throw new IllegalStateException("Match is not ongoing");
         }
@@ -134,12 +239,13 @@ public class GameService {
         match.setUpdatedAt(LocalDateTime.now());
         matchRepository.save(match);
         ratingService.updateRatingsAfterMatch(match);
+        clockScheduler.track(match);
         return matchService.toMatchResponse(match);
     }
 
     @Transactional
     public MatchResponse offerDraw(Long matchId, Long playerId) {
-        Match match = matchService.findById(matchId);
+        Match match = lockMatch(matchId);
         if (match.getStatus() != MatchStatus.ONGOING) {
             throw new IllegalStateException("Match is not ongoing");
         }
@@ -154,7 +260,7 @@ public class GameService {
 
     @Transactional
     public MatchResponse acceptDraw(Long matchId, Long playerId) {
-        Match match = matchService.findById(matchId);
+        Match match = lockMatch(matchId);
         if (match.getStatus() != MatchStatus.ONGOING) {
             throw new IllegalStateException("Match is not ongoing");
         }
@@ -171,12 +277,13 @@ public class GameService {
         match.setUpdatedAt(LocalDateTime.now());
         matchRepository.save(match);
         ratingService.updateRatingsAfterMatch(match);
+        clockScheduler.track(match);
         return matchService.toMatchResponse(match);
     }
 
     @Transactional
     public MatchResponse declineDraw(Long matchId, Long playerId) {
-        Match match = matchService.findById(matchId);
+        Match match = lockMatch(matchId);
         if (match.getStatus() != MatchStatus.ONGOING) {
             throw new IllegalStateException("Match is not ongoing");
         }
@@ -189,6 +296,12 @@ public class GameService {
         return matchService.toMatchResponse(match);
     }
 
+    /** Locks the match row so a concurrent move, flag or sweep cannot end the game underneath us. */
+    private Match lockMatch(Long matchId) {
+        return matchRepository.findByIdForUpdate(matchId)
+                .orElseThrow(() -> new RuntimeException("Match not found"));
+    }
+
     public List<com.indichess.match.dto.MoveResponse> getMoveHistory(Long matchId) {
         List<Move> moves = moveRepository.findByMatchIdOrderByPlyAsc(matchId);
         return moves.stream()
@@ -201,6 +314,8 @@ public class GameService {
                     r.setFenAfter(m.getFenAfter());
                     r.setCheck(m.getCheck());
                     r.setCheckmate(m.getCheckmate());
+                    r.setTimeSpentMs(m.getTimeSpentMs());
+                    r.setClockAfterMs(m.getClockAfterMs());
                     return r;
                 })
                 .collect(Collectors.toList());
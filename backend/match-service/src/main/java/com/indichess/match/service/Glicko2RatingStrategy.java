@@ -0,0 +1,118 @@
+package com.indichess.match.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Glickman's Glicko-2. A new player's deviation starts high, so their first games move the
+ * rating a long way and it settles within a handful of games; an established player's rating
+ * moves little. Volatility tracks how erratic a player's results are.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rating.strategy", havingValue = "glicko2", matchIfMissing = true)
+public class Glicko2RatingStrategy implements RatingStrategy {
+
+    /** Converts between the Glicko scale and the Glicko-2 internal scale. */
+    private static final double SCALE = 173.7178;
+    private static final double CONVERGENCE = 1e-6;
+
+    private final double tau;
+    private final double minDeviation;
+    private final double maxDeviation;
+
+    public Glicko2RatingStrategy(@Value("${app.rating.glicko2.tau:0.5}") double tau,
+                                 @Value("${app.rating.glicko2.min-deviation:45}") double minDeviation,
+                                 @Value("${app.rating.glicko2.max-deviation:350}") double maxDeviation) {
+        this.tau = tau;
+        this.minDeviation = minDeviation;
+        this.maxDeviation = maxDeviation;
+    }
+
+    @Override
+    public PlayerRating rate(PlayerRating player, List<GameResult> results) {
+        double phi = player.deviation() / SCALE;
+        double sigma = player.volatility();
+        if (results.isEmpty()) {
+            return new PlayerRating(player.rating(), clamp(Math.sqrt(phi * phi + sigma * sigma) * SCALE), sigma);
+        }
+        double mu = player.rating() / SCALE;
+
+        double inverseVariance = 0;
+        double improvement = 0;
+        for (GameResult result : results) {
+            double g = g(result.opponent().deviation() / SCALE);
+            double expected = 1.0 / (1.0 + Math.exp(-g * (mu - result.opponent().rating() / SCALE)));
+            inverseVariance += g * g * expected * (1 - expected);
+            improvement += g * (result.score() - expected);
+        }
+        double v = 1.0 / inverseVariance;
+        double delta = v * improvement;
+
+        double newSigma = volatility(phi, sigma, v, delta);
+        double phiStar = Math.sqrt(phi * phi + newSigma * newSigma);
+        double newPhi = 1.0 / Math.sqrt(1.0 / (phiStar * phiStar) + 1.0 / v);
+        double newMu = mu + newPhi * newPhi * improvement;
+        return new PlayerRating(newMu * SCALE, clamp(newPhi * SCALE), newSigma);
+    }
+
+    @Override
+    public PlayerRating idle(PlayerRating player, double periods) {
+        if (periods <= 0) {
+            return player;
+        }
+        double phi = player.deviation() / SCALE;
+        double sigma = player.volatility();
+        return new PlayerRating(player.rating(), clamp(Math.sqrt(phi * phi + periods * sigma * sigma) * SCALE), sigma);
+    }
+
+    private static double g(double phi) {
+        return 1.0 / Math.sqrt(1 + 3 * phi * phi / (Math.PI * Math.PI));
+    }
+
+    /** Step 5 of the paper: solves for the new volatility with the Illinois method. */
+    private double volatility(double phi, double sigma, double v, double delta) {
+        double a = Math.log(sigma * sigma);
+        double phi2 = phi * phi;
+        double delta2 = delta * delta;
+        DoubleUnaryOperator f = x -> {
+            double ex = Math.exp(x);
+            double d = phi2 + v + ex;
+            return ex * (delta2 - phi2 - v - ex) / (2 * d * d) - (x - a) / (tau * tau);
+        };
+
+        double lower = a;
+        double upper;
+        if (delta2 > phi2 + v) {
+            upper = Math.log(delta2 - phi2 - v);
+        } else {
+            int k = 1;
+            while (f.applyAsDouble(a - k * tau) < 0) {
+                k++;
+            }
+            upper = a - k * tau;
+        }
+        double fLower = f.applyAsDouble(lower);
+        double fUpper = f.applyAsDouble(upper);
+        while (Math.abs(upper - lower) > CONVERGENCE) {
+            double c = lower + (lower - upper) * fLower / (fUpper - fLower);
+            double fc = f.applyAsDouble(c);
+            if (fc * fUpper <= 0) {
+                lower = upper;
+                fLower = fUpper;
+            } else {
+                fLower = fLower / 2;
+            }
+            upper = c;
+            fUpper = fc;
+        }
+        return Math.exp(lower / 2);
+    }
+
+    private double clamp(double deviation) {
+        return Math.max(minDeviation, Math.min(maxDeviation, deviation));
+    }
+}
@@ -0,0 +1,113 @@
+package com.indichess.match.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hashed timing wheel holding at most one deadline per key.
+ * Scheduling, rescheduling and cancelling are O(1); each tick only visits one bucket, so the
+ * cost of advancing is proportional to the number of deadlines that hash to it, not to the
+ * total number of keys. Deadlines further out than one rotation stay in their bucket until
+ * the wheel comes round to the right absolute tick.
+ */
+public class HashedTimingWheel<K> {
+
+    private final long tickMillis;
+    private final long originMillis;
+    private final int mask;
+    private final Set<Timeout<K>>[] buckets;
+    private final Map<K, Timeout<K>> timeouts = new HashMap<>();
+    private long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(int wheelSize, long tickMillis, long originMillis) {
+        if (wheelSize <= 0 || Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive: " + tickMillis);
+        }
+        this.tickMillis = tickMillis;
+        this.originMillis = originMillis;
+        this.mask = wheelSize - 1;
+        this.buckets = new Set[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new LinkedHashSet<>();
+        }
+    }
+
+    /** Sets (or replaces) the deadline of {@code key}; a deadline already past fires on the next tick. */
+    public synchronized void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        long tick = Math.max(Math.floorDiv(deadlineMillis - originMillis + tickMillis - 1, tickMillis), currentTick + 1);
+        Timeout<K> timeout = new Timeout<>(key, tick, deadlineMillis);
+        timeouts.put(key, timeout);
+        buckets[(int) (tick & mask)].add(timeout);
+    }
+
+    public synchronized boolean cancel(K key) {
+        Timeout<K> timeout = timeouts.remove(key);
+        if (timeout == null) {
+            return false;
+        }
+        buckets[(int) (timeout.tick & mask)].remove(timeout);
+        return true;
+    }
+
+    /** Advances the wheel to {@code nowMillis} and removes and returns every key whose deadline has passed. */
+    public synchronized List<K> advance(long nowMillis) {
+        long target = Math.floorDiv(nowMillis - originMillis, tickMillis);
+        List<K> expired = new ArrayList<>();
+        if (target - currentTick > mask) {
+            // Fell behind by more than a rotation (e.g. a long pause): sweep every bucket once
+            for (Set<Timeout<K>> bucket : buckets) {
+                expire(bucket, target, expired);
+            }
+            currentTick = target;
+            return expired;
+        }
+        while (currentTick < target) {
+            currentTick++;
+            expire(buckets[(int) (currentTick & mask)], currentTick, expired);
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return timeouts.size();
+    }
+
+    public synchronized Long deadlineOf(K key) {
+        Timeout<K> timeout = timeouts.get(key);
+        return timeout == null ? null : timeout.deadlineMillis;
+    }
+
+    private void expire(Set<Timeout<K>> bucket, long upToTick, List<K> expired) {
+        Iterator<Timeout<K>> it = bucket.iterator();
+        while (it.hasNext()) {
+            Timeout<K> timeout = it.next();
+            if (timeout.tick <= upToTick) {
+                it.remove();
+                timeouts.remove(timeout.key);
+                expired.add(timeout.key);
+            }
+        }
+    }
+
+    private static final class Timeout<K> {
+        final K key;
+        final long tick;
+        final long deadlineMillis;
+
+        Timeout(K key, long tick, long deadlineMillis) {
+            this.key = key;
+            this.tick = tick;
+            this.deadlineMillis = deadlineMillis;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.indichess.match.service;
+
+import com.indichess.match.model.GameType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Single-node leaderboard. Each game type keeps a Fenwick tree of player counts per rating,
+ * which answers "how many players rate above r" in O(log R), next to a sorted set of players
+ * for listing the top and a player's neighbours.
+ */
+@Component
+@ConditionalOnProperty(name = "app.leaderboard.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryLeaderboard implements Leaderboard {
+
+    /** Ratings above this share the top bucket of the Fenwick tree. */
+    static final int MAX_RATING = 4095;
+
+    private final Map<GameType, Board> boards = new ConcurrentHashMap<>();
+
+    public InMemoryLeaderboard() {
+        for (GameType type : GameType.values()) {
+            boards.put(type, new Board());
+        }
+    }
+
+    @Override
+    public void update(GameType gameType, Long userId, int rating, long changeStamp) {
+        Board board = boards.get(gameType);
+        board.lock.writeLock().lock();
+        try {
+            board.put(userId, rating, changeStamp);
+        } finally {
+            board.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Standing> top(GameType gameType, int limit) {
+        Board board = boards.get(gameType);
+        board.lock.readLock().lock();
+        try {
+            List<Standing> standings = new ArrayList<>(Math.min(limit, board.order.size()));
+            for (Iterator<Key> it = board.order.iterator(); it.hasNext() && standings.size() < limit; ) {
+                standings.add(board.standing(it.next()));
+            }
+            return standings;
+        } finally {
+            board.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Standing> standing(GameType gameType, Long userId) {
+        Board board = boards.get(gameType);
+        board.lock.readLock().lock();
+        try {
+            Integer rating = board.ratings.get(userId);
+            return rating == null ? Optional.empty() : Optional.of(board.standing(new Key(rating, userId)));
+        } finally {
+            board.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Standing> around(GameType gameType, Long userId, int radius) {
+        Board board = boards.get(gameType);
+        board.lock.readLock().lock();
+        try {
+            Integer rating = board.ratings.get(userId);
+            if (rating == null) {
+                return List.of();
+            }
+            Key self = new Key(rating, userId);
+            List<Standing> standings = new ArrayList<>(2 * radius + 1);
+            for (Iterator<Key> it = board.order.headSet(self, false).descendingIterator();
+                 it.hasNext() && standings.size() < radius; ) {
+                standings.add(board.standing(it.next()));
+            }
+            Collections.reverse(standings);
+            int limit = standings.size() + radius + 1;
+            for (Iterator<Key> it = board.order.tailSet(self, true).iterator(); it.hasNext() && standings.size() < limit; ) {
+                standings.add(board.standing(it.next()));
+            }
+            return standings;
+        } finally {
+            board.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long size(GameType gameType) {
+        Board board = boards.get(gameType);
+        board.lock.readLock().lock();
+        try {
+            return board.ratings.size();
+        } finally {
+            board.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void replace(GameType gameType, Map<Long, Rated> ratings) {
+        Board board = new Board();
+        ratings.forEach((userId, rated) -> board.put(userId, rated.rating(), rated.changeStamp()));
+        boards.put(gameType, board);
+    }
+
+    /** Highest rating first, then lowest user id, so equal ratings list in a stable order. */
+    private record Key(int rating, long userId) {
+        static final Comparator<Key> ORDER = Comparator.comparingInt(Key::rating).reversed()
+                .thenComparingLong(Key::userId);
+    }
+
+    private static final class Board {
+        final ReadWriteLock lock = new ReentrantReadWriteLock();
+        final TreeSet<Key> order = new TreeSet<>(Key.ORDER);
+        final Map<Long, Integer> ratings = new HashMap<>();
+        final Map<Long, Long> stamps = new HashMap<>();
+        /** 1-based Fenwick tree; slot {@code bucket(r)} counts players rated r. */
+        final int[] counts = new int[MAX_RATING + 2];
+
+        void put(Long userId, int rating, long changeStamp) {
+            Long known = stamps.get(userId);
+            if (known != null && known >= changeStamp) {
+                return;
+            }
+            stamps.put(userId, changeStamp);
+            Integer previous = ratings.put(userId, rating);
+            if (previous != null) {
+                order.remove(new Key(previous, userId));
+                add(bucket(previous), -1);
+            }
+            order.add(new Key(rating, userId));
+            add(bucket(rating), 1);
+        }
+
+        Standing standing(Key key) {
+            return new Standing(1 + ratings.size() - atOrBelow(bucket(key.rating())), key.userId(), key.rating());
+        }
+
+        private void add(int index, int delta) {
+            for (int i = index; i < counts.length; i += i & -i) {
+                counts[i] += delta;
+            }
+        }
+
+        private int atOrBelow(int index) {
+            int sum = 0;
+            for (int i = index; i > 0; i -= i & -i) {
+                sum += counts[i];
+            }
+            return sum;
+        }
+
+        private static int bucket(int rating) {
+            return Math.max(0, Math.min(MAX_RATING, rating)) + 1;
+        }
+    }
+}
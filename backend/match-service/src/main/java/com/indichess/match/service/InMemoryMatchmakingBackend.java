@@ -0,0 +1,174 @@
+package com.indichess.match.service;
+
+import com.indichess.match.model.GameType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.ToIntFunction;
+
+/**
+ * Single-node matchmaking pool. Per game type, one set ordered by rating (to find the nearest
+ * opponent with a floor/ceiling lookup) and one ordered by join time (to serve the
+ * longest-waiting players first), plus one set ordered by lease expiry so lapsed entries are
+ * found without a scan. Every operation is O(log n) apart from the batch pass, which is
+ * O(n log n) for the whole pool.
+ */
+@Component
+@ConditionalOnProperty(name = "app.matchmaking.backend", havingValue = "memory", matchIfMissing = true)
+public class InMemoryMatchmakingBackend implements MatchmakingBackend {
+
+    private static final Comparator<Entry> BY_RATING = Comparator.comparingInt(Entry::rating)
+            .thenComparingLong(Entry::joinedAtMillis)
+            .thenComparing(Entry::userId);
+    private static final Comparator<Entry> BY_JOINED = Comparator.comparingLong(Entry::joinedAtMillis)
+            .thenComparing(Entry::userId);
+
+    private final Map<GameType, Bucket> buckets = new EnumMap<>(GameType.class);
+    private static final Comparator<Entry> BY_LEASE = Comparator.comparingLong(Entry::leaseExpiresAtMillis)
+            .thenComparing(Entry::userId);
+
+    private final Map<Long, Entry> byUser = new HashMap<>();
+    private final TreeSet<Entry> byLease = new TreeSet<>(BY_LEASE);
+
+    public InMemoryMatchmakingBackend() {
+        for (GameType type : GameType.values()) {
+            buckets.put(type, new Bucket());
+        }
+    }
+
+    @Override
+    public synchronized Optional<Entry> add(Entry entry) {
+        Optional<Entry> previous = remove(entry.userId());
+        byUser.put(entry.userId(), entry);
+        byLease.add(entry);
+        buckets.get(entry.gameType()).add(entry);
+        return previous;
+    }
+
+    @Override
+    public synchronized Optional<Entry> remove(Long userId) {
+        Entry entry = byUser.remove(userId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        byLease.remove(entry);
+        buckets.get(entry.gameType()).remove(entry);
+        return Optional.of(entry);
+    }
+
+    @Override
+    public synchronized Optional<Entry> find(Long userId) {
+        return Optional.ofNullable(byUser.get(userId));
+    }
+
+    @Override
+    public synchronized int size(GameType gameType) {
+        return buckets.get(gameType).byRating.size();
+    }
+
+    @Override
+    public synchronized boolean renew(Long userId, long leaseExpiresAtMillis) {
+        Entry entry = byUser.get(userId);
+        if (entry == null) {
+            return false;
+        }
+        if (leaseExpiresAtMillis > entry.leaseExpiresAtMillis()) {
+            add(entry.withLease(leaseExpiresAtMillis));
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized List<Entry> expire(long nowMillis) {
+        List<Entry> expired = new ArrayList<>();
+        while (!byLease.isEmpty() && byLease.first().lapsed(nowMillis)) {
+            Entry entry = byLease.first();
+            remove(entry.userId());
+            expired.add(entry);
+        }
+        return expired;
+    }
+
+    public synchronized List<Entry> entries(GameType gameType) {
+        return new ArrayList<>(buckets.get(gameType).byJoined);
+    }
+
+    @Override
+    public synchronized Optional<Pair> pairNearest(Long userId, int maxGap, long nowMillis) {
+        Entry entry = byUser.get(userId);
+        if (entry == null || entry.lapsed(nowMillis)) {
+            return Optional.empty();
+        }
+        Bucket bucket = buckets.get(entry.gameType());
+        Entry opponent = bucket.nearest(entry, nowMillis);
+        if (opponent == null || Math.abs(opponent.rating() - entry.rating()) > maxGap) {
+            return Optional.empty();
+        }
+        return Optional.of(take(entry, opponent));
+    }
+
+    @Override
+    public synchronized List<Pair> pairAll(GameType gameType, ToIntFunction<Entry> maxGap, long nowMillis) {
+        Bucket bucket = buckets.get(gameType);
+        List<Pair> pairs = new ArrayList<>();
+        for (Entry entry : new ArrayList<>(bucket.byJoined)) {
+            if (!bucket.byRating.contains(entry) || entry.lapsed(nowMillis)) {
+                continue; // already taken as someone's opponent, or gone
+            }
+            Entry opponent = bucket.nearest(entry, nowMillis);
+            if (opponent != null && Math.abs(opponent.rating() - entry.rating()) <= maxGap.applyAsInt(entry)) {
+                pairs.add(take(entry, opponent));
+            }
+        }
+        return pairs;
+    }
+
+    private Pair take(Entry a, Entry b) {
+        remove(a.userId());
+        remove(b.userId());
+        return BY_JOINED.compare(a, b) <= 0 ? new Pair(a, b) : new Pair(b, a);
+    }
+
+    private static final class Bucket {
+        final TreeSet<Entry> byRating = new TreeSet<>(BY_RATING);
+        final TreeSet<Entry> byJoined = new TreeSet<>(BY_JOINED);
+
+        void add(Entry entry) {
+            byRating.add(entry);
+            byJoined.add(entry);
+        }
+
+        void remove(Entry entry) {
+            byRating.remove(entry);
+            byJoined.remove(entry);
+        }
+
+        /** Closest live rating on either side; ties go to whoever has waited longer. */
+        Entry nearest(Entry entry, long nowMillis) {
+            Entry below = byRating.lower(entry);
+            while (below != null && below.lapsed(nowMillis)) {
+                below = byRating.lower(below);
+            }
+            Entry above = byRating.higher(entry);
+            while (above != null && above.lapsed(nowMillis)) {
+                above = byRating.higher(above);
+            }
+            if (below == null) return above;
+            if (above == null) return below;
+            int gapBelow = entry.rating() - below.rating();
+            int gapAbove = above.rating() - entry.rating();
+            if (gapBelow != gapAbove) {
+                return gapBelow < gapAbove ? below : above;
+            }
+            return BY_JOINED.compare(below, above) <= 0 ? below : above;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.indichess.match.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single-node presence store. Gone marks expire after {@code app.presence.gone-ttl-seconds},
+ * like their Redis counterparts, so users who never come back do not pile up.
+ */
+@Component
+@ConditionalOnProperty(name = "app.presence.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryPresenceStore implements PresenceStore {
+
+    private final Map<Long, Long> sessions = new ConcurrentHashMap<>();
+    private final Map<MatchUser, Long> watchers = new ConcurrentHashMap<>();
+    private final Cache<MatchUser, Long> gone;
+
+    public InMemoryPresenceStore(@Value("${app.presence.gone-ttl-seconds:86400}") long goneTtlSeconds) {
+        this.gone = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofSeconds(goneTtlSeconds))
+                .build();
+    }
+
+    @Override
+    public long addSession(Long userId) {
+        return sessions.merge(userId, 1L, Long::sum);
+    }
+
+    @Override
+    public long removeSession(Long userId) {
+        Long left = sessions.computeIfPresent(userId, (id, n) -> n > 1 ? n - 1 : null);
+        return left == null ? 0 : left;
+    }
+
+    @Override
+    public void touch(Long userId, Collection<Long> matchIds) {
+        // Sessions cannot outlive this node, so there is nothing to expire
+    }
+
+    @Override
+    public boolean isOnline(Long userId) {
+        return sessions.containsKey(userId);
+    }
+
+    @Override
+    public long addWatcher(Long matchId, Long userId) {
+        return watchers.merge(new MatchUser(matchId, userId), 1L, Long::sum);
+    }
+
+    @Override
+    public long removeWatcher(Long matchId, Long userId) {
+        Long left = watchers.computeIfPresent(new MatchUser(matchId, userId), (k, n) -> n > 1 ? n - 1 : null);
+        return left == null ? 0 : left;
+    }
+
+    @Override
+    public void markGone(Long matchId, Long userId, long sinceMillis) {
+        gone.asMap().putIfAbsent(new MatchUser(matchId, userId), sinceMillis);
+    }
+
+    @Override
+    public Long clearGone(Long matchId, Long userId) {
+        return gone.asMap().remove(new MatchUser(matchId, userId));
+    }
+
+    @Override
+    public Long goneSince(Long matchId, Long userId) {
+        return gone.getIfPresent(new MatchUser(matchId, userId));
+    }
+
+    private record MatchUser(Long matchId, Long userId) {
+    }
+}
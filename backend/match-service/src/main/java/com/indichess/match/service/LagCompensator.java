@@ -0,0 +1,102 @@
+package com.indichess.match.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Gives back clock time lost to network latency, based on the round-trip times each client
+ * reports from its clock pings. The one-way estimate (half the smoothed RTT) is credited per
+ * move, but never more than {@code max-per-move-ms}, and only out of a per-player quota that
+ * starts at {@code initial-quota-ms} and refills by {@code quota-gain-ms} per move up to
+ * {@code max-quota-ms}. A client that lies about its RTT can therefore win back at most a
+ * small, fixed amount of time per game.
+ */
+@Component
+public class LagCompensator {
+
+    private static final double SMOOTHING = 0.3;
+
+    private final long maxRttMs;
+    private final long maxPerMoveMs;
+    private final long initialQuotaMs;
+    private final long quotaGainMs;
+    private final long maxQuotaMs;
+
+    private final Map<Long, Map<Long, Tracker>> trackers = new ConcurrentHashMap<>();
+
+    public LagCompensator(@Value("${app.clock.lag.max-rtt-ms:2000}") long maxRttMs,
+                          @Value("${app.clock.lag.max-per-move-ms:300}") long maxPerMoveMs,
+                          @Value("${app.clock.lag.initial-quota-ms:1000}") long initialQuotaMs,
+                          @Value("${app.clock.lag.quota-gain-ms:100}") long quotaGainMs,
+                          @Value("${app.clock.lag.max-quota-ms:2000}") long maxQuotaMs) {
+        this.maxRttMs = maxRttMs;
+        this.maxPerMoveMs = maxPerMoveMs;
+        this.initialQuotaMs = initialQuotaMs;
+        this.quotaGainMs = quotaGainMs;
+        this.maxQuotaMs = maxQuotaMs;
+    }
+
+    /** Starts tracking the players of a match; RTT reports from anyone else are ignored. */
+    public void register(Long matchId, Long player1Id, Long player2Id) {
+        tracker(matchId, player1Id);
+        tracker(matchId, player2Id);
+    }
+
+    public void recordRtt(Long matchId, Long playerId, long rttMs) {
+        Map<Long, Tracker> players = trackers.get(matchId);
+        Tracker tracker = players == null ? null : players.get(playerId);
+        if (tracker != null && rttMs >= 0) {
+            tracker.record(Math.min(rttMs, maxRttMs));
+        }
+    }
+
+    /** Compensation to credit for a move that took {@code elapsedMs}; consumes quota. */
+    public long compensate(Long matchId, Long playerId, long elapsedMs) {
+        return tracker(matchId, playerId).take(elapsedMs);
+    }
+
+    /** Compensation the player would get right now; used as grace before flagging them. */
+    public long estimate(Long matchId, Long playerId) {
+        Map<Long, Tracker> players = trackers.get(matchId);
+        Tracker tracker = players == null ? null : players.get(playerId);
+        return tracker == null ? 0 : tracker.available();
+    }
+
+    public void forget(Long matchId) {
+        trackers.remove(matchId);
+    }
+
+    private Tracker tracker(Long matchId, Long playerId) {
+        return trackers.computeIfAbsent(matchId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(playerId, id -> new Tracker(initialQuotaMs));
+    }
+
+    private final class Tracker {
+        private double smoothedRttMs = -1;
+        private long quotaMs;
+
+        Tracker(long quotaMs) {
+            this.quotaMs = quotaMs;
+        }
+
+        synchronized void record(long rttMs) {
+            smoothedRttMs = smoothedRttMs < 0 ? rttMs : SMOOTHING * rttMs + (1 - SMOOTHING) * smoothedRttMs;
+        }
+
+        synchronized long available() {
+            if (smoothedRttMs < 0) {
+                return 0;
+            }
+            return Math.min(Math.min((long) (smoothedRttMs / 2), maxPerMoveMs), quotaMs);
+        }
+
+        synchronized long take(long elapsedMs) {
+            long credit = Math.min(available(), Math.max(0, elapsedMs));
+            quotaMs = Math.min(maxQuotaMs, quotaMs - credit + quotaGainMs);
+            return credit;
+        }
+    }
+}
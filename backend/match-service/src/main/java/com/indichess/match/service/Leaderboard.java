@@ -0,0 +1,39 @@
+package com.indichess.match.service;
+
+import com.indichess.match.model.GameType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Players ordered by rating per game type: in memory on a single node, a Redis sorted set per
+ * game type when several nodes share it. Ranks are competition ranks (equal ratings share a
+ * rank, the next rank skips), and every query costs O(log n) plus the entries returned.
+ * Each entry keeps the change stamp of the rating it shows, so changes applied out of order
+ * cannot put an older rating back.
+ */
+public interface Leaderboard {
+
+    record Standing(long rank, Long userId, int rating) {
+    }
+
+    /** A rating and the change stamp of the ratings row it was read from. */
+    record Rated(int rating, long changeStamp) {
+    }
+
+    /** Sets the user's rating unless the board already holds one with the same or a newer stamp. */
+    void update(GameType gameType, Long userId, int rating, long changeStamp);
+
+    List<Standing> top(GameType gameType, int limit);
+
+    Optional<Standing> standing(GameType gameType, Long userId);
+
+    /** Up to {@code radius} players either side of the user, the user included; empty if unranked. */
+    List<Standing> around(GameType gameType, Long userId, int radius);
+
+    long size(GameType gameType);
+
+    /** Swaps in a board built from {@code ratings} (user id to rating and stamp). */
+    void replace(GameType gameType, Map<Long, Rated> ratings);
+}
@@ -0,0 +1,42 @@
+package com.indichess.match.service;
+
+import com.indichess.match.model.GameType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * {@code /actuator/leaderboard}: board sizes per game type; a POST rebuilds every board from the
+ * ratings table.
+ */
+@Component
+@Endpoint(id = "leaderboard")
+@RequiredArgsConstructor
+public class LeaderboardEndpoint {
+
+    private final Leaderboard leaderboard;
+    private final LeaderboardService leaderboardService;
+
+    @ReadOperation
+    public Map<GameType, Long> sizes() {
+        Map<GameType, Long> sizes = new EnumMap<>(GameType.class);
+        for (GameType gameType : GameType.values()) {
+            sizes.put(gameType, leaderboard.size(gameType));
+        }
+        return sizes;
+    }
+
+    @WriteOperation
+    public Map<GameType, Integer> rebuild() {
+        Map<GameType, Integer> rebuilt = new EnumMap<>(GameType.class);
+        for (GameType gameType : GameType.values()) {
+            rebuilt.put(gameType, leaderboardService.rebuild(gameType));
+        }
+        return rebuilt;
+    }
+}
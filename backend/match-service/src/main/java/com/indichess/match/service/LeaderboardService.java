@@ -0,0 +1,106 @@
+package com.indichess.match.service;
+
+import com.indichess.match.dto.LeaderboardEntry;
+import com.indichess.match.event.RatingChangedEvent;
+import com.indichess.match.model.GameType;
+import com.indichess.match.model.Rating;
+import com.indichess.match.repo.RatingRepository;
+import com.indichess.match.service.Leaderboard.Rated;
+import com.indichess.match.service.Leaderboard.Standing;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Leaderboards per game type, kept current from {@link RatingChangedEvent}s once the rating
+ * change commits; an event older than the entry's change stamp is ignored, so listeners running
+ * out of commit order keep the newest rating. An empty board is rebuilt from the ratings table on
+ * startup; a rebuild while games finish may miss those few changes until the players' next games.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaderboardService {
+
+    private static final int REBUILD_PAGE = 1000;
+
+    private final Leaderboard leaderboard;
+    private final RatingRepository ratingRepository;
+
+    @Value("${app.leaderboard.max-limit:100}")
+    private int maxLimit = 100;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(RatingChangedEvent event) {
+        try {
+            leaderboard.update(event.gameType(), event.userId(), event.rating(), event.changeStamp());
+        } catch (Exception e) {
+            log.warn("Leaderboard update for user {} failed: {}", event.userId(), e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildEmptyBoards() {
+        for (GameType gameType : GameType.values()) {
+            try {
+                if (leaderboard.size(gameType) == 0) {
+                    rebuild(gameType);
+                }
+            } catch (Exception e) {
+                log.warn("Leaderboard rebuild for {} failed: {}", gameType, e.getMessage());
+            }
+        }
+    }
+
+    /** Reloads the board from the ratings table in id order; returns the number of players. */
+    public int rebuild(GameType gameType) {
+        Map<Long, Rated> ratings = new HashMap<>();
+        long cursor = 0;
+        List<Rating> page;
+        do {
+            page = ratingRepository.findByGameTypeAndRatingIdGreaterThanOrderByRatingIdAsc(
+                    gameType, cursor, PageRequest.of(0, REBUILD_PAGE));
+            for (Rating rating : page) {
+                ratings.put(rating.getUserId(), new Rated(rating.getRating(), rating.getChangeStamp()));
+                cursor = rating.getRatingId();
+            }
+        } while (page.size() == REBUILD_PAGE);
+        leaderboard.replace(gameType, ratings);
+        log.info("Rebuilt {} leaderboard with {} players", gameType, ratings.size());
+        return ratings.size();
+    }
+
+    public List<LeaderboardEntry> top(GameType gameType, int limit) {
+        return toEntries(leaderboard.top(gameType, clamp(limit)));
+    }
+
+    public Optional<LeaderboardEntry> standing(GameType gameType, Long userId) {
+        return leaderboard.standing(gameType, userId).map(LeaderboardService::toEntry);
+    }
+
+    public List<LeaderboardEntry> around(GameType gameType, Long userId, int radius) {
+        return toEntries(leaderboard.around(gameType, userId, Math.max(0, Math.min(maxLimit / 2, radius))));
+    }
+
+    private int clamp(int limit) {
+        return Math.max(0, Math.min(maxLimit, limit));
+    }
+
+    private static List<LeaderboardEntry> toEntries(List<Standing> standings) {
+        return standings.stream().map(LeaderboardService::toEntry).toList();
+    }
+
+    private static LeaderboardEntry toEntry(Standing standing) {
+        return new LeaderboardEntry(standing.rank(), standing.userId(), standing.rating());
+    }
+}
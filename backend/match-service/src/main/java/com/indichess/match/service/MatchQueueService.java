@@ -1,81 +1,268 @@
 package com.indichess.match.service;
 
 import com.indichess.match.dto.MatchResponse;
+import com.indichess.match.event.MatchPairedEvent;
 import com.indichess.match.model.GameType;
 import com.indichess.match.model.Match;
 import com.indichess.match.model.MatchQueue;
-import com.indichess.match.model.MatchStatus;
 import com.indichess.match.repo.MatchQueueRepository;
+import com.indichess.match.service.MatchmakingBackend.Entry;
+import com.indichess.match.service.MatchmakingBackend.Pair;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.util.Comparator;
+import java.time.ZoneId;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
+/**
+ * Matchmaking. Waiting players live in a {@link MatchmakingBackend} (in memory, or Redis when
+ * several nodes share the queue), so pairing a newcomer is a rating-ordered lookup rather than
+ * a table scan; the {@code match_queue} table is only a journal of who is waiting, read back
+ * into an in-memory pool on startup.
+ * <p>
+ * A newcomer is paired at once if someone is within the initial rating window. Everyone else
+ * is handled by {@link #tryMatch} on the matchmaking tick, where each player's window grows
+ * with the time they have waited, so outliers are eventually paired too.
+ * <p>
+ * Several requests (and nodes) pair concurrently, so a pair handed out by the pool is only
+ * started once both journal rows have been claimed with a compare-and-delete. The journal has
+ * one row per user, and a join takes that row's lock before checking for an ongoing match, so
+ * it waits for any transaction that is pairing the same user. If a claim loses, whoever was
+ * still queued goes back into the queue and the caller tries again.
+ * <p>
+ * Entries carry a lease kept alive by {@link QueueLeases}; pairing skips lapsed entries.
+ * Players are told about their match only once it has committed.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MatchQueueService {
 
-    private static final int RATING_TOLERANCE = 200;
-
     private final MatchQueueRepository matchQueueRepository;
     private final MatchService matchService;
     private final RatingService ratingService;
     private final SimpMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
+    private final MatchmakingBackend pool;
+    private final QueueLeases queueLeases;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionOperations transactions;
+    private final Map<GameType, Timer> waitTimers = new EnumMap<>(GameType.class);
+    private final Map<GameType, DistributionSummary> ratingGaps = new EnumMap<>(GameType.class);
+    private Counter claimConflicts;
+
+    private static final int CLAIM_ATTEMPTS = 3;
+
+    /** Time source for join times and windows; the matchmaking simulator replaces it with virtual time. */
+    LongSupplier clock = System::currentTimeMillis;
+
+    @Value("${app.matchmaking.window.initial:100}")
+    private int initialWindow;
+
+    @Value("${app.matchmaking.window.growth-per-second:10}")
+    private double windowGrowthPerSecond;
+
+    @Value("${app.matchmaking.window.max:600}")
+    private int maxWindow;
+
+    @PostConstruct
+    void registerMetrics() {
+        for (GameType type : GameType.values()) {
+            waitTimers.put(type, Timer.builder("matchmaking.wait")
+                    .description("Time from joining the queue to being paired")
+                    .tag("gameType", type.name())
+                    .publishPercentiles(0.5, 0.9, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            ratingGaps.put(type, DistributionSummary.builder("matchmaking.pair.rating.gap")
+                    .description("Rating difference between paired players")
+                    .tag("gameType", type.name())
+                    .publishPercentiles(0.5, 0.9, 0.99)
+                    .register(meterRegistry));
+            Gauge.builder("matchmaking.pool.size", pool, p -> p.size(type))
+                    .description("Players waiting to be paired")
+                    .tag("gameType", type.name())
+                    .register(meterRegistry);
+        }
+        claimConflicts = Counter.builder("matchmaking.claim.conflicts")
+                .description("Pairs dropped because a player was no longer queued when claimed")
+                .register(meterRegistry);
+    }
+
+    /** Rating gap a player accepts: the initial window, widened by how long they have waited. */
+    int window(Entry entry, long nowMillis) {
+        double waitedSeconds = Math.max(0, nowMillis - entry.joinedAtMillis()) / 1000.0;
+        return (int) Math.min(maxWindow, initialWindow + windowGrowthPerSecond * waitedSeconds);
+    }
 
     @Transactional
     public Optional<Match> joinQueue(Long userId, GameType gameType) {
-        Optional<MatchQueue> existing = matchQueueRepository.findByUserId(userId);
-        if (existing.isPresent()) {
-            MatchQueue eq = existing.get();
-            if (eq.getGameType() == gameType) {
-                return Optional.empty(); // already in queue for this game type
-            }
-            matchQueueRepository.delete(eq);
+        Optional<Entry> existing = pool.find(userId);
+        if (existing.isPresent() && existing.get().gameType() == gameType) {
+            return Optional.empty(); // already in queue for this game type
         }
         int rating = ratingService.getRating(userId, gameType);
-        MatchQueue entry = new MatchQueue();
-        entry.setUserId(userId);
-        entry.setGameType(gameType);
-        entry.setRating(rating);
-        matchQueueRepository.save(entry);
+        long now = clock.getAsLong();
+        Entry entry = new Entry(userId, gameType, rating, now, now + queueLeases.leaseMillis());
+        journal(entry);
+        if (matchService.hasOngoingMatch(userId)) {
+            throw new IllegalStateException("Finish your current match before joining the queue");
+        }
+        pool.add(entry);
+        onRollback(() -> pool.find(userId).filter(entry::equals).ifPresent(e -> pool.remove(userId)));
         log.debug("User {} joined queue for {}", userId, gameType);
-        return tryMatch(gameType);
+        for (int attempt = 0; attempt < CLAIM_ATTEMPTS; attempt++) {
+            Optional<Pair> pair = pool.pairNearest(userId, initialWindow, clock.getAsLong());
+            if (pair.isEmpty()) {
+                return Optional.empty();
+            }
+            Optional<Match> match = startMatch(pair.get());
+            if (match.isPresent()) {
+                return match;
+            }
+        }
+        return Optional.empty();
     }
 
     @Transactional
     public void leaveQueue(Long userId) {
-        matchQueueRepository.findByUserId(userId).ifPresent(matchQueueRepository::delete);
+        pool.remove(userId);
+        matchQueueRepository.deleteByUserId(userId);
         log.debug("User {} left queue", userId);
     }
 
-    @Transactional
+    /**
+     * One batch pass over a game type's pool: longest-waiting first, each player takes the
+     * nearest remaining opponent inside their current window. Returns the first match made.
+     * Each pair is started in its own transaction, so a pair that fails (e.g. loses a deadlock)
+     * is put back into the pool without undoing the others or holding their rows.
+     */
     public Optional<Match> tryMatch(GameType gameType) {
-        List<MatchQueue> entries = matchQueueRepository.findByGameTypeOrderByJoinedAtAsc(gameType);
-        if (entries.size() < 2) return Optional.empty();
-
-        entries.sort(Comparator.comparingInt(MatchQueue::getRating));
-        for (int i = 0; i < entries.size(); i++) {
-            for (int j = i + 1; j < entries.size(); j++) {
-                MatchQueue a = entries.get(i);
-                MatchQueue b = entries.get(j);
-                if (Math.abs(a.getRating() - b.getRating()) <= RATING_TOLERANCE) {
-                    matchQueueRepository.delete(a);
-                    matchQueueRepository.delete(b);
-                    Match match = matchService.createMatch(a.getUserId(), b.getUserId(), gameType);
-                    log.info("Matched users {} and {} for {}", a.getUserId(), b.getUserId(), gameType);
-                    MatchResponse response = matchService.toMatchResponse(match);
-                    messagingTemplate.convertAndSend("/topic/matchmaking/" + a.getUserId(), response);
-                    messagingTemplate.convertAndSend("/topic/matchmaking/" + b.getUserId(), response);
-                    return Optional.of(match);
-                }
+        long now = clock.getAsLong();
+        Match first = null;
+        for (Pair pair : pool.pairAll(gameType, entry -> window(entry, now), now)) {
+            try {
+                Optional<Match> match = transactions.execute(status -> startMatch(pair));
+                if (first == null && match != null && match.isPresent()) first = match.get();
+            } catch (RuntimeException e) {
+                log.warn("Starting pair {} / {} failed: {}", pair.first().userId(), pair.second().userId(), e.getMessage());
             }
         }
-        return Optional.empty();
+        return Optional.ofNullable(first);
+    }
+
+    /** Tells both players about their match once the transaction that created it has committed. */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void notifyPaired(MatchPairedEvent event) {
+        MatchResponse match = event.match();
+        messagingTemplate.convertAndSend("/topic/matchmaking/" + match.getPlayer1Id(), match);
+        messagingTemplate.convertAndSend("/topic/matchmaking/" + match.getPlayer2Id(), match);
+    }
+
+    /**
+     * Reloads the pool from the journal so a restart does not drop anyone from the queue. Every
+     * entry gets a fresh lease: players still connected renew it, the rest lapse.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restorePool() {
+        if (pool.isDurable()) {
+            return;
+        }
+        List<MatchQueue> rows = matchQueueRepository.findAll();
+        long now = System.currentTimeMillis();
+        for (MatchQueue row : rows) {
+            long joinedAt = row.getJoinedAt() != null
+                    ? row.getJoinedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                    : now;
+            pool.add(new Entry(row.getUserId(), row.getGameType(), row.getRating(), joinedAt,
+                    now + queueLeases.leaseMillis()));
+        }
+        log.info("Restored {} matchmaking entries", rows.size());
+    }
+
+    /** Claims both journal rows and creates the match; empty if either player was no longer queued. */
+    private Optional<Match> startMatch(Pair pair) {
+        Entry a = pair.first();
+        Entry b = pair.second();
+        // The pair already left the pool; put both back if the match is never created
+        onRollback(() -> {
+            if (pool.find(a.userId()).isEmpty()) pool.add(a);
+            if (pool.find(b.userId()).isEmpty()) pool.add(b);
+        });
+        // Claim in user id order so two transactions never wait on each other's rows in a cycle
+        Entry low = a.userId() < b.userId() ? a : b;
+        Entry high = low == a ? b : a;
+        boolean lowClaimed = claim(low);
+        boolean highClaimed = claim(high);
+        if (!lowClaimed || !highClaimed) {
+            claimConflicts.increment();
+            if (lowClaimed) requeue(low);
+            if (highClaimed) requeue(high);
+            log.debug("Pair {} / {} lost a claim and was not started", a.userId(), b.userId());
+            return Optional.empty();
+        }
+        Match match = matchService.createMatch(a.userId(), b.userId(), a.gameType());
+        log.info("Matched users {} and {} for {}", a.userId(), b.userId(), a.gameType());
+        long now = clock.getAsLong();
+        Timer waitTimer = waitTimers.get(a.gameType());
+        waitTimer.record(Math.max(0, now - a.joinedAtMillis()), TimeUnit.MILLISECONDS);
+        waitTimer.record(Math.max(0, now - b.joinedAtMillis()), TimeUnit.MILLISECONDS);
+        ratingGaps.get(a.gameType()).record(pair.ratingGap());
+        eventPublisher.publishEvent(new MatchPairedEvent(matchService.toMatchResponse(match)));
+        return Optional.of(match);
+    }
+
+    private boolean claim(Entry entry) {
+        return matchQueueRepository.claim(entry.userId(), entry.gameType()) == 1;
+    }
+
+    /** Puts back a player whose row we claimed for a pair that fell through; we still hold the row lock. */
+    private void requeue(Entry entry) {
+        journal(entry);
+        if (pool.find(entry.userId()).isEmpty()) {
+            pool.add(entry);
+        }
+    }
+
+    private void journal(Entry entry) {
+        matchQueueRepository.upsert(entry.userId(), entry.gameType().name(), entry.rating(),
+                QueueLeases.toLocalDateTime(entry.joinedAtMillis()),
+                QueueLeases.toLocalDateTime(entry.leaseExpiresAtMillis()));
+    }
+
+    private static void onRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    action.run();
+                }
+            }
+        });
     }
 }
@@ -12,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,6 +20,8 @@ import java.util.stream.Collectors;
 public class MatchService {
     
     private final MatchRepository matchRepository;
+    private final ClockScheduler clockScheduler;
+    private final GameClock gameClock;
     
     @Transactional
     public Match createMatch(Long player1Id, Long player2Id, GameType gameType) {
@@ -29,11 +32,14 @@ public class MatchService {
         match.setStatus(MatchStatus.ONGOING);
         match.setFenCurrent("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1");
         match.setCurrentPly(0);
-        int initialSeconds = TimeControlConfig.getInitialSeconds(gameType);
-        match.setPlayer1TimeLeftSeconds(initialSeconds);
-        match.setPlayer2TimeLeftSeconds(initialSeconds);
+        long initialMillis = TimeControlConfig.getInitialMillis(gameType);
+        match.setPlayer1TimeLeftMs(initialMillis);
+        match.setPlayer2TimeLeftMs(initialMillis);
         match.setLastMoveAt(LocalDateTime.now());
-        return matchRepository.save(match);
+        Match saved = matchRepository.save(match);
+        gameClock.turnStarted(saved.getId(), 0);
+        clockScheduler.track(saved);
+        return saved;
     }
     
     public Match findById(Long matchId) {
@@ -41,6 +47,15 @@ public class MatchService {
                 .orElseThrow(() -> new RuntimeException("Match not found"));
     }
     
+    /** The user's most recent ongoing match, if any. */
+    public Optional<Match> findOngoingMatch(Long userId) {
+        return matchRepository.findOngoingByPlayer(userId).stream().findFirst();
+    }
+    
+    public boolean hasOngoingMatch(Long userId) {
+        return !matchRepository.findOngoingByPlayerForShare(userId).isEmpty();
+    }
+    
     public List<MatchResponse> getUserMatches(Long userId) {
         List<Match> matches = matchRepository.findByPlayer1IdOrPlayer2Id(userId, userId);
         return matches.stream()
@@ -56,6 +71,7 @@ public class MatchService {
             match.setFinishedAt(LocalDateTime.now());
         }
         matchRepository.save(match);
+        clockScheduler.track(match);
     }
     
     public MatchResponse toMatchResponse(Match match) {
@@ -72,9 +88,15 @@ public class MatchService {
         response.setFinishedAt(match.getFinishedAt());
         response.setCreatedAt(match.getCreatedAt());
         response.setDrawOfferedByPlayerId(match.getDrawOfferedByPlayerId());
-        response.setPlayer1TimeLeftSeconds(match.getPlayer1TimeLeftSeconds());
-        response.setPlayer2TimeLeftSeconds(match.getPlayer2TimeLeftSeconds());
+        response.setPlayer1TimeLeftMs(match.getPlayer1TimeLeftMs());
+        response.setPlayer2TimeLeftMs(match.getPlayer2TimeLeftMs());
+        response.setPlayer1TimeLeftSeconds(toSeconds(match.getPlayer1TimeLeftMs()));
+        response.setPlayer2TimeLeftSeconds(toSeconds(match.getPlayer2TimeLeftMs()));
         response.setLastMoveAt(match.getLastMoveAt());
         return response;
     }
+
+    private static Integer toSeconds(Long millis) {
+        return millis == null ? null : (int) (millis / 1000);
+    }
 }
@@ -0,0 +1,201 @@
+package com.indichess.match.service;
+
+import com.indichess.match.dto.GameUpdateMessage;
+import com.indichess.match.model.Match;
+import com.indichess.match.model.MatchStatus;
+import com.indichess.match.repo.MatchRepository;
+import com.indichess.match.websocket.GameEventPublisher;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ends ongoing matches that nobody is going to finish.
+ * <p>
+ * Walks ONGOING matches in id order with a keyset cursor, {@code batch-size} rows per page and
+ * at most {@code max-batches-per-run} pages per run, so one run does bounded work and later
+ * runs continue where it stopped. Reads hold no locks. Matches without a first move after
+ * {@code no-first-move-seconds}, or whose players have both been gone for
+ * {@code both-gone-seconds}, are set ABANDONED by one conditional UPDATE per batch. Matches
+ * whose clock ran out (missed by the clock wheel, e.g. after the owning node died) go through
+ * the normal flag path one short transaction at a time.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "app.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class MatchSweeper {
+
+    enum Action { NONE, ABORT, ABANDON, FLAG }
+
+    private final MatchRepository matchRepository;
+    private final MatchService matchService;
+    private final GameService gameService;
+    private final ClockScheduler clockScheduler;
+    private final PresenceService presenceService;
+    private final GameEventPublisher gameEventPublisher;
+
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration noFirstMove;
+    private final Duration bothGone;
+    private final long flagGraceMs;
+
+    private final Counter scanned;
+    private final Counter aborted;
+    private final Counter abandoned;
+    private final Counter flagged;
+    private final Timer batchTimer;
+
+    private long cursor;
+    private volatile long lastPassCompletedAt = System.currentTimeMillis();
+
+    public MatchSweeper(MatchRepository matchRepository,
+                        MatchService matchService,
+                        GameService gameService,
+                        ClockScheduler clockScheduler,
+                        PresenceService presenceService,
+                        GameEventPublisher gameEventPublisher,
+                        MeterRegistry meterRegistry,
+                        @Value("${app.sweeper.batch-size:500}") int batchSize,
+                        @Value("${app.sweeper.max-batches-per-run:20}") int maxBatchesPerRun,
+                        @Value("${app.sweeper.no-first-move-seconds:45}") long noFirstMoveSeconds,
+                        @Value("${app.sweeper.both-gone-seconds:600}") long bothGoneSeconds,
+                        @Value("${app.sweeper.flag-grace-ms:2000}") long flagGraceMs) {
+        this.matchRepository = matchRepository;
+        this.matchService = matchService;
+        this.gameService = gameService;
+        this.clockScheduler = clockScheduler;
+        this.presenceService = presenceService;
+        this.gameEventPublisher = gameEventPublisher;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.noFirstMove = Duration.ofSeconds(noFirstMoveSeconds);
+        this.bothGone = Duration.ofSeconds(bothGoneSeconds);
+        this.flagGraceMs = flagGraceMs;
+        this.scanned = counter(meterRegistry, "match.sweeper.scanned", "Ongoing matches examined");
+        this.aborted = counter(meterRegistry, "match.sweeper.aborted", "Matches abandoned because nobody moved");
+        this.abandoned = counter(meterRegistry, "match.sweeper.abandoned", "Matches abandoned because both players left");
+        this.flagged = counter(meterRegistry, "match.sweeper.flagged", "Matches ended on time by the sweeper");
+        this.batchTimer = Timer.builder("match.sweeper.batch")
+                .description("Time to read and settle one page of ongoing matches")
+                .register(meterRegistry);
+        Gauge.builder("match.sweeper.pass.age", this, s -> (System.currentTimeMillis() - s.lastPassCompletedAt) / 1000.0)
+                .description("Seconds since the sweeper last finished a pass over all ongoing matches")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.sweeper.interval-ms:15000}",
+            initialDelayString = "${app.sweeper.initial-delay-ms:30000}")
+    public void sweep() {
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            Timer.Sample sample = Timer.start();
+            boolean more = sweepBatch();
+            sample.stop(batchTimer);
+            if (!more) {
+                return;
+            }
+        }
+    }
+
+    /** Settles one page; returns false once the pass has reached the end. */
+    boolean sweepBatch() {
+        List<Match> page = matchRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+                MatchStatus.ONGOING, cursor, PageRequest.of(0, batchSize));
+        scanned.increment(page.size());
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> toAbort = new ArrayList<>();
+        List<Long> toAbandon = new ArrayList<>();
+        List<Long> toFlag = new ArrayList<>();
+        for (Match match : page) {
+            switch (classify(match, now)) {
+                case ABORT -> toAbort.add(match.getId());
+                case ABANDON -> toAbandon.add(match.getId());
+                case FLAG -> toFlag.add(match.getId());
+                default -> { }
+            }
+        }
+        abandon(toAbort, true, now.minus(noFirstMove), aborted);
+        abandon(toAbandon, false, now.minus(bothGone), abandoned);
+        toFlag.forEach(this::flag);
+
+        if (page.size() < batchSize) {
+            cursor = 0;
+            lastPassCompletedAt = System.currentTimeMillis();
+            return false;
+        }
+        cursor = page.get(page.size() - 1).getId();
+        return true;
+    }
+
+    Action classify(Match match, LocalDateTime now) {
+        LocalDateTime started = match.getStartedAt() != null ? match.getStartedAt() : match.getCreatedAt();
+        if (match.getCurrentPly() != null && match.getCurrentPly() == 0
+                && started != null && started.plus(noFirstMove).isBefore(now)) {
+            return Action.ABORT;
+        }
+        if (clockScheduler.deadlineMillis(match) < System.currentTimeMillis() - flagGraceMs) {
+            return Action.FLAG;
+        }
+        if (goneLongerThan(match.getId(), match.getPlayer1Id(), bothGone)
+                && goneLongerThan(match.getId(), match.getPlayer2Id(), bothGone)) {
+            return Action.ABANDON;
+        }
+        return Action.NONE;
+    }
+
+    private boolean goneLongerThan(Long matchId, Long userId, Duration limit) {
+        Optional<Duration> gone = presenceService.goneFor(matchId, userId);
+        return gone.isPresent() && gone.get().compareTo(limit) > 0;
+    }
+
+    /**
+     * Abandons the matches unless they were updated after {@code unchangedSince}: a match idle
+     * for the whole threshold when it was classified is still idle only if nothing touched it since.
+     */
+    private void abandon(List<Long> ids, boolean unstartedOnly, LocalDateTime unchangedSince, Counter counter) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        int updated = matchRepository.abandonOngoing(ids, unstartedOnly, unchangedSince, LocalDateTime.now());
+        counter.increment(updated);
+        if (updated == 0) {
+            return;
+        }
+        for (Match match : matchRepository.findAllById(ids)) {
+            if (match.getStatus() == MatchStatus.ABANDONED) {
+                clockScheduler.track(match);
+                gameEventPublisher.publish(match.getId(), GameUpdateMessage.abandoned(matchService.toMatchResponse(match)));
+            }
+        }
+    }
+
+    private void flag(Long matchId) {
+        try {
+            gameService.flagOnTime(matchId).ifPresent(response -> {
+                flagged.increment();
+                gameEventPublisher.publish(matchId, GameUpdateMessage.timeout(response));
+            });
+        } catch (Exception e) {
+            log.warn("Sweeper could not flag match {}: {}", matchId, e.getMessage());
+        }
+    }
+
+    private static Counter counter(MeterRegistry registry, String name, String description) {
+        return Counter.builder(name).description(description).register(registry);
+    }
+}
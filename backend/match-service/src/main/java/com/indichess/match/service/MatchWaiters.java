@@ -0,0 +1,63 @@
+package com.indichess.match.service;
+
+import com.indichess.match.dto.MatchResponse;
+import com.indichess.match.event.MatchPairedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Long-poll requests waiting to be paired, by user. A waiter holds no thread: its
+ * {@link DeferredResult} is completed when a {@link MatchPairedEvent} for the user commits, or
+ * by its own timeout. Pairings made on another node are not seen here; the client's next poll
+ * finds the match instead.
+ */
+@Service
+@Slf4j
+public class MatchWaiters {
+
+    private final Map<Long, List<DeferredResult<Object>>> waiters = new ConcurrentHashMap<>();
+
+    public MatchWaiters(MeterRegistry meterRegistry) {
+        Gauge.builder("matchmaking.longpoll.waiting", waiters, w -> w.values().stream().mapToInt(List::size).sum())
+                .description("Long-poll join requests waiting to be paired")
+                .register(meterRegistry);
+    }
+
+    /** Registers a waiter; it is forgotten again once it completes, times out or fails. */
+    public void register(Long userId, DeferredResult<Object> result) {
+        waiters.computeIfAbsent(userId, k -> new CopyOnWriteArrayList<>()).add(result);
+        result.onCompletion(() -> remove(userId, result));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPaired(MatchPairedEvent event) {
+        MatchResponse match = event.match();
+        complete(match.getPlayer1Id(), match);
+        complete(match.getPlayer2Id(), match);
+    }
+
+    private void complete(Long userId, MatchResponse match) {
+        List<DeferredResult<Object>> pending = waiters.remove(userId);
+        if (pending == null) return;
+        for (DeferredResult<Object> result : pending) {
+            result.setResult(match);
+        }
+        log.debug("Answered {} long-poll waiter(s) of user {} with match {}", pending.size(), userId, match.getId());
+    }
+
+    private void remove(Long userId, DeferredResult<Object> result) {
+        waiters.computeIfPresent(userId, (k, list) -> {
+            list.remove(result);
+            return list.isEmpty() ? null : list;
+        });
+    }
+}
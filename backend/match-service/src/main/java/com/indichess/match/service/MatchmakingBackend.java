@@ -0,0 +1,75 @@
+package com.indichess.match.service;
+
+import com.indichess.match.model.GameType;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+/**
+ * The pool of players waiting for a game: in memory on a single node, a Redis sorted set per
+ * game type when several nodes share the queue. Taking a pair out is atomic, so a player is
+ * never handed to two matches even when nodes pair concurrently. A user waits in at most one
+ * game type's queue at a time.
+ * <p>
+ * Every entry holds a lease that the player's heartbeats renew. Pairing ignores entries whose
+ * lease has lapsed, and {@link #expire} takes them out in bulk.
+ */
+public interface MatchmakingBackend {
+
+    record Entry(Long userId, GameType gameType, int rating, long joinedAtMillis, long leaseExpiresAtMillis) {
+
+        /** An entry whose lease never lapses. */
+        public Entry(Long userId, GameType gameType, int rating, long joinedAtMillis) {
+            this(userId, gameType, rating, joinedAtMillis, Long.MAX_VALUE);
+        }
+
+        public boolean lapsed(long nowMillis) {
+            return leaseExpiresAtMillis <= nowMillis;
+        }
+
+        public Entry withLease(long leaseExpiresAtMillis) {
+            return new Entry(userId, gameType, rating, joinedAtMillis, leaseExpiresAtMillis);
+        }
+    }
+
+    /** Two entries taken out of the pool together; {@code first} has waited longer. */
+    record Pair(Entry first, Entry second) {
+        public int ratingGap() {
+            return Math.abs(first.rating() - second.rating());
+        }
+    }
+
+    /** Adds the entry, replacing any entry the same user already had; returns the replaced one. */
+    Optional<Entry> add(Entry entry);
+
+    Optional<Entry> remove(Long userId);
+
+    Optional<Entry> find(Long userId);
+
+    int size(GameType gameType);
+
+    /** Extends the user's lease; false if the user is not waiting. */
+    boolean renew(Long userId, long leaseExpiresAtMillis);
+
+    /** Removes and returns every entry whose lease lapsed before {@code nowMillis}. */
+    List<Entry> expire(long nowMillis);
+
+    /**
+     * Takes the user and the closest-rated other player of the same game type out of the pool,
+     * if that player is within {@code maxGap} rating points. Lapsed entries are skipped.
+     */
+    Optional<Pair> pairNearest(Long userId, int maxGap, long nowMillis);
+
+    /**
+     * Pairs as many players of one game type as possible in a single pass: longest-waiting first,
+     * each with the nearest remaining player within that player's own {@code maxGap}. Lapsed
+     * entries are skipped.
+     */
+    List<Pair> pairAll(GameType gameType, ToIntFunction<Entry> maxGap, long nowMillis);
+
+    /** True when the pool outlives the process, so it must not be reloaded from the journal. */
+    default boolean isDurable() {
+        return false;
+    }
+}
@@ -0,0 +1,42 @@
+package com.indichess.match.service;
+
+import com.indichess.match.model.GameType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Runs the matchmaking batch pass for every game type on a fixed tick, so players who were not
+ * paired on joining are retried with their widened window. Every pair is started in its own
+ * transaction; a failure in one does not hold up the others. A slower schedule sweeps out
+ * queue entries whose lease lapsed.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MatchmakingTicker {
+
+    private final MatchQueueService matchQueueService;
+    private final QueueLeases queueLeases;
+
+    @Scheduled(fixedDelayString = "${app.matchmaking.tick-ms:1000}")
+    public void tick() {
+        for (GameType gameType : GameType.values()) {
+            try {
+                matchQueueService.tryMatch(gameType);
+            } catch (Exception e) {
+                log.warn("Matchmaking tick for {} failed: {}", gameType, e.getMessage());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.matchmaking.lease-sweep-ms:5000}")
+    public void sweepLeases() {
+        try {
+            queueLeases.sweep();
+        } catch (Exception e) {
+            log.warn("Queue lease sweep failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.indichess.match.service;
+
+import com.indichess.match.dto.MatchResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Remembers the result of the last few moves of each match so that a retransmitted move
+ * (same player, same expected ply, same UCI) gets the original response back without being
+ * revalidated or written again. Bounded per match and in the number of matches tracked.
+ */
+@Component
+public class MoveDedupeWindow {
+
+    static final int PLIES_PER_MATCH = 4;
+    static final int MAX_MATCHES = 10_000;
+
+    private final Map<Long, Window> windows = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Window> eldest) {
+                    return size() > MAX_MATCHES;
+                }
+            });
+
+    public Optional<MatchResponse> find(Long matchId, Long playerId, int ply, String moveUci) {
+        Window window = windows.get(matchId);
+        return window == null ? Optional.empty() : window.find(playerId, ply, moveUci);
+    }
+
+    public void record(Long matchId, Long playerId, int ply, String moveUci, MatchResponse response) {
+        windows.computeIfAbsent(matchId, id -> new Window()).record(playerId, ply, moveUci, response);
+    }
+
+    public void evict(Long matchId) {
+        windows.remove(matchId);
+    }
+
+    private record Entry(Long playerId, int ply, String moveUci, MatchResponse response) {
+    }
+
+    private static final class Window {
+        private final Entry[] entries = new Entry[PLIES_PER_MATCH];
+
+        synchronized Optional<MatchResponse> find(Long playerId, int ply, String moveUci) {
+            Entry e = entries[Math.floorMod(ply, PLIES_PER_MATCH)];
+            if (e != null && e.ply() == ply && e.playerId().equals(playerId) && e.moveUci().equals(moveUci)) {
+                return Optional.of(e.response());
+            }
+            return Optional.empty();
+        }
+
+        synchronized void record(Long playerId, int ply, String moveUci, MatchResponse response) {
+            entries[Math.floorMod(ply, PLIES_PER_MATCH)] = new Entry(playerId, ply, moveUci, response);
+        }
+    }
+}
@@ -40,6 +40,30 @@ public class MoveValidationService {
         return parts.length >= 2 && "w".equalsIgnoreCase(parts[1]);
     }
 
+    /**
+     * Returns false when the given side cannot possibly checkmate: a bare king, or king and a
+     * single minor piece against a bare king. Used to score a flag as a draw instead of a loss.
+     */
+    public boolean canCheckmate(String fen, boolean white) {
+        if (fen == null || fen.isBlank()) fen = INITIAL_FEN;
+        String placement = fen.split("\\s+")[0];
+        int minors = 0;
+        int others = 0;
+        boolean opponentBare = true;
+        for (char c : placement.toCharArray()) {
+            if (!Character.isLetter(c) || Character.toUpperCase(c) == 'K') continue;
+            if (Character.isUpperCase(c) != white) {
+                opponentBare = false;
+            } else if (Character.toUpperCase(c) == 'N' || Character.toUpperCase(c) == 'B') {
+                minors++;
+            } else {
+                others++;
+            }
+        }
+        if (others > 0 || minors > 1) return true;
+        return minors == 1 && !opponentBare;
+    }
+
     /**
      * Validates that the move is legal for the current position.
      * checks turn and that the move can be applied; returns new FEN if valid.
@@ -0,0 +1,135 @@
+package com.indichess.match.service;
+
+import com.indichess.match.event.PlayerDisconnectedEvent;
+import com.indichess.match.event.PlayerReconnectedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks which users are connected and which matches each of them is watching.
+ * Sessions on this node are kept locally; aggregated counts and "gone since" marks live in the
+ * {@link PresenceStore}. Publishes {@link PlayerDisconnectedEvent} when a user's last session
+ * watching a match goes away and {@link PlayerReconnectedEvent} when they come back.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PresenceService {
+
+    private final PresenceStore presenceStore;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.presence.touch-interval-ms:30000}")
+    private long touchIntervalMs;
+
+    private final Map<String, SessionPresence> sessions = new ConcurrentHashMap<>();
+
+    public boolean isOnline(Long userId) {
+        return presenceStore.isOnline(userId);
+    }
+
+    /** How long the user has been gone from the match, or empty if they are watching it (or never did). */
+    public Optional<Duration> goneFor(Long matchId, Long userId) {
+        Long since = presenceStore.goneSince(matchId, userId);
+        return since == null ? Optional.empty() : Optional.of(Duration.ofMillis(System.currentTimeMillis() - since));
+    }
+
+    public void sessionConnected(String sessionId, Long userId) {
+        if (sessions.putIfAbsent(sessionId, new SessionPresence(userId)) == null) {
+            presenceStore.addSession(userId);
+        }
+    }
+
+    /** Safe to call more than once for the same session. */
+    public void sessionDisconnected(String sessionId) {
+        SessionPresence session = sessions.remove(sessionId);
+        if (session == null) return;
+        List<Long> matchIds;
+        synchronized (session) {
+            matchIds = session.subscriptions.values().stream().distinct().toList();
+            session.subscriptions.clear();
+        }
+        matchIds.forEach(matchId -> leaveMatch(matchId, session.userId));
+        presenceStore.removeSession(session.userId);
+    }
+
+    public void subscribed(String sessionId, String subscriptionId, Long matchId) {
+        SessionPresence session = sessions.get(sessionId);
+        if (session == null) return;
+        boolean firstForMatch;
+        synchronized (session) {
+            firstForMatch = !session.subscriptions.containsValue(matchId);
+            session.subscriptions.put(subscriptionId, matchId);
+        }
+        if (firstForMatch && presenceStore.addWatcher(matchId, session.userId) == 1) {
+            Long goneSince = presenceStore.clearGone(matchId, session.userId);
+            if (goneSince != null) {
+                long awayMillis = System.currentTimeMillis() - goneSince;
+                log.debug("User {} back in match {} after {} ms", session.userId, matchId, awayMillis);
+                eventPublisher.publishEvent(new PlayerReconnectedEvent(matchId, session.userId, awayMillis));
+            }
+        }
+    }
+
+    public void unsubscribed(String sessionId, String subscriptionId) {
+        SessionPresence session = sessions.get(sessionId);
+        if (session == null) return;
+        Long matchId;
+        boolean lastForMatch;
+        synchronized (session) {
+            matchId = session.subscriptions.remove(subscriptionId);
+            lastForMatch = matchId != null && !session.subscriptions.containsValue(matchId);
+        }
+        if (lastForMatch) {
+            leaveMatch(matchId, session.userId);
+        }
+    }
+
+    /** Called for every inbound frame, heartbeats included; refreshes the store at most once per interval. */
+    public void heartbeat(String sessionId) {
+        SessionPresence session = sessions.get(sessionId);
+        if (session == null) return;
+        long now = System.currentTimeMillis();
+        if (now - session.lastTouchedMillis < touchIntervalMs) return;
+        session.lastTouchedMillis = now;
+        List<Long> matchIds;
+        synchronized (session) {
+            matchIds = session.subscriptions.values().stream().distinct().toList();
+        }
+        presenceStore.touch(session.userId, matchIds);
+    }
+
+    /** Drops the players' gone marks once the match is over; nothing reads them after that. */
+    public void matchFinished(Long matchId, Long player1Id, Long player2Id) {
+        presenceStore.clearGone(matchId, player1Id);
+        presenceStore.clearGone(matchId, player2Id);
+    }
+
+    private void leaveMatch(Long matchId, Long userId) {
+        if (presenceStore.removeWatcher(matchId, userId) > 0) return;
+        long now = System.currentTimeMillis();
+        presenceStore.markGone(matchId, userId, now);
+        log.debug("User {} gone from match {}", userId, matchId);
+        eventPublisher.publishEvent(new PlayerDisconnectedEvent(matchId, userId, now));
+    }
+
+    private static final class SessionPresence {
+        private final Long userId;
+        private final Map<String, Long> subscriptions = new HashMap<>();
+        private volatile long lastTouchedMillis = System.currentTimeMillis();
+
+        SessionPresence(Long userId) {
+            this.userId = userId;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.indichess.match.service;
+
+import java.util.Collection;
+
+/**
+ * Shared presence counters. Sessions are node-local, so each node reports its own sessions
+ * and watchers here; the store aggregates them (in memory on a single node, Redis when clustered).
+ */
+public interface PresenceStore {
+
+    /** Registers one more live session for the user; returns the user's session count. */
+    long addSession(Long userId);
+
+    /** Removes one live session for the user; returns the remaining count (never negative). */
+    long removeSession(Long userId);
+
+    /** Refreshes the user's presence and match watchers so they do not expire while sessions are alive. */
+    void touch(Long userId, Collection<Long> matchIds);
+
+    boolean isOnline(Long userId);
+
+    /** Registers one more session of the user watching the match; returns the watcher count. */
+    long addWatcher(Long matchId, Long userId);
+
+    /** Removes one watching session; returns the remaining count (never negative). */
+    long removeWatcher(Long matchId, Long userId);
+
+    void markGone(Long matchId, Long userId, long sinceMillis);
+
+    /** Clears the gone mark and returns when it was set, or null if the user was not gone. */
+    Long clearGone(Long matchId, Long userId);
+
+    /** Epoch millis since the user has been gone from the match, or null if present or unknown. */
+    Long goneSince(Long matchId, Long userId);
+}
@@ -0,0 +1,109 @@
+package com.indichess.match.service;
+
+import com.indichess.match.repo.MatchQueueRepository;
+import com.indichess.match.service.MatchmakingBackend.Entry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Leases on queue entries. Any STOMP frame from a queued player (heartbeats included) or a call
+ * to the heartbeat endpoint renews their lease; a player who closes the tab stops renewing and
+ * is dropped once the lease lapses, instead of being paired into a game nobody plays.
+ * <p>
+ * Renewals reach the pool at once and the journal in one batched UPDATE per sweep, so a
+ * heartbeat never costs a database write of its own.
+ */
+@Service
+@Slf4j
+public class QueueLeases {
+
+    private static final int FLUSH_BATCH = 500;
+
+    private final MatchmakingBackend pool;
+    private final MatchQueueRepository matchQueueRepository;
+    private final long leaseMs;
+    private final long renewIntervalMs;
+    private final Counter expiredCounter;
+    private final Map<Long, Long> lastRenewed = new ConcurrentHashMap<>();
+    private final Set<Long> pendingJournal = ConcurrentHashMap.newKeySet();
+
+    public QueueLeases(MatchmakingBackend pool,
+                       MatchQueueRepository matchQueueRepository,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.matchmaking.lease-ms:30000}") long leaseMs) {
+        this.pool = pool;
+        this.matchQueueRepository = matchQueueRepository;
+        this.leaseMs = leaseMs;
+        this.renewIntervalMs = leaseMs / 3;
+        this.expiredCounter = Counter.builder("matchmaking.leases.expired")
+                .description("Queue entries dropped because their lease lapsed")
+                .register(meterRegistry);
+    }
+
+    public long leaseMillis() {
+        return leaseMs;
+    }
+
+    /** Called for every inbound STOMP frame; renews at most once per third of a lease. */
+    public void touch(Long userId) {
+        Long last = lastRenewed.get(userId);
+        if (last == null || System.currentTimeMillis() - last >= renewIntervalMs) {
+            renew(userId);
+        }
+    }
+
+    /** Renews the user's lease; false if they are not waiting in the queue. */
+    public boolean renew(Long userId) {
+        long now = System.currentTimeMillis();
+        lastRenewed.put(userId, now);
+        boolean queued = pool.renew(userId, now + leaseMs);
+        if (queued) {
+            pendingJournal.add(userId);
+        }
+        return queued;
+    }
+
+    /**
+     * Writes pending renewals to the journal, then drops every lapsed entry from the pool and
+     * the journal in bulk.
+     */
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        flushRenewals(now);
+        List<Entry> expired = pool.expire(now);
+        int rows = matchQueueRepository.deleteLeaseExpired(toLocalDateTime(now));
+        lastRenewed.values().removeIf(at -> now - at > leaseMs);
+        if (!expired.isEmpty() || rows > 0) {
+            expiredCounter.increment(expired.size());
+            log.debug("Expired {} queue entries ({} journal rows)", expired.size(), rows);
+        }
+    }
+
+    private void flushRenewals(long now) {
+        if (pendingJournal.isEmpty()) {
+            return;
+        }
+        List<Long> userIds = new ArrayList<>(pendingJournal);
+        pendingJournal.removeAll(userIds);
+        LocalDateTime until = toLocalDateTime(now + leaseMs);
+        for (int i = 0; i < userIds.size(); i += FLUSH_BATCH) {
+            matchQueueRepository.renewLeases(userIds.subList(i, Math.min(userIds.size(), i + FLUSH_BATCH)), until);
+        }
+    }
+
+    static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,62 @@
+package com.indichess.match.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.indichess.match.event.RatingChangedEvent;
+import com.indichess.match.model.GameType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of current ratings by (user, game type) for the matchmaking path. Every rating
+ * change is written through once it commits, unless the entry already holds a newer change
+ * stamp. Changes made by another node are picked up when the entry expires after
+ * {@code app.rating.cache.ttl-seconds}. Hits and misses are exported as
+ * {@code cache.gets{cache=ratings}}.
+ */
+@Component
+public class RatingCache {
+
+    /** A rating and the change stamp of the ratings row it was read from (0 if there is no row). */
+    public record Cached(int rating, long changeStamp) {
+    }
+
+    private record Key(Long userId, GameType gameType) {
+    }
+
+    private final Cache<Key, Cached> cache;
+
+    public RatingCache(MeterRegistry meterRegistry,
+                       @Value("${app.rating.cache.max-size:100000}") long maxSize,
+                       @Value("${app.rating.cache.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "ratings");
+    }
+
+    /** The cached rating, or {@code loader}'s result, cached; concurrent misses for one key load once. */
+    public int get(Long userId, GameType gameType, Supplier<Cached> loader) {
+        return cache.get(new Key(userId, gameType), key -> loader.get()).rating();
+    }
+
+    /** Drops every entry, e.g. after the ratings table was replaced. */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(RatingChangedEvent event) {
+        cache.asMap().merge(new Key(event.userId(), event.gameType()),
+                new Cached(event.rating(), event.changeStamp()),
+                (cached, changed) -> changed.changeStamp() > cached.changeStamp() ? changed : cached);
+    }
+}
@@ -0,0 +1,88 @@
+package com.indichess.match.service;
+
+import com.indichess.match.dto.RatingHistoryPoint;
+import com.indichess.match.dto.RatingHistoryResponse;
+import com.indichess.match.event.RatingChangedEvent;
+import com.indichess.match.model.GameType;
+import com.indichess.match.model.HistoryResolution;
+import com.indichess.match.model.RatingHistory;
+import com.indichess.match.repo.RatingHistoryRepository;
+import com.indichess.match.repo.RatingRollupRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Rating history for charts. Every rating change appends a history row and folds into its day
+ * and week rollup in the rating transaction. A chart reads only one series, by index range, and
+ * returns at most {@code app.rating.history.max-points} points, so its cost follows the points
+ * returned rather than the games played.
+ */
+@Service
+@RequiredArgsConstructor
+public class RatingHistoryService {
+
+    private final RatingHistoryRepository historyRepository;
+    private final RatingRollupRepository rollupRepository;
+
+    @Value("${app.rating.history.max-points:500}")
+    private int maxPoints = 500;
+
+    @EventListener
+    public void onRatingChanged(RatingChangedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDate day = now.toLocalDate();
+        historyRepository.save(new RatingHistory(null, event.userId(), event.gameType(), event.matchId(),
+                event.rating(), now));
+        rollupRepository.record(event.userId(), event.gameType().name(), HistoryResolution.DAY.name(),
+                day, event.rating());
+        rollupRepository.record(event.userId(), event.gameType().name(), HistoryResolution.WEEK.name(),
+                weekStart(day), event.rating());
+    }
+
+    /**
+     * The most recent points between {@code from} and {@code to}, oldest first. Without an
+     * explicit resolution, daily points are used when the range fits and weekly ones otherwise.
+     */
+    public RatingHistoryResponse history(Long userId, GameType gameType, LocalDate from, LocalDate to,
+                                         HistoryResolution resolution) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        if (resolution == null) {
+            resolution = ChronoUnit.DAYS.between(from, to) < maxPoints ? HistoryResolution.DAY : HistoryResolution.WEEK;
+        }
+        PageRequest newest = PageRequest.of(0, maxPoints);
+        List<RatingHistoryPoint> points = new ArrayList<>();
+        if (resolution == HistoryResolution.GAME) {
+            historyRepository.findByUserIdAndGameTypeAndRecordedAtBetweenOrderByRecordedAtDesc(
+                            userId, gameType, from.atStartOfDay(), to.atTime(LocalTime.MAX), newest)
+                    .forEach(h -> points.add(new RatingHistoryPoint(h.getRecordedAt(), h.getRating(),
+                            h.getRating(), h.getRating(), 1)));
+        } else {
+            LocalDate start = resolution == HistoryResolution.WEEK ? weekStart(from) : from;
+            rollupRepository.findByUserIdAndGameTypeAndResolutionAndBucketStartBetweenOrderByBucketStartDesc(
+                            userId, gameType, resolution, start, to, newest)
+                    .forEach(r -> points.add(new RatingHistoryPoint(r.getBucketStart().atStartOfDay(),
+                            r.getCloseRating(), r.getMinRating(), r.getMaxRating(), r.getChanges())));
+        }
+        Collections.reverse(points);
+        return new RatingHistoryResponse(gameType, resolution, points);
+    }
+
+    private static LocalDate weekStart(LocalDate day) {
+        return day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+}
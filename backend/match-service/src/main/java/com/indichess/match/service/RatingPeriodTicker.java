@@ -0,0 +1,42 @@
+package com.indichess.match.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Closes rating periods when ratings are computed in batches. Periods end on wall-clock
+ * boundaries aligned to the epoch, as in {@link RatingReplay}, whenever the node was started;
+ * the ticker checks often and closes the last period that has ended, so games left over by a
+ * restart or a failed close are rated on the next check.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rating.period.mode", havingValue = "batch")
+@RequiredArgsConstructor
+@Slf4j
+public class RatingPeriodTicker {
+
+    private final RatingService ratingService;
+
+    @Value("${app.rating.period.length-ms:86400000}")
+    private long periodMillis = 86_400_000L;
+
+    private long closedUpTo = Long.MIN_VALUE;
+
+    @Scheduled(fixedDelayString = "${app.rating.period.check-ms:60000}")
+    public void closePeriod() {
+        long periodEnd = System.currentTimeMillis() / periodMillis * periodMillis;
+        if (periodEnd <= closedUpTo) {
+            return;
+        }
+        try {
+            ratingService.closeRatingPeriod(periodEnd);
+            closedUpTo = periodEnd;
+        } catch (Exception e) {
+            log.warn("Closing rating period ending at {} failed: {}", periodEnd, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.indichess.match.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code /actuator/ratingrecompute}: progress of the last recompute. POST
+ * {@code {"action": "start"}} recomputes all ratings into {@code ratings_shadow};
+ * {@code {"action": "swap"}} puts the result in place.
+ */
+@Component
+@Endpoint(id = "ratingrecompute")
+@RequiredArgsConstructor
+public class RatingRecomputeEndpoint {
+
+    private final RatingRecomputeJob job;
+
+    @ReadOperation
+    public RatingRecomputeJob.Status status() {
+        return job.status();
+    }
+
+    @WriteOperation
+    public RatingRecomputeJob.Status run(String action) {
+        switch (action) {
+            case "start" -> {
+                if (!job.start()) {
+                    throw new IllegalStateException("A recompute is already running");
+                }
+            }
+            case "swap" -> job.swap();
+            default -> throw new IllegalArgumentException("Unknown action: " + action);
+        }
+        return job.status();
+    }
+}
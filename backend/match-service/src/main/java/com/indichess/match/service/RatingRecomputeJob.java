@@ -0,0 +1,267 @@
+package com.indichess.match.service;
+
+import com.indichess.match.model.GameType;
+import com.indichess.match.service.RatingStrategy.PlayerRating;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Recomputes every rating from the full game log into {@code ratings_shadow}, for replaying
+ * history after a parameter change or a corrected result. Each game type is streamed from
+ * {@code matches} in finishing order on its own thread and replayed in a {@link RatingReplay}.
+ * {@link #swap} then puts the shadow table in place with one atomic RENAME. Rating history is
+ * left as it was recorded.
+ * <p>
+ * In batch mode the last, still open period is replayed as counted but not rated, and the swap
+ * re-bases {@code rating_period_results} on exactly those games, so the next period close rates
+ * them once.
+ */
+@Component
+@Slf4j
+public class RatingRecomputeJob {
+
+    public record Status(String state, LocalDateTime startedAt, LocalDateTime finishedAt, long games,
+                         long players, String error) {
+    }
+
+    private static final String FINISHED = "status IN ('PLAYER1_WON', 'PLAYER2_WON', 'DRAW') AND finished_at IS NOT NULL";
+    private static final String STREAM_SQL = "SELECT player1_id, player2_id, status, finished_at FROM matches "
+            + "WHERE game_type = ? AND " + FINISHED + " AND finished_at < ? ORDER BY finished_at, id";
+    private static final String INSERT_SQL = "INSERT INTO ratings_shadow (user_id, game_type, rating, rating_exact, "
+            + "rating_deviation, volatility, games_played, wins, losses, draws, last_rated_at, updated_at, "
+            + "change_stamp) VALUES ";
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    /** Keeps every recomputed row's change stamp ahead of the row it replaces, for the sync stream. */
+    private static final String ADVANCE_STAMPS_SQL = "UPDATE ratings_shadow JOIN ratings "
+            + "ON ratings_shadow.user_id = ratings.user_id AND ratings_shadow.game_type = ratings.game_type "
+            + "SET ratings_shadow.change_stamp = GREATEST(ratings_shadow.change_stamp, ratings.change_stamp + 1)";
+    private static final int INSERT_ROWS = 500;
+    private static final int LOCK_WAIT_SECONDS = 10;
+    private static final String LOCK_SQL =
+            "LOCK TABLES ratings WRITE, ratings_shadow WRITE, matches READ, rating_period_results WRITE";
+    private static final String REBASE_SQL = "INSERT INTO rating_period_results "
+            + "(match_id, game_type, player1_id, player2_id, player1_score, finished_at) "
+            + "SELECT id, game_type, player1_id, player2_id, "
+            + "CASE status WHEN 'PLAYER1_WON' THEN 1 WHEN 'PLAYER2_WON' THEN 0 ELSE 0.5 END, finished_at "
+            + "FROM matches WHERE game_type = ? AND " + FINISHED + " AND finished_at >= ? ORDER BY finished_at, id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RatingStrategy ratingStrategy;
+    private final RatingCache ratingCache;
+    private final LeaderboardService leaderboardService;
+    private final AtomicReference<Status> status =
+            new AtomicReference<>(new Status("idle", null, null, 0, 0, null));
+    /** Per game type, start of the replay's open batch period (see {@link RatingReplay#openPeriodStart}). */
+    private volatile Map<GameType, Long> openPeriods = Map.of();
+
+    @Value("${app.rating.period.mode:game}")
+    private String periodMode = "game";
+
+    @Value("${app.rating.period.length-ms:86400000}")
+    private long periodMillis = 86_400_000L;
+
+    public RatingRecomputeJob(JdbcTemplate jdbcTemplate, RatingStrategy ratingStrategy, RatingCache ratingCache,
+                              LeaderboardService leaderboardService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ratingStrategy = ratingStrategy;
+        this.ratingCache = ratingCache;
+        this.leaderboardService = leaderboardService;
+    }
+
+    public Status status() {
+        return status.get();
+    }
+
+    /** Runs the recompute on a background thread; false if one is already running. */
+    public boolean start() {
+        Status current = status.get();
+        if ("running".equals(current.state())) {
+            return false;
+        }
+        Status running = new Status("running", LocalDateTime.now(), null, 0, 0, null);
+        if (!status.compareAndSet(current, running)) {
+            return false;
+        }
+        Thread worker = new Thread(() -> run(running.startedAt()), "rating-recompute");
+        worker.setDaemon(true);
+        worker.start();
+        return true;
+    }
+
+    /**
+     * Swaps the shadow table in. Refused while games finished after the recompute started exist,
+     * as their results are not in the shadow table; the replaced table is kept as
+     * {@code ratings_retired} until the next swap. The check and the rename run under table
+     * locks, so games ending meanwhile wait for the swap and then rate against the new table.
+     */
+    public Status swap() {
+        Status done = status.get();
+        if (!"done".equals(done.state())) {
+            throw new IllegalStateException("No finished recompute to swap in");
+        }
+        jdbcTemplate.execute("DROP TABLE IF EXISTS ratings_retired");
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            try (Statement statement = con.createStatement()) {
+                statement.execute("SET SESSION lock_wait_timeout = " + LOCK_WAIT_SECONDS);
+                statement.execute(LOCK_SQL);
+                try {
+                    checkNoNewerGames(con, done.startedAt());
+                    statement.executeUpdate(ADVANCE_STAMPS_SQL);
+                    if ("batch".equals(periodMode)) {
+                        rebasePeriodResults(con, statement);
+                    }
+                    statement.execute("RENAME TABLE ratings TO ratings_retired, ratings_shadow TO ratings");
+                } finally {
+                    statement.execute("UNLOCK TABLES");
+                    statement.execute("SET SESSION lock_wait_timeout = DEFAULT");
+                }
+            }
+            return null;
+        });
+        ratingCache.invalidateAll();
+        for (GameType gameType : GameType.values()) {
+            leaderboardService.rebuild(gameType);
+        }
+        Status swapped = new Status("swapped", done.startedAt(), done.finishedAt(), done.games(), done.players(), null);
+        status.set(swapped);
+        log.info("Swapped recomputed ratings in: {} players", done.players());
+        return swapped;
+    }
+
+    private static void checkNoNewerGames(Connection con, LocalDateTime startedAt) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(
+                "SELECT COUNT(*) FROM matches WHERE " + FINISHED + " AND finished_at >= ?")) {
+            ps.setTimestamp(1, Timestamp.valueOf(startedAt));
+            try (ResultSet rs = ps.executeQuery()) {
+                long newer = rs.next() ? rs.getLong(1) : 0;
+                if (newer > 0) {
+                    throw new IllegalStateException(newer + " games finished after the recompute started; run it again");
+                }
+            }
+        }
+    }
+
+    /** Replaces the pending period results with the games of the replay's open periods. */
+    private void rebasePeriodResults(Connection con, Statement statement) throws SQLException {
+        statement.executeUpdate("DELETE FROM rating_period_results");
+        try (PreparedStatement ps = con.prepareStatement(REBASE_SQL)) {
+            for (Map.Entry<GameType, Long> open : openPeriods.entrySet()) {
+                ps.setString(1, open.getKey().name());
+                ps.setTimestamp(2, new Timestamp(open.getValue()));
+                ps.executeUpdate();
+            }
+        }
+    }
+
+    private void run(LocalDateTime startedAt) {
+        GameType[] types = GameType.values();
+        ExecutorService executor = Executors.newFixedThreadPool(
+                Math.min(types.length, Runtime.getRuntime().availableProcessors()));
+        try {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS ratings_shadow");
+            jdbcTemplate.execute("CREATE TABLE ratings_shadow LIKE ratings");
+            List<Future<RatingReplay>> replays = new ArrayList<>();
+            for (GameType type : types) {
+                replays.add(executor.submit(() -> recompute(type, startedAt)));
+            }
+            long games = 0;
+            long players = 0;
+            Map<GameType, Long> open = new EnumMap<>(GameType.class);
+            for (int i = 0; i < types.length; i++) {
+                RatingReplay replay = replays.get(i).get();
+                games += replay.games();
+                players += replay.players();
+                if (replay.openPeriodStart() != Long.MIN_VALUE) {
+                    open.put(types[i], replay.openPeriodStart());
+                }
+            }
+            openPeriods = open;
+            status.set(new Status("done", startedAt, LocalDateTime.now(), games, players, null));
+            log.info("Recomputed ratings from {} games for {} players", games, players);
+        } catch (Exception e) {
+            Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+            status.set(new Status("failed", startedAt, LocalDateTime.now(), 0, 0, cause.getMessage()));
+            log.error("Rating recompute failed", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private RatingReplay recompute(GameType type, LocalDateTime startedAt) {
+        long start = System.nanoTime();
+        RatingReplay replay = new RatingReplay(ratingStrategy, periodMillis, "batch".equals(periodMode),
+                new PlayerRating(1200, 350, 0.06));
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(STREAM_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            // Connector/J streams rows one by one instead of buffering the whole result
+            ps.setFetchSize(Integer.MIN_VALUE);
+            ps.setString(1, type.name());
+            ps.setTimestamp(2, Timestamp.valueOf(startedAt));
+            return ps;
+        }, (RowCallbackHandler) rs -> replay.game(rs.getLong(1), rs.getLong(2), score(rs.getString(3)),
+                rs.getTimestamp(4).getTime()));
+        // The open batch period stays unrated here; swap() hands its games to the next period close
+        write(type, replay);
+        log.info("Recomputed {}: {} games, {} players in {} ms", type, replay.games(), replay.players(),
+                (System.nanoTime() - start) / 1_000_000);
+        return replay;
+    }
+
+    private void write(GameType type, RatingReplay replay) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        long stamp = now.getTime();
+        for (int from = 0; from < replay.players(); from += INSERT_ROWS) {
+            int to = Math.min(replay.players(), from + INSERT_ROWS);
+            StringBuilder sql = new StringBuilder(INSERT_SQL);
+            List<Object> args = new ArrayList<>((to - from) * 13);
+            for (int slot = from; slot < to; slot++) {
+                sql.append(slot == from ? ROW : "," + ROW);
+                int games = replay.wins(slot) + replay.losses(slot) + replay.draws(slot);
+                long ratedAt = replay.lastRatedAt(slot);
+                args.add(replay.userId(slot));
+                args.add(type.name());
+                args.add((int) Math.round(replay.rating(slot)));
+                args.add(replay.rating(slot));
+                args.add(replay.deviation(slot));
+                args.add(replay.volatility(slot));
+                args.add(games);
+                args.add(replay.wins(slot));
+                args.add(replay.losses(slot));
+                args.add(replay.draws(slot));
+                args.add(ratedAt == Long.MIN_VALUE ? null : new Timestamp(ratedAt));
+                args.add(now);
+                args.add(stamp);
+            }
+            jdbcTemplate.update(sql.toString(), args.toArray());
+        }
+    }
+
+    private static double score(String status) {
+        return switch (status) {
+            case "PLAYER1_WON" -> 1.0;
+            case "PLAYER2_WON" -> 0.0;
+            default -> 0.5;
+        };
+    }
+}
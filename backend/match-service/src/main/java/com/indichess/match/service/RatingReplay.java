@@ -0,0 +1,251 @@
+package com.indichess.match.service;
+
+import com.indichess.match.service.RatingStrategy.GameResult;
+import com.indichess.match.service.RatingStrategy.PlayerRating;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays one game type's finished games, oldest first, through a {@link RatingStrategy} the
+ * way {@link RatingService} rates them live. Players live in columns of primitive arrays found
+ * through an open-addressing user-id index, so millions of games cost no per-player objects.
+ * Not thread-safe; use one replay per game type.
+ */
+final class RatingReplay {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private final RatingStrategy strategy;
+    private final long periodMillis;
+    private final boolean batch;
+    private final double defaultRating;
+    private final PlayerRating initial;
+
+    private long[] indexKeys = new long[INITIAL_CAPACITY * 2];
+    private int[] indexSlots = filled(INITIAL_CAPACITY * 2);
+
+    private int size;
+    private long[] userIds = new long[INITIAL_CAPACITY];
+    private double[] ratings = new double[INITIAL_CAPACITY];
+    private double[] deviations = new double[INITIAL_CAPACITY];
+    private double[] volatilities = new double[INITIAL_CAPACITY];
+    private int[] wins = new int[INITIAL_CAPACITY];
+    private int[] losses = new int[INITIAL_CAPACITY];
+    private int[] draws = new int[INITIAL_CAPACITY];
+    private long[] lastRatedAt = new long[INITIAL_CAPACITY];
+
+    /** Games of the open rating period in batch mode: player slots and player 1's score. */
+    private int pending;
+    private int[] pendingPlayer1 = new int[INITIAL_CAPACITY];
+    private int[] pendingPlayer2 = new int[INITIAL_CAPACITY];
+    private double[] pendingScore = new double[INITIAL_CAPACITY];
+    private long periodEnd = NEVER;
+
+    private long games;
+
+    RatingReplay(RatingStrategy strategy, long periodMillis, boolean batch, PlayerRating initial) {
+        this.strategy = strategy;
+        this.periodMillis = periodMillis;
+        this.batch = batch;
+        this.defaultRating = initial.rating();
+        this.initial = initial;
+    }
+
+    /** Applies one finished game; calls must come in finishing order. */
+    void game(long player1, long player2, double score1, long finishedAtMillis) {
+        int a = slot(player1);
+        int b = slot(player2);
+        count(a, score1);
+        count(b, 1 - score1);
+        games++;
+        if (!batch) {
+            PlayerRating before1 = current(a, finishedAtMillis);
+            PlayerRating before2 = current(b, finishedAtMillis);
+            store(a, strategy.rate(before1, List.of(new GameResult(before2, score1))), finishedAtMillis);
+            store(b, strategy.rate(before2, List.of(new GameResult(before1, 1 - score1))), finishedAtMillis);
+            return;
+        }
+        if (periodEnd == NEVER) {
+            periodEnd = (finishedAtMillis / periodMillis + 1) * periodMillis;
+        } else if (finishedAtMillis >= periodEnd) {
+            closePeriod();
+            periodEnd = (finishedAtMillis / periodMillis + 1) * periodMillis;
+        }
+        if (pending == pendingScore.length) {
+            int capacity = pending * 2;
+            pendingPlayer1 = Arrays.copyOf(pendingPlayer1, capacity);
+            pendingPlayer2 = Arrays.copyOf(pendingPlayer2, capacity);
+            pendingScore = Arrays.copyOf(pendingScore, capacity);
+        }
+        pendingPlayer1[pending] = a;
+        pendingPlayer2[pending] = b;
+        pendingScore[pending] = score1;
+        pending++;
+    }
+
+    /** Rates the open period, if any; call once after the last game. */
+    void finish() {
+        if (batch && pending > 0) {
+            closePeriod();
+        }
+    }
+
+    long games() {
+        return games;
+    }
+
+    /**
+     * Start of the batch period still open after the last game, whose games are counted but not
+     * yet rated, or {@code Long.MIN_VALUE} if there is none.
+     */
+    long openPeriodStart() {
+        return batch && pending > 0 ? periodEnd - periodMillis : NEVER;
+    }
+
+    int players() {
+        return size;
+    }
+
+    /** One player's final state, by slot in {@code [0, players())}. */
+    long userId(int slot) {
+        return userIds[slot];
+    }
+
+    double rating(int slot) {
+        return ratings[slot];
+    }
+
+    double deviation(int slot) {
+        return deviations[slot];
+    }
+
+    double volatility(int slot) {
+        return volatilities[slot];
+    }
+
+    int wins(int slot) {
+        return wins[slot];
+    }
+
+    int losses(int slot) {
+        return losses[slot];
+    }
+
+    int draws(int slot) {
+        return draws[slot];
+    }
+
+    /** When the player was last rated, or {@code Long.MIN_VALUE} if never. */
+    long lastRatedAt(int slot) {
+        return lastRatedAt[slot];
+    }
+
+    private void closePeriod() {
+        Map<Integer, PlayerRating> before = new HashMap<>();
+        Map<Integer, List<GameResult>> results = new HashMap<>();
+        for (int i = 0; i < pending; i++) {
+            int a = pendingPlayer1[i];
+            int b = pendingPlayer2[i];
+            PlayerRating beforeA = before.computeIfAbsent(a, s -> current(s, periodEnd));
+            PlayerRating beforeB = before.computeIfAbsent(b, s -> current(s, periodEnd));
+            results.computeIfAbsent(a, s -> new ArrayList<>()).add(new GameResult(beforeB, pendingScore[i]));
+            results.computeIfAbsent(b, s -> new ArrayList<>()).add(new GameResult(beforeA, 1 - pendingScore[i]));
+        }
+        results.forEach((s, periodGames) -> store(s, strategy.rate(before.get(s), periodGames), periodEnd));
+        pending = 0;
+    }
+
+    /** Mirrors RatingService: deviation grows for every full period sat out before this game. */
+    private PlayerRating current(int slot, long nowMillis) {
+        PlayerRating stored = new PlayerRating(ratings[slot], deviations[slot], volatilities[slot]);
+        if (lastRatedAt[slot] == NEVER) {
+            return stored;
+        }
+        return strategy.idle(stored, (double) (nowMillis - lastRatedAt[slot]) / periodMillis - 1);
+    }
+
+    private void store(int slot, PlayerRating rating, long atMillis) {
+        ratings[slot] = rating.rating();
+        deviations[slot] = rating.deviation();
+        volatilities[slot] = rating.volatility();
+        lastRatedAt[slot] = atMillis;
+    }
+
+    private void count(int slot, double score) {
+        if (score == 1.0) wins[slot]++;
+        else if (score == 0.0) losses[slot]++;
+        else draws[slot]++;
+    }
+
+    /** The player's slot, adding them with the initial rating on first sight. */
+    private int slot(long userId) {
+        int mask = indexKeys.length - 1;
+        int i = mix(userId) & mask;
+        while (indexSlots[i] != -1) {
+            if (indexKeys[i] == userId) {
+                return indexSlots[i];
+            }
+            i = (i + 1) & mask;
+        }
+        int slot = add(userId);
+        indexKeys[i] = userId;
+        indexSlots[i] = slot;
+        if (size * 2 > indexKeys.length) {
+            rehash(indexKeys.length * 2);
+        }
+        return slot;
+    }
+
+    private int add(long userId) {
+        if (size == userIds.length) {
+            int capacity = size * 2;
+            userIds = Arrays.copyOf(userIds, capacity);
+            ratings = Arrays.copyOf(ratings, capacity);
+            deviations = Arrays.copyOf(deviations, capacity);
+            volatilities = Arrays.copyOf(volatilities, capacity);
+            wins = Arrays.copyOf(wins, capacity);
+            losses = Arrays.copyOf(losses, capacity);
+            draws = Arrays.copyOf(draws, capacity);
+            lastRatedAt = Arrays.copyOf(lastRatedAt, capacity);
+        }
+        userIds[size] = userId;
+        ratings[size] = defaultRating;
+        deviations[size] = initial.deviation();
+        volatilities[size] = initial.volatility();
+        lastRatedAt[size] = NEVER;
+        return size++;
+    }
+
+    private void rehash(int capacity) {
+        long[] keys = new long[capacity];
+        int[] slots = filled(capacity);
+        int mask = capacity - 1;
+        for (int j = 0; j < indexKeys.length; j++) {
+            if (indexSlots[j] == -1) continue;
+            int i = mix(indexKeys[j]) & mask;
+            while (slots[i] != -1) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = indexKeys[j];
+            slots[i] = indexSlots[j];
+        }
+        indexKeys = keys;
+        indexSlots = slots;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    private static int[] filled(int length) {
+        int[] array = new int[length];
+        Arrays.fill(array, -1);
+        return array;
+    }
+}
@@ -1,98 +1,247 @@
 package com.indichess.match.service;
 
 import com.indichess.match.dto.RatingResponse;
+import com.indichess.match.event.RatingChangedEvent;
 import com.indichess.match.model.GameType;
 import com.indichess.match.model.Match;
 import com.indichess.match.model.MatchStatus;
 import com.indichess.match.model.Rating;
+import com.indichess.match.model.RatingPeriodResult;
+import com.indichess.match.repo.RatingPeriodResultRepository;
 import com.indichess.match.repo.RatingRepository;
+import com.indichess.match.service.RatingCache.Cached;
+import com.indichess.match.service.RatingStrategy.GameResult;
+import com.indichess.match.service.RatingStrategy.PlayerRating;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Ratings per (user, game type), moved by the configured {@link RatingStrategy}. By default each
+ * game is rated as it finishes; with {@code app.rating.period.mode=batch} finished games are
+ * collected and {@link #closeRatingPeriod} rates the whole period at once. Every recomputed
+ * rating is announced as a {@link RatingChangedEvent}.
+ */
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class RatingService {
 
-    private static final int K_FACTOR = 32;
     private static final int DEFAULT_RATING = 1200;
+    private static final int CLAIM_BATCH = 1000;
 
     private final RatingRepository ratingRepository;
+    private final RatingPeriodResultRepository periodResultRepository;
+    private final RatingStrategy ratingStrategy;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RatingCache ratingCache;
+
+    @Value("${app.rating.period.mode:game}")
+    private String periodMode = "game";
+
+    @Value("${app.rating.period.length-ms:86400000}")
+    private long periodMillis = 86_400_000L;
 
     public int getRating(Long userId, GameType gameType) {
-        return ratingRepository.findByUserIdAndGameType(userId, gameType)
-                .map(Rating::getRating)
-                .orElse(DEFAULT_RATING);
+        return ratingCache.get(userId, gameType, () -> ratingRepository.findByUserIdAndGameType(userId, gameType)
+                .map(r -> new Cached(r.getRating(), r.getChangeStamp()))
+                .orElse(new Cached(DEFAULT_RATING, 0)));
     }
 
     public List<RatingResponse> getRatingsForUser(Long userId) {
         return ratingRepository.findAllByUserIdOrderByGameType(userId).stream()
-                .map(r -> new RatingResponse(r.getGameType(), r.getRating()))
+                .map(r -> new RatingResponse(r.getGameType(), r.getRating(),
+                        (int) Math.round(r.getRatingDeviation())))
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Reads, rates and writes both players under row locks held until commit, so two games
+     * finishing at once for the same player are applied one after the other.
+     */
     @Transactional
     public void updateRatingsAfterMatch(Match match) {
         if (match.getStatus() == MatchStatus.ONGOING || match.getStatus() == MatchStatus.ABANDONED) {
             return;
         }
-        Long p1 = match.getPlayer1Id();
-        Long p2 = match.getPlayer2Id();
-        GameType gameType = match.getGameType();
-        int r1 = getRating(p1, gameType);
-        int r2 = getRating(p2, gameType);
-
         double score1;
-        double score2;
         if (match.getStatus() == MatchStatus.DRAW) {
             score1 = 0.5;
-            score2 = 0.5;
         } else if (match.getStatus() == MatchStatus.PLAYER1_WON) {
             score1 = 1.0;
-            score2 = 0.0;
         } else {
             score1 = 0.0;
-            score2 = 1.0;
         }
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, Rating> locked = lockRatings(match.getGameType(), List.of(match.getPlayer1Id(), match.getPlayer2Id()));
+        Rating rating1 = locked.get(match.getPlayer1Id());
+        Rating rating2 = locked.get(match.getPlayer2Id());
 
-        double e1 = expectedScore(r1, r2);
-        double e2 = expectedScore(r2, r1);
-        int delta1 = (int) Math.round(K_FACTOR * (score1 - e1));
-        int delta2 = (int) Math.round(K_FACTOR * (score2 - e2));
+        int previous1 = rating1.getRating();
+        int previous2 = rating2.getRating();
 
-        updateRating(p1, gameType, r1, delta1, match.getStatus() == MatchStatus.PLAYER1_WON,
-                match.getStatus() == MatchStatus.PLAYER2_WON, match.getStatus() == MatchStatus.DRAW);
-        updateRating(p2, gameType, r2, delta2, match.getStatus() == MatchStatus.PLAYER2_WON,
-                match.getStatus() == MatchStatus.PLAYER1_WON, match.getStatus() == MatchStatus.DRAW);
+        if ("batch".equals(periodMode)) {
+            if (periodResultRepository.existsByMatchId(match.getId())) {
+                return;
+            }
+            periodResultRepository.save(new RatingPeriodResult(null, match.getId(), match.getGameType(),
+                    match.getPlayer1Id(), match.getPlayer2Id(), score1, now));
+        } else {
+            PlayerRating before1 = current(rating1, now);
+            PlayerRating before2 = current(rating2, now);
+            apply(rating1, ratingStrategy.rate(before1, List.of(new GameResult(before2, score1))), now);
+            apply(rating2, ratingStrategy.rate(before2, List.of(new GameResult(before1, 1 - score1))), now);
+        }
+        count(rating1, score1);
+        count(rating2, 1 - score1);
+        ratingRepository.saveAll(List.of(rating1, rating2));
+        if (!"batch".equals(periodMode)) {
+            announce(rating1, match.getId(), previous1);
+            announce(rating2, match.getId(), previous2);
+        }
     }
 
-    private static double expectedScore(int ratingA, int ratingB) {
-        return 1.0 / (1.0 + Math.pow(10, (ratingB - ratingA) / 400.0));
+    /**
+     * Rates every game collected that finished before {@code periodEndMillis}, a period boundary
+     * aligned to the epoch like {@link RatingReplay}'s; games of the period still open are left
+     * for the next close. Opponents are taken as they stood before the period, so each player's
+     * update is independent and runs in parallel.
+     * <p>
+     * The results are claimed (deleted) before anything is rated, so when several nodes close
+     * the same period only one of them rates it; the others find nothing left to claim.
+     *
+     * @return number of players rated
+     */
+    @Transactional
+    public int closeRatingPeriod(long periodEndMillis) {
+        List<RatingPeriodResult> results = periodResultRepository.findByFinishedAtBeforeOrderByResultId(
+                new Timestamp(periodEndMillis).toLocalDateTime());
+        if (results.isEmpty()) {
+            return 0;
+        }
+        int claimed = claim(results);
+        if (claimed == 0) {
+            log.debug("Rating period already closed by another node");
+            return 0;
+        }
+        if (claimed != results.size()) {
+            // Another node closed part of what we read; roll back and leave the rest for the next close
+            throw new IllegalStateException("Rating period results were claimed concurrently");
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Map<GameType, List<RatingPeriodResult>> byType = results.stream()
+                .collect(Collectors.groupingBy(RatingPeriodResult::getGameType,
+                        () -> new EnumMap<>(GameType.class), Collectors.toList()));
+
+        int rated = 0;
+        for (Map.Entry<GameType, List<RatingPeriodResult>> type : byType.entrySet()) {
+            Set<Long> userIds = new HashSet<>();
+            for (RatingPeriodResult result : type.getValue()) {
+                userIds.add(result.getPlayer1Id());
+                userIds.add(result.getPlayer2Id());
+            }
+            Map<Long, Rating> ratings = lockRatings(type.getKey(), userIds);
+            Map<Long, PlayerRating> before = new HashMap<>();
+            ratings.forEach((userId, rating) -> before.put(userId, current(rating, now)));
+
+            Map<Long, List<GameResult>> games = new HashMap<>();
+            for (RatingPeriodResult result : type.getValue()) {
+                games.computeIfAbsent(result.getPlayer1Id(), id -> new ArrayList<>())
+                        .add(new GameResult(before.get(result.getPlayer2Id()), result.getPlayer1Score()));
+                games.computeIfAbsent(result.getPlayer2Id(), id -> new ArrayList<>())
+                        .add(new GameResult(before.get(result.getPlayer1Id()), 1 - result.getPlayer1Score()));
+            }
+            Map<Long, PlayerRating> after = games.entrySet().parallelStream()
+                    .collect(Collectors.toConcurrentMap(Map.Entry::getKey,
+                            e -> ratingStrategy.rate(before.get(e.getKey()), e.getValue())));
+
+            Map<Long, Integer> previous = new HashMap<>();
+            after.forEach((userId, rating) -> {
+                previous.put(userId, ratings.get(userId).getRating());
+                apply(ratings.get(userId), rating, now);
+            });
+            ratingRepository.saveAll(ratings.values());
+            previous.forEach((userId, rating) -> announce(ratings.get(userId), null, rating));
+            rated += after.size();
+        }
+        log.info("Closed rating period: {} games, {} players rated", results.size(), rated);
+        return rated;
     }
 
-    private void updateRating(Long userId, GameType gameType, int currentRating, int delta,
-                             boolean win, boolean loss, boolean draw) {
-        Rating rating = ratingRepository.findByUserIdAndGameType(userId, gameType)
-                .orElseGet(() -> {
-                    Rating r = new Rating();
-                    r.setUserId(userId);
-                    r.setGameType(gameType);
-                    r.setRating(DEFAULT_RATING);
-                    r.setGamesPlayed(0);
-                    r.setWins(0);
-                    r.setLosses(0);
-                    r.setDraws(0);
-                    return r;
-                });
-        rating.setRating(rating.getRating() + delta);
+    private int claim(List<RatingPeriodResult> results) {
+        List<Long> ids = results.stream().map(RatingPeriodResult::getResultId).toList();
+        int claimed = 0;
+        for (int i = 0; i < ids.size(); i += CLAIM_BATCH) {
+            claimed += periodResultRepository.claim(ids.subList(i, Math.min(ids.size(), i + CLAIM_BATCH)));
+        }
+        return claimed;
+    }
+
+    /** The stored rating, with deviation grown for every full period the player sat out. */
+    private PlayerRating current(Rating rating, LocalDateTime now) {
+        double exact = rating.getRatingExact() != null ? rating.getRatingExact() : rating.getRating();
+        PlayerRating stored = new PlayerRating(exact, rating.getRatingDeviation(), rating.getVolatility());
+        if (rating.getLastRatedAt() == null) {
+            return stored;
+        }
+        double periods = (double) Duration.between(rating.getLastRatedAt(), now).toMillis() / periodMillis;
+        return ratingStrategy.idle(stored, periods - 1);
+    }
+
+    private static void apply(Rating rating, PlayerRating after, LocalDateTime now) {
+        rating.setRatingExact(after.rating());
+        rating.setRating((int) Math.round(after.rating()));
+        rating.setRatingDeviation(after.deviation());
+        rating.setVolatility(after.volatility());
+        rating.setLastRatedAt(now);
+        // Called with the row locked: never behind the previous change, whatever this node's clock says
+        rating.setChangeStamp(Math.max(System.currentTimeMillis(), rating.getChangeStamp() + 1));
+    }
+
+    private void announce(Rating rating, Long matchId, int previousRating) {
+        eventPublisher.publishEvent(new RatingChangedEvent(rating.getUserId(), rating.getGameType(), matchId,
+                previousRating, rating.getRating(), rating.getChangeStamp()));
+    }
+
+    private static void count(Rating rating, double score) {
         rating.setGamesPlayed(rating.getGamesPlayed() + 1);
-        if (win) rating.setWins(rating.getWins() + 1);
-        else if (loss) rating.setLosses(rating.getLosses() + 1);
-        else if (draw) rating.setDraws(rating.getDraws() + 1);
-        ratingRepository.save(rating);
+        if (score == 1.0) rating.setWins(rating.getWins() + 1);
+        else if (score == 0.0) rating.setLosses(rating.getLosses() + 1);
+        else rating.setDraws(rating.getDraws() + 1);
+    }
+
+    /** Locks the users' rating rows until commit, creating missing rows with the default rating first. */
+    private Map<Long, Rating> lockRatings(GameType gameType, Collection<Long> userIds) {
+        Map<Long, Rating> ratings = byUser(ratingRepository.findAllForUpdate(gameType, userIds));
+        if (ratings.size() < userIds.size()) {
+            for (Long userId : userIds) {
+                if (!ratings.containsKey(userId)) {
+                    ratingRepository.insertIfAbsent(userId, gameType.name(), DEFAULT_RATING);
+                }
+            }
+            ratings = byUser(ratingRepository.findAllForUpdate(gameType, userIds));
+        }
+        return ratings;
+    }
+
+    private static Map<Long, Rating> byUser(List<Rating> ratings) {
+        return ratings.stream().collect(Collectors.toMap(Rating::getUserId, Function.identity()));
     }
 }
@@ -0,0 +1,25 @@
+package com.indichess.match.service;
+
+import java.util.List;
+
+/**
+ * How a player's rating moves after a rating period: a single game when ratings update as games
+ * finish, or every game of the period in batch mode. Opponents are rated as they stood before
+ * the period, so players in one period can be rated independently of each other.
+ */
+public interface RatingStrategy {
+
+    record PlayerRating(double rating, double deviation, double volatility) {
+    }
+
+    /** One game of the period: the opponent before the period and the player's score (1, 0.5 or 0). */
+    record GameResult(PlayerRating opponent, double score) {
+    }
+
+    PlayerRating rate(PlayerRating player, List<GameResult> results);
+
+    /** The player after {@code periods} rating periods without games. */
+    default PlayerRating idle(PlayerRating player, double periods) {
+        return player;
+    }
+}
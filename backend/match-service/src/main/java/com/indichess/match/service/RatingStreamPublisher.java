@@ -0,0 +1,96 @@
+package com.indichess.match.service;
+
+import com.indichess.match.event.RatingChangedEvent;
+import com.indichess.match.model.GameType;
+import com.indichess.match.model.Rating;
+import com.indichess.match.repo.RatingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Appends committed rating changes to a Redis stream that user-service consumes into its
+ * profiles. Each entry carries the rating row's change stamp (see {@link Rating#getChangeStamp})
+ * so the consumer can ignore one that arrives after a newer value. The stream is trimmed to about {@code max-len} entries.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rating-sync.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class RatingStreamPublisher {
+
+    private static final int TRIM_EVERY = 1000;
+    private static final int REPUBLISH_PAGE = 1000;
+
+    private final StringRedisTemplate redis;
+    private final RatingRepository ratingRepository;
+    private final String stream;
+    private final long maxLen;
+    private final Counter failures;
+    private final AtomicLong published = new AtomicLong();
+
+    public RatingStreamPublisher(StringRedisTemplate redis,
+                                 RatingRepository ratingRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${app.rating-sync.stream:ratings:changes}") String stream,
+                                 @Value("${app.rating-sync.max-len:100000}") long maxLen) {
+        this.redis = redis;
+        this.ratingRepository = ratingRepository;
+        this.stream = stream;
+        this.maxLen = maxLen;
+        this.failures = Counter.builder("ratings.sync.publish.failures")
+                .description("Rating changes that could not be appended to the sync stream")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRatingChanged(RatingChangedEvent event) {
+        publish(event.userId(), event.gameType(), event.rating(), event.changeStamp());
+    }
+
+    /** Re-sends every stored rating, e.g. to fill user-service after it was added or restored. */
+    public int republishAll() {
+        int count = 0;
+        for (GameType gameType : GameType.values()) {
+            long cursor = 0;
+            List<Rating> page;
+            do {
+                page = ratingRepository.findByGameTypeAndRatingIdGreaterThanOrderByRatingIdAsc(
+                        gameType, cursor, PageRequest.of(0, REPUBLISH_PAGE));
+                for (Rating rating : page) {
+                    publish(rating.getUserId(), gameType, rating.getRating(), rating.getChangeStamp());
+                    cursor = rating.getRatingId();
+                    count++;
+                }
+            } while (page.size() == REPUBLISH_PAGE);
+        }
+        log.info("Republished {} ratings to {}", count, stream);
+        return count;
+    }
+
+    private void publish(Long userId, GameType gameType, int rating, long changedAtMillis) {
+        try {
+            redis.opsForStream().add(StreamRecords.string(Map.of(
+                    "userId", userId.toString(),
+                    "gameType", gameType.name(),
+                    "rating", Integer.toString(rating),
+                    "changedAt", Long.toString(changedAtMillis))).withStreamKey(stream));
+            if (published.incrementAndGet() % TRIM_EVERY == 0) {
+                redis.opsForStream().trim(stream, maxLen, true);
+            }
+        } catch (Exception e) {
+            failures.increment();
+            log.warn("Could not publish rating change of user {} ({}): {}", userId, gameType, e.getMessage());
+        }
+    }
+}
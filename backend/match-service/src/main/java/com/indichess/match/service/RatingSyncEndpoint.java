@@ -0,0 +1,24 @@
+package com.indichess.match.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/** {@code POST /actuator/ratingsync}: re-sends every stored rating to the sync stream. */
+@Component
+@ConditionalOnProperty(name = "app.rating-sync.enabled", havingValue = "true", matchIfMissing = true)
+@Endpoint(id = "ratingsync")
+@RequiredArgsConstructor
+public class RatingSyncEndpoint {
+
+    private final RatingStreamPublisher publisher;
+
+    @WriteOperation
+    public Map<String, Integer> republish() {
+        return Map.of("published", publisher.republishAll());
+    }
+}
@@ -0,0 +1,163 @@
+package com.indichess.match.service;
+
+import com.indichess.match.model.GameType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.DefaultTypedTuple;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Cluster-wide leaderboard: one sorted set per game type, scored by rating. Positions come from
+ * ZREVRANK/ZREVRANGE; a competition rank is the count of strictly higher scores plus one.
+ * A hash next to each set holds the change stamp of every entry; updates compare and write
+ * both in one Lua script. The set and hash of a game type share a hash tag, so on Redis
+ * Cluster they live in one slot.
+ */
+@Component
+@ConditionalOnProperty(name = "app.leaderboard.store", havingValue = "redis")
+public class RedisLeaderboard implements Leaderboard {
+
+    private static final String PREFIX = "leaderboard:";
+    private static final int REPLACE_BATCH = 1000;
+
+    /** KEYS: board, stamps. ARGV: userId, rating, stamp. Returns 0 if a same or newer stamp is stored. */
+    private static final String UPDATE_LUA = """
+            local known = redis.call('HGET', KEYS[2], ARGV[1])
+            if known and tonumber(known) >= tonumber(ARGV[3]) then return 0 end
+            redis.call('HSET', KEYS[2], ARGV[1], ARGV[3])
+            redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1])
+            return 1
+            """;
+
+    /** KEYS: board, stamps, scratch board, scratch stamps. Moves both scratch keys over the live ones. */
+    private static final String SWAP_LUA = """
+            redis.call('DEL', KEYS[1], KEYS[2])
+            if redis.call('EXISTS', KEYS[3]) == 1 then redis.call('RENAME', KEYS[3], KEYS[1]) end
+            if redis.call('EXISTS', KEYS[4]) == 1 then redis.call('RENAME', KEYS[4], KEYS[2]) end
+            return 1
+            """;
+
+    private static final RedisScript<Long> UPDATE = new DefaultRedisScript<>(UPDATE_LUA, Long.class);
+    private static final RedisScript<Long> SWAP = new DefaultRedisScript<>(SWAP_LUA, Long.class);
+
+    private final StringRedisTemplate redis;
+    private final ZSetOperations<String, String> zset;
+
+    public RedisLeaderboard(StringRedisTemplate redis) {
+        this.redis = redis;
+        this.zset = redis.opsForZSet();
+    }
+
+    @Override
+    public void update(GameType gameType, Long userId, int rating, long changeStamp) {
+        redis.execute(UPDATE, List.of(key(gameType), stampsKey(gameType)),
+                userId.toString(), Integer.toString(rating), Long.toString(changeStamp));
+    }
+
+    @Override
+    public List<Standing> top(GameType gameType, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return ranked(gameType, 0, zset.reverseRangeWithScores(key(gameType), 0, limit - 1));
+    }
+
+    @Override
+    public Optional<Standing> standing(GameType gameType, Long userId) {
+        Double score = zset.score(key(gameType), userId.toString());
+        if (score == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Standing(rankOf(gameType, score), userId, score.intValue()));
+    }
+
+    @Override
+    public List<Standing> around(GameType gameType, Long userId, int radius) {
+        Long position = zset.reverseRank(key(gameType), userId.toString());
+        if (position == null) {
+            return List.of();
+        }
+        long start = Math.max(0, position - radius);
+        return ranked(gameType, start, zset.reverseRangeWithScores(key(gameType), start, position + radius));
+    }
+
+    @Override
+    public long size(GameType gameType) {
+        Long size = zset.zCard(key(gameType));
+        return size == null ? 0 : size;
+    }
+
+    /** Builds the new set and stamps under scratch keys and renames them over the live ones in one step. */
+    @Override
+    public void replace(GameType gameType, Map<Long, Rated> ratings) {
+        String scratch = key(gameType) + ":rebuild";
+        String scratchStamps = stampsKey(gameType) + ":rebuild";
+        redis.delete(List.of(scratch, scratchStamps));
+        Set<TypedTuple<String>> batch = new HashSet<>();
+        Map<String, String> stamps = new HashMap<>();
+        for (Map.Entry<Long, Rated> rating : ratings.entrySet()) {
+            String member = rating.getKey().toString();
+            batch.add(new DefaultTypedTuple<>(member, (double) rating.getValue().rating()));
+            stamps.put(member, Long.toString(rating.getValue().changeStamp()));
+            if (batch.size() == REPLACE_BATCH) {
+                zset.add(scratch, batch);
+                redis.opsForHash().putAll(scratchStamps, stamps);
+                batch.clear();
+                stamps.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            zset.add(scratch, batch);
+            redis.opsForHash().putAll(scratchStamps, stamps);
+        }
+        redis.execute(SWAP, List.of(key(gameType), stampsKey(gameType), scratch, scratchStamps));
+    }
+
+    /** Ranks a slice that starts at {@code start}: a new score's rank is its position plus one. */
+    private List<Standing> ranked(GameType gameType, long start, Set<TypedTuple<String>> slice) {
+        List<Standing> standings = new ArrayList<>();
+        if (slice == null || slice.isEmpty()) {
+            return standings;
+        }
+        long position = start;
+        Standing previous = null;
+        for (TypedTuple<String> tuple : slice) {
+            int rating = tuple.getScore().intValue();
+            long rank;
+            if (previous == null) {
+                rank = start == 0 ? 1 : rankOf(gameType, tuple.getScore());
+            } else {
+                rank = previous.rating() == rating ? previous.rank() : position + 1;
+            }
+            previous = new Standing(rank, Long.valueOf(tuple.getValue()), rating);
+            standings.add(previous);
+            position++;
+        }
+        return standings;
+    }
+
+    private long rankOf(GameType gameType, double score) {
+        Long higher = zset.count(key(gameType), score + 0.5, Double.POSITIVE_INFINITY);
+        return 1 + (higher == null ? 0 : higher);
+    }
+
+    private static String key(GameType gameType) {
+        return PREFIX + "{" + gameType.name() + "}";
+    }
+
+    private static String stampsKey(GameType gameType) {
+        return key(gameType) + ":stamps";
+    }
+}
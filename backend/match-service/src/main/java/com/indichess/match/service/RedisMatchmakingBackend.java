@@ -0,0 +1,335 @@
+package com.indichess.match.service;
+
+import com.indichess.match.model.GameType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * Cluster-wide matchmaking pool in Redis. Per game type, a sorted set of user ids scored by
+ * rating and one scored by join time; one sorted set of all waiting users scored by lease
+ * expiry; per user, a hash with the entry itself, which also carries a TTL a minute past the
+ * lease as a backstop. Adding, removing, renewing, expiring and claiming a pair are Lua
+ * scripts, so each is atomic: a claim removes both players only if both are still waiting with
+ * a live lease, and a node that loses the race simply gets nothing. All keys share
+ * the {@code {mm}} hash tag, so on Redis Cluster they live in one slot and the scripts, which
+ * derive some keys from their arguments, stay on a single node.
+ */
+@Component
+@ConditionalOnProperty(name = "app.matchmaking.backend", havingValue = "redis")
+public class RedisMatchmakingBackend implements MatchmakingBackend {
+
+    private static final String PREFIX = "{mm}:";
+    private static final int NEIGHBOURS = 4;
+    private static final int CLAIM_ATTEMPTS = 3;
+    private static final int EXPIRE_BATCH = 500;
+    private static final long ENTRY_TTL_GRACE_MS = 60_000;
+    private static final String LEASE_KEY = PREFIX + "lease";
+
+    private static final List<Object> FIELDS = List.of("gameType", "rating", "joinedAt", "leaseUntil");
+
+    /** KEYS: entry, lease set. ARGV: prefix, userId. Removes the user's entry; returns its fields. */
+    private static final String REMOVE_LUA = """
+            local entryKey = KEYS[1]
+            local e = redis.call('HMGET', entryKey, 'gameType', 'rating', 'joinedAt', 'leaseUntil')
+            redis.call('ZREM', KEYS[2], ARGV[2])
+            if not e[1] then return nil end
+            redis.call('ZREM', ARGV[1] .. 'rating:' .. e[1], ARGV[2])
+            redis.call('ZREM', ARGV[1] .. 'joined:' .. e[1], ARGV[2])
+            redis.call('DEL', entryKey)
+            return e
+            """;
+
+    /**
+     * KEYS: entry, lease set. ARGV: prefix, userId, gameType, rating, joinedAt, leaseUntil,
+     * entry TTL deadline (or -1). Replaces any previous entry of the user.
+     */
+    private static final String ADD_LUA = """
+            local entryKey = KEYS[1]
+            local e = redis.call('HMGET', entryKey, 'gameType', 'rating', 'joinedAt', 'leaseUntil')
+            if e[1] then
+              redis.call('ZREM', ARGV[1] .. 'rating:' .. e[1], ARGV[2])
+              redis.call('ZREM', ARGV[1] .. 'joined:' .. e[1], ARGV[2])
+            end
+            redis.call('HSET', entryKey, 'gameType', ARGV[3], 'rating', ARGV[4], 'joinedAt', ARGV[5], 'leaseUntil', ARGV[6])
+            redis.call('ZADD', ARGV[1] .. 'rating:' .. ARGV[3], ARGV[4], ARGV[2])
+            redis.call('ZADD', ARGV[1] .. 'joined:' .. ARGV[3], ARGV[5], ARGV[2])
+            redis.call('ZADD', KEYS[2], ARGV[6], ARGV[2])
+            if ARGV[7] ~= '-1' then redis.call('PEXPIREAT', entryKey, ARGV[7]) end
+            if e[1] then return e end
+            return nil
+            """;
+
+    /** KEYS: entry, lease set. ARGV: userId, leaseUntil, entry TTL deadline. Returns 0 if the user is not waiting. */
+    private static final String RENEW_LUA = """
+            if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end
+            redis.call('HSET', KEYS[1], 'leaseUntil', ARGV[2])
+            redis.call('ZADD', KEYS[2], ARGV[2], ARGV[1])
+            redis.call('PEXPIREAT', KEYS[1], ARGV[3])
+            return 1
+            """;
+
+    /**
+     * KEYS: lease set. ARGV: prefix, now, batch size, game types... Removes up to a batch of
+     * users whose lease lapsed, from every set; returns {userId, gameType, rating, joinedAt,
+     * leaseUntil} for each whose entry hash was still there.
+     */
+    private static final String EXPIRE_LUA = """
+            local ids = redis.call('ZRANGEBYSCORE', KEYS[1], '-inf', ARGV[2], 'LIMIT', 0, tonumber(ARGV[3]))
+            local out = {}
+            for _, id in ipairs(ids) do
+              local entryKey = ARGV[1] .. 'entry:' .. id
+              local e = redis.call('HMGET', entryKey, 'gameType', 'rating', 'joinedAt', 'leaseUntil')
+              for i = 4, #ARGV do
+                redis.call('ZREM', ARGV[1] .. 'rating:' .. ARGV[i], id)
+                redis.call('ZREM', ARGV[1] .. 'joined:' .. ARGV[i], id)
+              end
+              redis.call('DEL', entryKey)
+              redis.call('ZREM', KEYS[1], id)
+              if e[1] then table.insert(out, {id, e[1], e[2], e[3], e[4]}) end
+            end
+            return out
+            """;
+
+    /**
+     * KEYS: rating set, joined set, lease set. ARGV: prefix, userA, userB, now. Removes both only
+     * if both are still waiting and neither lease has lapsed.
+     */
+    private static final String CLAIM_LUA = """
+            local ratingKey = KEYS[1]
+            local joinedKey = KEYS[2]
+            if not redis.call('ZSCORE', ratingKey, ARGV[2]) or not redis.call('ZSCORE', ratingKey, ARGV[3]) then
+              return 0
+            end
+            local now = tonumber(ARGV[4])
+            local leaseA = redis.call('ZSCORE', KEYS[3], ARGV[2])
+            local leaseB = redis.call('ZSCORE', KEYS[3], ARGV[3])
+            if not leaseA or not leaseB or tonumber(leaseA) <= now or tonumber(leaseB) <= now then
+              return 0
+            end
+            redis.call('ZREM', ratingKey, ARGV[2], ARGV[3])
+            redis.call('ZREM', joinedKey, ARGV[2], ARGV[3])
+            redis.call('ZREM', KEYS[3], ARGV[2], ARGV[3])
+            redis.call('DEL', ARGV[1] .. 'entry:' .. ARGV[2], ARGV[1] .. 'entry:' .. ARGV[3])
+            return 1
+            """;
+
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> REMOVE = new DefaultRedisScript<>(REMOVE_LUA, List.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ADD = new DefaultRedisScript<>(ADD_LUA, List.class);
+    private static final RedisScript<Long> RENEW = new DefaultRedisScript<>(RENEW_LUA, Long.class);
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> EXPIRE = new DefaultRedisScript<>(EXPIRE_LUA, List.class);
+    private static final RedisScript<Long> CLAIM = new DefaultRedisScript<>(CLAIM_LUA, Long.class);
+
+    private final StringRedisTemplate redis;
+
+    public RedisMatchmakingBackend(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public Optional<Entry> add(Entry entry) {
+        long lease = entry.leaseExpiresAtMillis();
+        List<?> previous = redis.execute(ADD, List.of(entryKey(entry.userId()), LEASE_KEY), PREFIX,
+                entry.userId().toString(), entry.gameType().name(), Integer.toString(entry.rating()),
+                Long.toString(entry.joinedAtMillis()), Long.toString(lease),
+                lease == Long.MAX_VALUE ? "-1" : Long.toString(lease + ENTRY_TTL_GRACE_MS));
+        return toEntry(entry.userId(), previous);
+    }
+
+    @Override
+    public Optional<Entry> remove(Long userId) {
+        return toEntry(userId, redis.execute(REMOVE, List.of(entryKey(userId), LEASE_KEY), PREFIX, userId.toString()));
+    }
+
+    @Override
+    public Optional<Entry> find(Long userId) {
+        return toEntry(userId, redis.opsForHash().multiGet(entryKey(userId), FIELDS));
+    }
+
+    @Override
+    public int size(GameType gameType) {
+        Long size = redis.opsForZSet().zCard(ratingKey(gameType));
+        return size == null ? 0 : size.intValue();
+    }
+
+    @Override
+    public boolean renew(Long userId, long leaseExpiresAtMillis) {
+        Long renewed = redis.execute(RENEW, List.of(entryKey(userId), LEASE_KEY), userId.toString(),
+                Long.toString(leaseExpiresAtMillis), Long.toString(leaseExpiresAtMillis + ENTRY_TTL_GRACE_MS));
+        return renewed != null && renewed == 1L;
+    }
+
+    @Override
+    public List<Entry> expire(long nowMillis) {
+        List<Object> args = new ArrayList<>(List.of(PREFIX, Long.toString(nowMillis), Integer.toString(EXPIRE_BATCH)));
+        for (GameType type : GameType.values()) {
+            args.add(type.name());
+        }
+        List<Entry> expired = new ArrayList<>();
+        while (true) {
+            List<?> batch = redis.execute(EXPIRE, List.of(LEASE_KEY), args.toArray());
+            if (batch == null || batch.isEmpty()) {
+                return expired;
+            }
+            for (Object row : batch) {
+                List<?> fields = (List<?>) row;
+                toEntry(Long.valueOf(fields.get(0).toString()), fields.subList(1, fields.size())).ifPresent(expired::add);
+            }
+            if (batch.size() < EXPIRE_BATCH) {
+                return expired;
+            }
+        }
+    }
+
+    @Override
+    public Optional<Pair> pairNearest(Long userId, int maxGap, long nowMillis) {
+        for (int attempt = 0; attempt < CLAIM_ATTEMPTS; attempt++) {
+            Optional<Entry> self = find(userId);
+            if (self.isEmpty() || self.get().lapsed(nowMillis)) {
+                return Optional.empty();
+            }
+            Entry entry = self.get();
+            Optional<Long> opponentId = nearest(entry, maxGap, nowMillis);
+            if (opponentId.isEmpty()) {
+                return Optional.empty();
+            }
+            Optional<Entry> opponent = find(opponentId.get());
+            if (opponent.isPresent() && claim(entry, opponent.get(), nowMillis)) {
+                return Optional.of(pair(entry, opponent.get()));
+            }
+            // Lost the race for that opponent (or for ourselves); look again
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Plans the pass locally on a snapshot of the pool, then claims each planned pair; pairs
+     * another node got to first are skipped and their players are retried on the next tick.
+     */
+    @Override
+    public List<Pair> pairAll(GameType gameType, ToIntFunction<Entry> maxGap, long nowMillis) {
+        InMemoryMatchmakingBackend plan = new InMemoryMatchmakingBackend();
+        snapshot(gameType, nowMillis).forEach(plan::add);
+        List<Pair> claimed = new ArrayList<>();
+        for (Pair pair : plan.pairAll(gameType, maxGap, nowMillis)) {
+            if (claim(pair.first(), pair.second(), nowMillis)) {
+                claimed.add(pair);
+            }
+        }
+        return claimed;
+    }
+
+    @Override
+    public boolean isDurable() {
+        return true;
+    }
+
+    private Optional<Long> nearest(Entry entry, int maxGap, long nowMillis) {
+        String key = ratingKey(entry.gameType());
+        Set<TypedTuple<String>> below = redis.opsForZSet()
+                .reverseRangeByScoreWithScores(key, entry.rating() - maxGap, entry.rating(), 0, NEIGHBOURS);
+        Set<TypedTuple<String>> above = redis.opsForZSet()
+                .rangeByScoreWithScores(key, entry.rating(), entry.rating() + maxGap, 0, NEIGHBOURS);
+        String self = entry.userId().toString();
+        List<TypedTuple<String>> candidates = new ArrayList<>();
+        for (Set<TypedTuple<String>> side : List.of(nullSafe(below), nullSafe(above))) {
+            for (TypedTuple<String> t : side) {
+                if (!self.equals(t.getValue()) && t.getScore() != null) candidates.add(t);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Optional.empty();
+        }
+        List<Double> leases = redis.opsForZSet().score(LEASE_KEY,
+                candidates.stream().map(TypedTuple::getValue).toArray());
+        String best = null;
+        double bestGap = Double.MAX_VALUE;
+        for (int i = 0; i < candidates.size(); i++) {
+            TypedTuple<String> t = candidates.get(i);
+            Double lease = leases == null ? null : leases.get(i);
+            if (lease != null && lease > nowMillis) {
+                double gap = Math.abs(t.getScore() - entry.rating());
+                if (gap < bestGap) {
+                    bestGap = gap;
+                    best = t.getValue();
+                }
+            }
+        }
+        return Optional.ofNullable(best).map(Long::valueOf);
+    }
+
+    /** Live entries of one game type; anyone without a live lease is left out. */
+    private List<Entry> snapshot(GameType gameType, long nowMillis) {
+        Set<TypedTuple<String>> ratings = redis.opsForZSet().rangeWithScores(ratingKey(gameType), 0, -1);
+        Set<TypedTuple<String>> joined = redis.opsForZSet().rangeWithScores(joinedKey(gameType), 0, -1);
+        Set<TypedTuple<String>> leases = redis.opsForZSet()
+                .rangeByScoreWithScores(LEASE_KEY, nowMillis + 1, Double.POSITIVE_INFINITY);
+        Map<String, Double> joinedAt = new HashMap<>();
+        for (TypedTuple<String> t : nullSafe(joined)) {
+            joinedAt.put(t.getValue(), t.getScore());
+        }
+        Map<String, Double> leaseUntil = new HashMap<>();
+        for (TypedTuple<String> t : nullSafe(leases)) {
+            leaseUntil.put(t.getValue(), t.getScore());
+        }
+        List<Entry> entries = new ArrayList<>();
+        for (TypedTuple<String> t : nullSafe(ratings)) {
+            Double at = joinedAt.get(t.getValue());
+            Double lease = leaseUntil.get(t.getValue());
+            if (at != null && lease != null && t.getScore() != null) {
+                entries.add(new Entry(Long.valueOf(t.getValue()), gameType, t.getScore().intValue(),
+                        at.longValue(), lease.longValue()));
+            }
+        }
+        return entries;
+    }
+
+    private boolean claim(Entry a, Entry b, long nowMillis) {
+        Long ok = redis.execute(CLAIM, List.of(ratingKey(a.gameType()), joinedKey(a.gameType()), LEASE_KEY), PREFIX,
+                a.userId().toString(), b.userId().toString(), Long.toString(nowMillis));
+        return ok != null && ok == 1L;
+    }
+
+    private static Pair pair(Entry a, Entry b) {
+        return a.joinedAtMillis() <= b.joinedAtMillis() ? new Pair(a, b) : new Pair(b, a);
+    }
+
+    private static Optional<Entry> toEntry(Long userId, List<?> fields) {
+        if (fields == null || fields.size() < 3 || fields.get(0) == null) {
+            return Optional.empty();
+        }
+        long lease = fields.size() > 3 && fields.get(3) != null ? Long.parseLong(fields.get(3).toString()) : Long.MAX_VALUE;
+        return Optional.of(new Entry(userId, GameType.valueOf(fields.get(0).toString()),
+                Integer.parseInt(fields.get(1).toString()), Long.parseLong(fields.get(2).toString()), lease));
+    }
+
+    private static <T> Set<T> nullSafe(Set<T> set) {
+        return set == null ? Set.of() : set;
+    }
+
+    private static String entryKey(Long userId) {
+        return PREFIX + "entry:" + userId;
+    }
+
+    private static String ratingKey(GameType gameType) {
+        return PREFIX + "rating:" + gameType.name();
+    }
+
+    private static String joinedKey(GameType gameType) {
+        return PREFIX + "joined:" + gameType.name();
+    }
+}
@@ -0,0 +1,110 @@
+package com.indichess.match.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+
+/**
+ * Cluster-wide presence store. Counters carry a TTL that live sessions keep refreshing, so
+ * counts left behind by a crashed node expire instead of keeping users online forever.
+ */
+@Component
+@ConditionalOnProperty(name = "app.presence.store", havingValue = "redis")
+public class RedisPresenceStore implements PresenceStore {
+
+    private static final String PREFIX = "presence:";
+
+    private final StringRedisTemplate redis;
+    private final Duration sessionTtl;
+    private final Duration goneTtl;
+
+    public RedisPresenceStore(StringRedisTemplate redis,
+                              @Value("${app.presence.session-ttl-seconds:90}") long sessionTtlSeconds,
+                              @Value("${app.presence.gone-ttl-seconds:86400}") long goneTtlSeconds) {
+        this.redis = redis;
+        this.sessionTtl = Duration.ofSeconds(sessionTtlSeconds);
+        this.goneTtl = Duration.ofSeconds(goneTtlSeconds);
+    }
+
+    @Override
+    public long addSession(Long userId) {
+        return increment(userKey(userId));
+    }
+
+    @Override
+    public long removeSession(Long userId) {
+        return decrement(userKey(userId));
+    }
+
+    @Override
+    public void touch(Long userId, Collection<Long> matchIds) {
+        redis.expire(userKey(userId), sessionTtl);
+        for (Long matchId : matchIds) {
+            redis.expire(watcherKey(matchId, userId), sessionTtl);
+        }
+    }
+
+    @Override
+    public boolean isOnline(Long userId) {
+        String count = redis.opsForValue().get(userKey(userId));
+        return count != null && Long.parseLong(count) > 0;
+    }
+
+    @Override
+    public long addWatcher(Long matchId, Long userId) {
+        return increment(watcherKey(matchId, userId));
+    }
+
+    @Override
+    public long removeWatcher(Long matchId, Long userId) {
+        return decrement(watcherKey(matchId, userId));
+    }
+
+    @Override
+    public void markGone(Long matchId, Long userId, long sinceMillis) {
+        redis.opsForValue().setIfAbsent(goneKey(matchId, userId), Long.toString(sinceMillis), goneTtl);
+    }
+
+    @Override
+    public Long clearGone(Long matchId, Long userId) {
+        String since = redis.opsForValue().getAndDelete(goneKey(matchId, userId));
+        return since == null ? null : Long.parseLong(since);
+    }
+
+    @Override
+    public Long goneSince(Long matchId, Long userId) {
+        String since = redis.opsForValue().get(goneKey(matchId, userId));
+        return since == null ? null : Long.parseLong(since);
+    }
+
+    private long increment(String key) {
+        Long count = redis.opsForValue().increment(key);
+        redis.expire(key, sessionTtl);
+        return count == null ? 0 : count;
+    }
+
+    private long decrement(String key) {
+        Long count = redis.opsForValue().decrement(key);
+        if (count == null || count <= 0) {
+            redis.delete(key);
+            return 0;
+        }
+        return count;
+    }
+
+    private static String userKey(Long userId) {
+        return PREFIX + "user:" + userId;
+    }
+
+    private static String watcherKey(Long matchId, Long userId) {
+        return PREFIX + "match:" + matchId + ":user:" + userId;
+    }
+
+    private static String goneKey(Long matchId, Long userId) {
+        return PREFIX + "match:" + matchId + ":user:" + userId + ":gone";
+    }
+}
@@ -0,0 +1,25 @@
+package com.indichess.match.websocket;
+
+import com.indichess.match.dto.GameUpdateMessage;
+import com.indichess.match.event.ClockExpiredEvent;
+import com.indichess.match.service.GameService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ends matches whose clock ran out and pushes the result to everyone watching.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClockExpiryListener {
+
+    private final GameService gameService;
+    private final GameEventPublisher gameEventPublisher;
+
+    @EventListener
+    public void onClockExpired(ClockExpiredEvent event) {
+        gameService.flagOnTime(event.matchId())
+                .ifPresent(response -> gameEventPublisher.publish(event.matchId(), GameUpdateMessage.timeout(response)));
+    }
+}
@@ -0,0 +1,105 @@
+package com.indichess.match.websocket;
+
+import com.indichess.match.dto.GameUpdateMessage;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Bounded per-match ring of the most recent sequenced game events, used to replay what a
+ * reconnecting client missed. Sequences of a new ring start at the current epoch millis, so a
+ * client holding a seq from an evicted ring (or from before a restart) always falls outside the
+ * ring and is told to resync.
+ */
+@Component
+public class GameEventBuffer {
+
+    private final int capacity;
+    private final Map<Long, Ring> rings;
+
+    public GameEventBuffer(@Value("${app.game-events.buffer-size:64}") int capacity,
+                           @Value("${app.game-events.max-matches:10000}") int maxMatches) {
+        this.capacity = capacity;
+        this.rings = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Ring> eldest) {
+                return size() > maxMatches;
+            }
+        });
+    }
+
+    /** Assigns the next seq to {@code event} and stores it. */
+    public GameUpdateMessage append(Long matchId, GameUpdateMessage event) {
+        return append(matchId, event, e -> { });
+    }
+
+    /**
+     * Assigns the next seq, stores the event and hands it to {@code send} under the match's lock,
+     * so concurrent publishers deliver events in seq order.
+     */
+    public GameUpdateMessage append(Long matchId, GameUpdateMessage event, Consumer<GameUpdateMessage> send) {
+        return rings.computeIfAbsent(matchId, id -> new Ring(capacity, System.currentTimeMillis())).append(event, send);
+    }
+
+    /**
+     * Events with seq greater than {@code lastSeq}, oldest first; empty if any of them has already
+     * been overwritten or the ring is unknown.
+     */
+    public Optional<List<GameUpdateMessage>> since(Long matchId, long lastSeq) {
+        Ring ring = rings.get(matchId);
+        return ring == null ? Optional.empty() : ring.since(lastSeq);
+    }
+
+    /** Latest assigned seq for the match, or null if nothing is buffered. */
+    public Long latestSeq(Long matchId) {
+        Ring ring = rings.get(matchId);
+        return ring == null ? null : ring.latestSeq();
+    }
+
+    public void evict(Long matchId) {
+        rings.remove(matchId);
+    }
+
+    private static final class Ring {
+        private final GameUpdateMessage[] events;
+        private final long firstSeq;
+        private long nextSeq;
+
+        Ring(int capacity, long firstSeq) {
+            this.events = new GameUpdateMessage[capacity];
+            this.firstSeq = firstSeq;
+            this.nextSeq = firstSeq;
+        }
+
+        synchronized GameUpdateMessage append(GameUpdateMessage event, Consumer<GameUpdateMessage> send) {
+            long seq = nextSeq++;
+            event.setSeq(seq);
+            events[(int) Math.floorMod(seq, (long) events.length)] = event;
+            send.accept(event);
+            return event;
+        }
+
+        synchronized Optional<List<GameUpdateMessage>> since(long lastSeq) {
+            long oldest = Math.max(firstSeq, nextSeq - events.length);
+            if (lastSeq < oldest - 1 || lastSeq >= nextSeq) {
+                return Optional.empty();
+            }
+            List<GameUpdateMessage> missed = new ArrayList<>((int) (nextSeq - lastSeq - 1));
+            for (long seq = lastSeq + 1; seq < nextSeq; seq++) {
+                missed.add(events[(int) Math.floorMod(seq, (long) events.length)]);
+            }
+            return Optional.of(missed);
+        }
+
+        synchronized Long latestSeq() {
+            return nextSeq == firstSeq ? null : nextSeq - 1;
+        }
+    }
+}
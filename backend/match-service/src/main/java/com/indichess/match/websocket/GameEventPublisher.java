@@ -0,0 +1,50 @@
+package com.indichess.match.websocket;
+
+import com.indichess.match.dto.GameResumeMessage;
+import com.indichess.match.dto.GameUpdateMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Single outlet for game events: sequences and buffers them, then broadcasts on the match topic.
+ */
+@Component
+@RequiredArgsConstructor
+public class GameEventPublisher {
+
+    private final GameEventBuffer eventBuffer;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    public void publish(Long matchId, GameUpdateMessage event) {
+        String destination = "/topic/game/" + matchId;
+        if (event.isSequenced()) {
+            eventBuffer.append(matchId, event, e -> messagingTemplate.convertAndSend(destination, e));
+        } else {
+            messagingTemplate.convertAndSend(destination, event);
+        }
+    }
+
+    /** Builds the reply to a client that last saw {@code lastSeq} (null when it has seen nothing). */
+    public GameResumeMessage resume(Long matchId, Long lastSeq) {
+        Long latestSeq = eventBuffer.latestSeq(matchId);
+        if (lastSeq == null) {
+            return GameResumeMessage.resync(latestSeq);
+        }
+        Optional<List<GameUpdateMessage>> missed = eventBuffer.since(matchId, lastSeq);
+        return missed.map(events -> GameResumeMessage.resume(events, latestSeq))
+                .orElseGet(() -> GameResumeMessage.resync(latestSeq));
+    }
+
+    public void sendPong(String principalName, Long matchId, long clientTs) {
+        messagingTemplate.convertAndSendToUser(principalName, "/queue/game/" + matchId + "/pong", Map.of("clientTs", clientTs));
+    }
+
+    public void sendResume(String principalName, Long matchId, GameResumeMessage reply) {
+        messagingTemplate.convertAndSendToUser(principalName, "/queue/game/" + matchId, reply);
+    }
+}
@@ -1,14 +1,17 @@
 package com.indichess.match.websocket;
 
+import com.indichess.match.dto.GameResumeMessage;
+import com.indichess.match.dto.GameUpdateMessage;
 import com.indichess.match.dto.MatchResponse;
 import com.indichess.match.service.GameService;
+import com.indichess.match.service.GameService.MoveOutcome;
+import com.indichess.match.service.LagCompensator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 
 @Controller
@@ -17,8 +20,13 @@ import org.springframework.stereotype.Controller;
 public class GameMessageController {
 
     private final GameService gameService;
-    private final SimpMessagingTemplate messagingTemplate;
+    private final GameEventPublisher gameEventPublisher;
+    private final LagCompensator lagCompensator;
 
+    /**
+     * A retransmitted move changes nothing, so it is not broadcast again; only the sender is
+     * told to resync, which brings it to the current position and seq.
+     */
     @MessageMapping("/game/{matchId}/move")
     public void move(
             @DestinationVariable Long matchId,
@@ -30,14 +38,19 @@ public class GameMessageController {
             msg = GameUpdateMessage.error("Unauthorized");
         } else {
             try {
-                MatchResponse match = gameService.makeMove(matchId, userId, payload.getMoveUci());
-                msg = GameUpdateMessage.moveMade(match, payload.getMoveUci());
+                MoveOutcome outcome = gameService.makeMove(matchId, userId, payload.getMoveUci(), payload.getExpectedPly());
+                if (outcome.duplicate()) {
+                    gameEventPublisher.sendResume(accessor.getUser().getName(), matchId,
+                            gameEventPublisher.resume(matchId, null));
+                    return;
+                }
+                msg = GameUpdateMessage.moveMade(outcome.match(), payload.getMoveUci());
             } catch (Exception e) {
                 log.warn("Move failed for match {}: {}", matchId, e.getMessage());
                 msg = GameUpdateMessage.error(e.getMessage());
             }
         }
-        messagingTemplate.convertAndSend("/topic/game/" + matchId, msg);
+        gameEventPublisher.publish(matchId, msg);
     }
 
     @MessageMapping("/game/{matchId}/resign")
@@ -57,7 +70,7 @@ public class GameMessageController {
                 msg = GameUpdateMessage.error(e.getMessage());
             }
         }
-        messagingTemplate.convertAndSend("/topic/game/" + matchId, msg);
+        gameEventPublisher.publish(matchId, msg);
     }
 
     @MessageMapping("/game/{matchId}/draw")
@@ -77,7 +90,7 @@ public class GameMessageController {
                 msg = GameUpdateMessage.error(e.getMessage());
             }
         }
-        messagingTemplate.convertAndSend("/topic/game/" + matchId, msg);
+        gameEventPublisher.publish(matchId, msg);
     }
 
     @MessageMapping("/game/{matchId}/draw/accept")
@@ -97,7 +110,7 @@ public class GameMessageController {
                 msg = GameUpdateMessage.error(e.getMessage());
             }
         }
-        messagingTemplate.convertAndSend("/topic/game/" + matchId, msg);
+        gameEventPublisher.publish(matchId, msg);
     }
 
     @MessageMapping("/game/{matchId}/draw/decline")
@@ -117,18 +130,46 @@ public class GameMessageController {
                 msg = GameUpdateMessage.error(e.getMessage());
             }
         }
-        messagingTemplate.convertAndSend("/topic/game/" + matchId, msg);
+        gameEventPublisher.publish(matchId, msg);
     }
 
-    private Long extractUserId(SimpMessageHeaderAccessor accessor) {
-        if (accessor == null || accessor.getUser() == null) return null;
-        String name = accessor.getUser().getName();
-        if (name == null || !name.contains(":")) return null;
-        try {
-            return Long.parseLong(name.split(":")[0]);
-        } catch (NumberFormatException e) {
-            return null;
+    /**
+     * Sent by a client after (re)subscribing to the match topic. The reply goes only to that
+     * client: the events it missed, or RESYNC if they are no longer buffered.
+     */
+    @MessageMapping("/game/{matchId}/resume")
+    public void resume(
+            @DestinationVariable Long matchId,
+            @Payload ResumeMessage payload,
+            SimpMessageHeaderAccessor accessor) {
+        if (extractUserId(accessor) == null) {
+            return;
         }
+        GameResumeMessage reply = gameEventPublisher.resume(matchId, payload.getLastSeq());
+        gameEventPublisher.sendResume(accessor.getUser().getName(), matchId, reply);
+    }
+
+    /**
+     * Clock ping, echoed back to the sender only. The client measures the round trip and
+     * reports it on its next ping; the reports feed lag compensation for its moves.
+     */
+    @MessageMapping("/game/{matchId}/ping")
+    public void ping(
+            @DestinationVariable Long matchId,
+            @Payload PingMessage payload,
+            SimpMessageHeaderAccessor accessor) {
+        Long userId = extractUserId(accessor);
+        if (userId == null || payload.getClientTs() == null) {
+            return;
+        }
+        if (payload.getRttMs() != null) {
+            lagCompensator.recordRtt(matchId, userId, payload.getRttMs());
+        }
+        gameEventPublisher.sendPong(accessor.getUser().getName(), matchId, payload.getClientTs());
+    }
+
+    private Long extractUserId(SimpMessageHeaderAccessor accessor) {
+        return accessor == null ? null : StompPrincipals.userId(accessor.getUser());
     }
 
     // DTOs for WebSocket messages
@@ -137,60 +178,21 @@ public class GameMessageController {
     @lombok.AllArgsConstructor
     public static class MoveMessage {
         private String moveUci;
+        private Integer expectedPly;
     }
 
     @lombok.Data
     @lombok.NoArgsConstructor
     @lombok.AllArgsConstructor
-    public static class GameUpdateMessage {
-        private String type;
-        private MatchResponse match;
-        private String moveUci;
-        private Long resignedPlayerId;
-        private String error;
-
-        public static GameUpdateMessage moveMade(MatchResponse match, String moveUci) {
-            GameUpdateMessage m = new GameUpdateMessage();
-            m.setType("MOVE_MADE");
-            m.setMatch(match);
-            m.setMoveUci(moveUci);
-            return m;
-        }
-
-        public static GameUpdateMessage resigned(MatchResponse match, Long resignedPlayerId) {
-            GameUpdateMessage m = new GameUpdateMessage();
-            m.setType("RESIGNED");
-            m.setMatch(match);
-            m.setResignedPlayerId(resignedPlayerId);
-            return m;
-        }
-
-        public static GameUpdateMessage draw(MatchResponse match) {
-            GameUpdateMessage m = new GameUpdateMessage();
-            m.setType("DRAW");
-            m.setMatch(match);
-            return m;
-        }
-
-        public static GameUpdateMessage drawOffered(MatchResponse match) {
-            GameUpdateMessage m = new GameUpdateMessage();
-            m.setType("DRAW_OFFERED");
-            m.setMatch(match);
-            return m;
-        }
-
-        public static GameUpdateMessage drawDeclined(MatchResponse match) {
-            GameUpdateMessage m = new GameUpdateMessage();
-            m.setType("DRAW_DECLINED");
-            m.setMatch(match);
-            return m;
-        }
+    public static class ResumeMessage {
+        private Long lastSeq;
+    }
 
-        public static GameUpdateMessage error(String error) {
-            GameUpdateMessage m = new GameUpdateMessage();
-            m.setType("ERROR");
-            m.setError(error);
-            return m;
-        }
+    @lombok.Data
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class PingMessage {
+        private Long clientTs;
+        private Long rttMs;
     }
 }
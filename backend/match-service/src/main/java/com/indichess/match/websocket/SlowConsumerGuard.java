@@ -0,0 +1,256 @@
+package com.indichess.match.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-session backpressure for outbound STOMP frames.
+ * <p>
+ * Frames are counted when they enter the client outbound channel and again when they are
+ * written to the session, so the difference is the session's queue depth (channel executor
+ * plus send buffer). Above the soft limit, frames for coalescable destinations (game state,
+ * which is sequenced and resumable) are held back, keeping only the latest per destination,
+ * and re-sent once the session drains. Sessions past the hard limit, or over the soft limit
+ * for longer than {@code hopeless-after-ms}, are closed. Byte and send-time limits are
+ * enforced separately by the transport settings in WebSocketConfig.
+ */
+@Component
+@Slf4j
+public class SlowConsumerGuard implements ChannelInterceptor, WebSocketHandlerDecoratorFactory {
+
+    private final MessageChannel clientOutboundChannel;
+    private final int softLimitFrames;
+    private final int hardLimitFrames;
+    private final long hopelessAfterMs;
+    private final List<String> coalescePrefixes;
+
+    private final Map<String, SessionOutbound> sessions = new ConcurrentHashMap<>();
+    private final DistributionSummary queueDepth;
+    private final Counter coalesced;
+    private final Counter closedSlow;
+
+    public SlowConsumerGuard(@Lazy @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.websocket.slow-consumer.soft-limit-frames:32}") int softLimitFrames,
+                             @Value("${app.websocket.slow-consumer.hard-limit-frames:512}") int hardLimitFrames,
+                             @Value("${app.websocket.slow-consumer.hopeless-after-ms:30000}") long hopelessAfterMs,
+                             @Value("${app.websocket.slow-consumer.coalesce-prefixes:/topic/game/}") List<String> coalescePrefixes) {
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.softLimitFrames = softLimitFrames;
+        this.hardLimitFrames = hardLimitFrames;
+        this.hopelessAfterMs = hopelessAfterMs;
+        this.coalescePrefixes = coalescePrefixes;
+        this.queueDepth = DistributionSummary.builder("websocket.outbound.queue.depth")
+                .description("Outbound frames pending for the target session when a frame is queued")
+                .register(meterRegistry);
+        this.coalesced = Counter.builder("websocket.outbound.coalesced")
+                .description("Outbound frames superseded by a newer frame while the session was slow")
+                .register(meterRegistry);
+        this.closedSlow = Counter.builder("websocket.outbound.closed.slow")
+                .description("Sessions closed because they stopped reading")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.sessions", sessions, Map::size)
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.sessions.slow", this, g -> g.countSlowSessions())
+                .description("Sessions currently over the soft queue limit")
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.queue.depth.max", this, g -> g.maxPending())
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        String sessionId = accessor.getSessionId();
+        SessionOutbound session = sessionId == null ? null : sessions.get(sessionId);
+        if (session == null) {
+            return message;
+        }
+        long pending = session.pending();
+        String destination = accessor.getDestination();
+        boolean coalescable = accessor.getMessageType() == SimpMessageType.MESSAGE && isCoalescable(destination);
+
+        if (pending >= hardLimitFrames || session.isHopeless(pending, System.currentTimeMillis())) {
+            close(session, pending);
+            return null;
+        }
+        if (coalescable) {
+            if (pending >= softLimitFrames) {
+                if (session.hold(destination, message)) {
+                    coalesced.increment();
+                }
+                return null;
+            }
+            if (session.dropHeld(destination)) {
+                coalesced.increment();
+            }
+        }
+        queueDepth.record(pending);
+        session.enqueued.incrementAndGet();
+        return message;
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionOutbound outbound = new SessionOutbound(session);
+                sessions.put(session.getId(), outbound);
+                super.afterConnectionEstablished(new CountingSession(session, outbound));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /** Sessions ordered by queue depth, deepest first. */
+    public List<SessionStats> snapshot(int limit) {
+        long now = System.currentTimeMillis();
+        return sessions.values().stream()
+                .map(s -> s.stats(now))
+                .sorted(Comparator.comparingLong(SessionStats::pendingFrames).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    private boolean isCoalescable(String destination) {
+        if (destination == null) return false;
+        for (String prefix : coalescePrefixes) {
+            if (destination.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    private void close(SessionOutbound session, long pending) {
+        if (sessions.remove(session.raw.getId()) == null) return;
+        log.warn("Closing slow WebSocket session {} ({} frames pending)", session.raw.getId(), pending);
+        closedSlow.increment();
+        try {
+            session.raw.close(CloseStatus.SESSION_NOT_RELIABLE);
+        } catch (IOException e) {
+            log.debug("Failed to close slow session {}: {}", session.raw.getId(), e.getMessage());
+        }
+    }
+
+    private void drained(SessionOutbound session) {
+        if (session.pending() > softLimitFrames / 2) return;
+        for (Message<?> held : session.takeHeld()) {
+            clientOutboundChannel.send(held);
+        }
+    }
+
+    private long countSlowSessions() {
+        return sessions.values().stream().filter(s -> s.pending() >= softLimitFrames).count();
+    }
+
+    private long maxPending() {
+        return sessions.values().stream().mapToLong(SessionOutbound::pending).max().orElse(0);
+    }
+
+    public record SessionStats(String sessionId, String user, long pendingFrames, long sentFrames,
+                               int heldFrames, long slowForMs) {
+    }
+
+    private final class SessionOutbound {
+        private final WebSocketSession raw;
+        private final AtomicLong enqueued = new AtomicLong();
+        private final AtomicLong flushed = new AtomicLong();
+        private final Map<String, Message<?>> held = new LinkedHashMap<>();
+        private volatile long slowSinceMillis;
+
+        SessionOutbound(WebSocketSession raw) {
+            this.raw = raw;
+        }
+
+        long pending() {
+            return Math.max(0, enqueued.get() - flushed.get());
+        }
+
+        boolean isHopeless(long pending, long now) {
+            if (pending < softLimitFrames) {
+                slowSinceMillis = 0;
+                return false;
+            }
+            if (slowSinceMillis == 0) {
+                slowSinceMillis = now;
+            }
+            return now - slowSinceMillis > hopelessAfterMs;
+        }
+
+        /** Keeps {@code message} as the latest frame for the destination; true if it replaced an older one. */
+        synchronized boolean hold(String destination, Message<?> message) {
+            return held.put(destination, message) != null;
+        }
+
+        synchronized boolean dropHeld(String destination) {
+            return !held.isEmpty() && held.remove(destination) != null;
+        }
+
+        synchronized List<Message<?>> takeHeld() {
+            if (held.isEmpty()) return List.of();
+            List<Message<?>> out = new ArrayList<>(held.values());
+            held.clear();
+            return out;
+        }
+
+        synchronized int heldCount() {
+            return held.size();
+        }
+
+        SessionStats stats(long now) {
+            String user = raw.getPrincipal() != null ? raw.getPrincipal().getName() : null;
+            long slowFor = slowSinceMillis == 0 ? 0 : now - slowSinceMillis;
+            return new SessionStats(raw.getId(), user, pending(), flushed.get(), heldCount(), slowFor);
+        }
+    }
+
+    /** Sits under Spring's send buffer and counts frames as they are actually written. */
+    private final class CountingSession extends WebSocketSessionDecorator {
+        private final SessionOutbound outbound;
+
+        CountingSession(WebSocketSession delegate, SessionOutbound outbound) {
+            super(delegate);
+            this.outbound = outbound;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            super.sendMessage(message);
+            outbound.flushed.incrementAndGet();
+            drained(outbound);
+        }
+    }
+}
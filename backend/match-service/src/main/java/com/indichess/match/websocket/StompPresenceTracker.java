@@ -0,0 +1,79 @@
+package com.indichess.match.websocket;
+
+import com.indichess.match.service.PresenceService;
+import com.indichess.match.service.QueueLeases;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Feeds {@link PresenceService} from STOMP session events and, as an inbound channel
+ * interceptor, from every client frame including heartbeats. Sessions that stop sending
+ * heartbeats are closed by the broker, which shows up here as a disconnect. The same frames
+ * keep a queued player's {@link QueueLeases lease} alive.
+ */
+@Component
+@RequiredArgsConstructor
+public class StompPresenceTracker implements ChannelInterceptor {
+
+    private static final Pattern GAME_TOPIC = Pattern.compile("^/topic/game/(\\d+)$");
+
+    private final PresenceService presenceService;
+    private final QueueLeases queueLeases;
+
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        Long userId = StompPrincipals.userId(event.getUser());
+        String sessionId = StompHeaderAccessor.wrap(event.getMessage()).getSessionId();
+        if (userId != null && sessionId != null) {
+            presenceService.sessionConnected(sessionId, userId);
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        if (destination == null) return;
+        Matcher m = GAME_TOPIC.matcher(destination);
+        if (m.matches()) {
+            presenceService.subscribed(accessor.getSessionId(), accessor.getSubscriptionId(), Long.parseLong(m.group(1)));
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        presenceService.unsubscribed(accessor.getSessionId(), accessor.getSubscriptionId());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        presenceService.sessionDisconnected(event.getSessionId());
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId != null) {
+            presenceService.heartbeat(sessionId);
+        }
+        Long userId = StompPrincipals.userId(SimpMessageHeaderAccessor.getUser(message.getHeaders()));
+        if (userId != null) {
+            queueLeases.touch(userId);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,24 @@
+package com.indichess.match.websocket;
+
+import java.security.Principal;
+
+/**
+ * STOMP principals are named {@code "userId:username"} by the CONNECT interceptor.
+ */
+public final class StompPrincipals {
+
+    private StompPrincipals() {
+    }
+
+    /** The user id of the principal, or null if absent or malformed. */
+    public static Long userId(Principal principal) {
+        if (principal == null) return null;
+        String name = principal.getName();
+        if (name == null || !name.contains(":")) return null;
+        try {
+            return Long.parseLong(name.split(":")[0]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
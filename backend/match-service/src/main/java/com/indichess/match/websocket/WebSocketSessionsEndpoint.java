@@ -0,0 +1,26 @@
+package com.indichess.match.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * {@code /actuator/wssessions}: outbound queue depth of the deepest WebSocket sessions on this node.
+ */
+@Component
+@Endpoint(id = "wssessions")
+@RequiredArgsConstructor
+public class WebSocketSessionsEndpoint {
+
+    private static final int MAX_SESSIONS = 100;
+
+    private final SlowConsumerGuard slowConsumerGuard;
+
+    @ReadOperation
+    public List<SlowConsumerGuard.SessionStats> sessions() {
+        return slowConsumerGuard.snapshot(MAX_SESSIONS);
+    }
+}
@@ -0,0 +1,24 @@
+-- Glicko-2: rating deviation and volatility per (user, game type); rating_exact keeps the
+-- unrounded rating so repeated updates do not drift. Existing players start with a deviation
+-- that shrinks with the games they have already played.
+ALTER TABLE ratings
+    ADD COLUMN rating_exact DOUBLE NULL,
+    ADD COLUMN rating_deviation DOUBLE NOT NULL DEFAULT 350,
+    ADD COLUMN volatility DOUBLE NOT NULL DEFAULT 0.06,
+    ADD COLUMN last_rated_at TIMESTAMP(3) NULL;
+UPDATE ratings
+SET rating_exact = rating,
+    rating_deviation = GREATEST(60, 350 - 10 * games_played),
+    last_rated_at = updated_at;
+
+-- Results waiting for the next rating period when app.rating.period.mode=batch
+CREATE TABLE IF NOT EXISTS rating_period_results (
+    result_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    match_id BIGINT NOT NULL,
+    game_type ENUM('CLASSICAL', 'RAPID', 'BLITZ', 'BULLET') NOT NULL,
+    player1_id BIGINT NOT NULL,
+    player2_id BIGINT NOT NULL,
+    player1_score DOUBLE NOT NULL,
+    finished_at TIMESTAMP(3) NOT NULL,
+    UNIQUE KEY uk_rating_period_match (match_id)
+);
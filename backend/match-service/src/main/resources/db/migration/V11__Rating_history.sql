@@ -0,0 +1,36 @@
+-- Append-only rating history: one row per rating change
+CREATE TABLE IF NOT EXISTS rating_history (
+    history_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    game_type ENUM('CLASSICAL', 'RAPID', 'BLITZ', 'BULLET') NOT NULL,
+    match_id BIGINT NULL,
+    rating INT NOT NULL,
+    recorded_at TIMESTAMP(3) NOT NULL,
+    INDEX idx_rating_history_user (user_id, game_type, recorded_at)
+);
+
+-- Daily and weekly downsampled series, maintained as history rows are written
+CREATE TABLE IF NOT EXISTS rating_history_rollups (
+    rollup_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    game_type ENUM('CLASSICAL', 'RAPID', 'BLITZ', 'BULLET') NOT NULL,
+    resolution ENUM('DAY', 'WEEK') NOT NULL,
+    bucket_start DATE NOT NULL,
+    open_rating INT NOT NULL,
+    close_rating INT NOT NULL,
+    min_rating INT NOT NULL,
+    max_rating INT NOT NULL,
+    changes INT NOT NULL,
+    UNIQUE KEY uk_rating_rollup (user_id, game_type, resolution, bucket_start)
+);
+
+-- Seed both with each player's current rating so existing charts start somewhere
+INSERT INTO rating_history (user_id, game_type, match_id, rating, recorded_at)
+SELECT user_id, game_type, NULL, rating, COALESCE(updated_at, CURRENT_TIMESTAMP(3)) FROM ratings;
+INSERT INTO rating_history_rollups (user_id, game_type, resolution, bucket_start, open_rating, close_rating,
+                                    min_rating, max_rating, changes)
+SELECT user_id, game_type, 'DAY', DATE(recorded_at), rating, rating, rating, rating, 0 FROM rating_history;
+INSERT INTO rating_history_rollups (user_id, game_type, resolution, bucket_start, open_rating, close_rating,
+                                    min_rating, max_rating, changes)
+SELECT user_id, game_type, 'WEEK', DATE(recorded_at) - INTERVAL WEEKDAY(recorded_at) DAY, rating, rating, rating, rating, 0
+FROM rating_history;
@@ -0,0 +1,2 @@
+-- Lets the rating recompute stream each game type's finished games in order without a filesort
+ALTER TABLE matches ADD INDEX idx_matches_type_finished (game_type, finished_at, id);
@@ -0,0 +1,5 @@
+-- Orders rating changes for the sync stream: epoch millis of the change, always greater than the
+-- row's previous stamp and assigned while the row is locked, so clock skew between nodes cannot
+-- make an older rating look newer
+ALTER TABLE ratings ADD COLUMN change_stamp BIGINT NOT NULL DEFAULT 0;
+UPDATE ratings SET change_stamp = COALESCE(FLOOR(UNIX_TIMESTAMP(updated_at) * 1000), 0);
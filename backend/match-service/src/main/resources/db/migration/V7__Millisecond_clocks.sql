@@ -0,0 +1,17 @@
+-- Clocks are kept in milliseconds; timestamps the clock is measured from need sub-second precision
+ALTER TABLE matches
+    ADD COLUMN player1_time_left_ms BIGINT NULL,
+    ADD COLUMN player2_time_left_ms BIGINT NULL,
+    MODIFY COLUMN started_at TIMESTAMP(3) NULL DEFAULT CURRENT_TIMESTAMP(3),
+    MODIFY COLUMN last_move_at TIMESTAMP(3) NULL;
+UPDATE matches
+SET player1_time_left_ms = player1_time_left_seconds * 1000,
+    player2_time_left_ms = player2_time_left_seconds * 1000;
+ALTER TABLE matches
+    DROP COLUMN player1_time_left_seconds,
+    DROP COLUMN player2_time_left_seconds;
+
+-- Time the mover used on each move (after lag compensation) and their clock after the increment
+ALTER TABLE moves
+    ADD COLUMN time_spent_ms BIGINT NULL,
+    ADD COLUMN clock_after_ms BIGINT NULL;
@@ -0,0 +1,7 @@
+-- One journal row per user: keep the newest row of any duplicates, then enforce it
+DELETE q FROM match_queue q
+JOIN match_queue newer ON newer.user_id = q.user_id AND newer.queue_id > q.queue_id;
+
+ALTER TABLE match_queue
+    DROP INDEX idx_user_id,
+    ADD UNIQUE KEY uk_match_queue_user (user_id);
@@ -0,0 +1,6 @@
+-- Queue entries hold a lease renewed by the player's heartbeats; lapsed rows are deleted in bulk
+ALTER TABLE match_queue
+    ADD COLUMN lease_expires_at TIMESTAMP(3) NULL,
+    ADD INDEX idx_match_queue_lease (lease_expires_at);
+UPDATE match_queue SET lease_expires_at = CURRENT_TIMESTAMP(3) + INTERVAL 30 SECOND;
+ALTER TABLE match_queue MODIFY COLUMN lease_expires_at TIMESTAMP(3) NOT NULL;
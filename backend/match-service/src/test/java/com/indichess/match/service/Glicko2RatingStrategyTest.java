@@ -0,0 +1,41 @@
+package com.indichess.match.service;
+
+import com.indichess.match.service.RatingStrategy.GameResult;
+import com.indichess.match.service.RatingStrategy.PlayerRating;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class Glicko2RatingStrategyTest {
+
+    private final Glicko2RatingStrategy strategy = new Glicko2RatingStrategy(0.5, 45, 350);
+
+    @Test
+    void rate_matchesGlickmansWorkedExample() {
+        PlayerRating player = new PlayerRating(1500, 200, 0.06);
+        List<GameResult> period = List.of(
+                new GameResult(new PlayerRating(1400, 30, 0.06), 1),
+                new GameResult(new PlayerRating(1550, 100, 0.06), 0),
+                new GameResult(new PlayerRating(1700, 300, 0.06), 0));
+
+        PlayerRating after = strategy.rate(player, period);
+
+        assertThat(after.rating()).isCloseTo(1464.06, within(0.05));
+        assertThat(after.deviation()).isCloseTo(151.52, within(0.05));
+        assertThat(after.volatility()).isCloseTo(0.05999, within(0.00001));
+    }
+
+    @Test
+    void newPlayer_movesFurtherThanEstablishedPlayer() {
+        PlayerRating opponent = new PlayerRating(1200, 60, 0.06);
+        PlayerRating fresh = strategy.rate(new PlayerRating(1200, 350, 0.06), List.of(new GameResult(opponent, 1)));
+        PlayerRating settled = strategy.rate(new PlayerRating(1200, 60, 0.06), List.of(new GameResult(opponent, 1)));
+
+        assertThat(fresh.rating() - 1200).isGreaterThan(4 * (settled.rating() - 1200));
+        assertThat(fresh.deviation()).isLessThan(350);
+        assertThat(strategy.idle(settled, 10).deviation()).isGreaterThan(settled.deviation());
+    }
+}
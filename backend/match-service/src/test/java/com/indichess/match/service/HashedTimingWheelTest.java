@@ -0,0 +1,64 @@
+package com.indichess.match.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HashedTimingWheelTest {
+
+    private final HashedTimingWheel<Long> wheel = new HashedTimingWheel<>(8, 100, 0);
+
+    @Test
+    void advance_firesOnlyOnceDeadlinePassed() {
+        wheel.schedule(1L, 250);
+
+        assertThat(wheel.advance(200)).isEmpty();
+        assertThat(wheel.advance(300)).containsExactly(1L);
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    void advance_waitsForDeadlinesBeyondOneRotation() {
+        wheel.schedule(1L, 2_050);
+
+        assertThat(wheel.advance(900)).isEmpty();
+        assertThat(wheel.advance(2_000)).isEmpty();
+        assertThat(wheel.advance(2_100)).containsExactly(1L);
+    }
+
+    @Test
+    void schedule_replacesPreviousDeadline() {
+        wheel.schedule(1L, 200);
+        wheel.schedule(1L, 600);
+
+        assertThat(wheel.advance(300)).isEmpty();
+        assertThat(wheel.advance(600)).containsExactly(1L);
+    }
+
+    @Test
+    void cancel_removesDeadline() {
+        wheel.schedule(1L, 200);
+        wheel.schedule(2L, 200);
+        wheel.cancel(1L);
+
+        assertThat(wheel.advance(200)).containsExactly(2L);
+    }
+
+    @Test
+    void advance_catchesUpAfterLongPause() {
+        wheel.schedule(1L, 300);
+        wheel.schedule(2L, 5_000);
+        wheel.schedule(3L, 50_000);
+
+        assertThat(wheel.advance(10_000)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(wheel.advance(50_000)).containsExactly(3L);
+    }
+
+    @Test
+    void schedule_pastDeadlineFiresOnNextTick() {
+        wheel.advance(1_000);
+        wheel.schedule(1L, 100);
+
+        assertThat(wheel.advance(1_100)).containsExactly(1L);
+    }
+}
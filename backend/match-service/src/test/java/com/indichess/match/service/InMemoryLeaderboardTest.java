@@ -0,0 +1,43 @@
+package com.indichess.match.service;
+
+import com.indichess.match.model.GameType;
+import com.indichess.match.service.Leaderboard.Rated;
+import com.indichess.match.service.Leaderboard.Standing;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryLeaderboardTest {
+
+    private final InMemoryLeaderboard leaderboard = new InMemoryLeaderboard();
+
+    @Test
+    void ranks_shareTiesAndFollowRatingChanges() {
+        leaderboard.replace(GameType.BLITZ, Map.of(1L, new Rated(1500, 1), 2L, new Rated(1400, 1),
+                3L, new Rated(1400, 1), 4L, new Rated(1300, 1), 5L, new Rated(1200, 1)));
+
+        assertThat(leaderboard.top(GameType.BLITZ, 3)).containsExactly(
+                new Standing(1, 1L, 1500), new Standing(2, 2L, 1400), new Standing(2, 3L, 1400));
+        assertThat(leaderboard.standing(GameType.BLITZ, 4L)).contains(new Standing(4, 4L, 1300));
+
+        leaderboard.update(GameType.BLITZ, 5L, 1450, 2);
+
+        assertThat(leaderboard.around(GameType.BLITZ, 5L, 1)).containsExactly(
+                new Standing(1, 1L, 1500), new Standing(2, 5L, 1450), new Standing(3, 2L, 1400));
+        assertThat(leaderboard.standing(GameType.BLITZ, 4L)).contains(new Standing(5, 4L, 1300));
+        assertThat(leaderboard.size(GameType.BLITZ)).isEqualTo(5);
+        assertThat(leaderboard.standing(GameType.RAPID, 1L)).isEmpty();
+    }
+
+    @Test
+    void update_ignoresChangesOlderThanTheStoredOne() {
+        leaderboard.update(GameType.BLITZ, 1L, 1520, 20);
+        leaderboard.update(GameType.BLITZ, 1L, 1500, 10);
+        leaderboard.update(GameType.BLITZ, 2L, 1400, 5);
+
+        assertThat(leaderboard.standing(GameType.BLITZ, 1L)).contains(new Standing(1, 1L, 1520));
+        assertThat(leaderboard.size(GameType.BLITZ)).isEqualTo(2);
+    }
+}
@@ -0,0 +1,79 @@
+package com.indichess.match.service;
+
+import com.indichess.match.model.GameType;
+import com.indichess.match.service.MatchmakingBackend.Entry;
+import com.indichess.match.service.MatchmakingBackend.Pair;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryMatchmakingBackendTest {
+
+    private final InMemoryMatchmakingBackend pool = new InMemoryMatchmakingBackend();
+
+    @Test
+    void pairNearest_picksClosestRatingWithinGap() {
+        pool.add(new Entry(1L, GameType.BLITZ, 1000, 1));
+        pool.add(new Entry(2L, GameType.BLITZ, 1450, 2));
+        pool.add(new Entry(3L, GameType.BLITZ, 1300, 3));
+        pool.add(new Entry(4L, GameType.RAPID, 1410, 4));
+        pool.add(new Entry(5L, GameType.BLITZ, 1400, 5));
+
+        Pair pair = pool.pairNearest(5L, 200, 0).orElseThrow();
+
+        assertThat(pair.first().userId()).isEqualTo(2L);
+        assertThat(pair.second().userId()).isEqualTo(5L);
+        assertThat(pool.find(2L)).isEmpty();
+        assertThat(pool.size(GameType.BLITZ)).isEqualTo(2);
+    }
+
+    @Test
+    void pairNearest_leavesPoolUntouchedWhenNobodyIsClose() {
+        pool.add(new Entry(1L, GameType.BLITZ, 1000, 1));
+        pool.add(new Entry(2L, GameType.BLITZ, 1500, 2));
+
+        assertThat(pool.pairNearest(2L, 200, 0)).isEmpty();
+        assertThat(pool.size(GameType.BLITZ)).isEqualTo(2);
+    }
+
+    @Test
+    void add_movesUserToNewGameType() {
+        pool.add(new Entry(1L, GameType.BLITZ, 1000, 1));
+        pool.add(new Entry(1L, GameType.RAPID, 1100, 2));
+
+        assertThat(pool.size(GameType.BLITZ)).isZero();
+        assertThat(pool.find(1L)).map(Entry::gameType).contains(GameType.RAPID);
+    }
+
+    @Test
+    void pairAll_servesLongestWaitingFirst() {
+        pool.add(new Entry(1L, GameType.BLITZ, 1200, 1));
+        pool.add(new Entry(2L, GameType.BLITZ, 1100, 2));
+        pool.add(new Entry(3L, GameType.BLITZ, 1290, 3));
+        pool.add(new Entry(4L, GameType.BLITZ, 2000, 4));
+
+        List<Pair> pairs = pool.pairAll(GameType.BLITZ, e -> 200, 0);
+
+        assertThat(pairs).hasSize(1);
+        assertThat(pairs.get(0).first().userId()).isEqualTo(1L);
+        assertThat(pairs.get(0).second().userId()).isEqualTo(3L);
+        assertThat(pool.entries(GameType.BLITZ)).extracting(Entry::userId).containsExactly(2L, 4L);
+    }
+
+    @Test
+    void lapsedLeases_areSkippedByPairingAndExpiredInBulk() {
+        pool.add(new Entry(1L, GameType.BLITZ, 1200, 1, 5_000));
+        pool.add(new Entry(2L, GameType.BLITZ, 1210, 2, 20_000));
+        pool.add(new Entry(3L, GameType.BLITZ, 1300, 3, 20_000));
+
+        Pair pair = pool.pairNearest(2L, 200, 10_000).orElseThrow();
+        assertThat(pair.second().userId()).isEqualTo(3L);
+
+        pool.add(new Entry(4L, GameType.BLITZ, 1250, 4, 5_000));
+        assertThat(pool.renew(4L, 30_000)).isTrue();
+        assertThat(pool.expire(10_000)).extracting(Entry::userId).containsExactly(1L);
+        assertThat(pool.find(4L)).map(Entry::leaseExpiresAtMillis).contains(30_000L);
+    }
+}
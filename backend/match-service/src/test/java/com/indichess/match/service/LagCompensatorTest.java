@@ -0,0 +1,52 @@
+package com.indichess.match.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LagCompensatorTest {
+
+    // max rtt 2000, max 300 per move, quota starts at 1000, +100 per move, capped at 2000
+    private final LagCompensator compensator = new LagCompensator(2000, 300, 1000, 100, 2000);
+
+    @Test
+    void compensate_creditsHalfTheRoundTrip() {
+        compensator.register(1L, 10L, 20L);
+        compensator.recordRtt(1L, 10L, 200);
+
+        assertThat(compensator.compensate(1L, 10L, 5_000)).isEqualTo(100);
+    }
+
+    @Test
+    void compensate_isCappedPerMoveAndByElapsed() {
+        compensator.register(1L, 10L, 20L);
+        compensator.recordRtt(1L, 10L, 5_000);
+
+        assertThat(compensator.compensate(1L, 10L, 5_000)).isEqualTo(300);
+        assertThat(compensator.compensate(1L, 10L, 50)).isEqualTo(50);
+    }
+
+    @Test
+    void compensate_stopsWhenQuotaIsSpent() {
+        compensator.register(1L, 10L, 20L);
+        compensator.recordRtt(1L, 10L, 2_000);
+
+        long total = 0;
+        for (int i = 0; i < 20; i++) {
+            total += compensator.compensate(1L, 10L, 5_000);
+        }
+
+        // Initial quota plus what 19 moves refilled
+        assertThat(total).isEqualTo(1000 + 19 * 100);
+    }
+
+    @Test
+    void recordRtt_ignoresUnregisteredPlayers() {
+        compensator.register(1L, 10L, 20L);
+        compensator.recordRtt(1L, 99L, 200);
+        compensator.recordRtt(2L, 10L, 200);
+
+        assertThat(compensator.estimate(1L, 99L)).isZero();
+        assertThat(compensator.estimate(2L, 10L)).isZero();
+    }
+}
@@ -0,0 +1,222 @@
+package com.indichess.match.service;
+
+import com.indichess.match.model.GameType;
+import com.indichess.match.model.Match;
+import com.indichess.match.repo.MatchQueueRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Fires thousands of overlapping joins (repeated clicks, queue switches) and matchmaking ticks
+ * at the service. The journal fake behaves like the unique-keyed table: row locks are held
+ * until the surrounding transaction completes and writes are undone on rollback.
+ */
+class MatchQueueServiceConcurrencyTest {
+
+    private static final int USERS = 2000;
+    private static final int JOINS_PER_USER = 3;
+    private static final GameType[] TYPES = {GameType.BLITZ, GameType.RAPID};
+
+    private final FakeJournal journal = new FakeJournal();
+    private final InMemoryMatchmakingBackend pool = new InMemoryMatchmakingBackend();
+    private final Map<Long, List<Long>> matchesByUser = new ConcurrentHashMap<>();
+    private final AtomicLong matchIds = new AtomicLong();
+    private MatchQueueService service;
+
+    @BeforeEach
+    void setUp() {
+        MatchQueueRepository repository = mock(MatchQueueRepository.class, withSettings().stubOnly());
+        when(repository.upsert(anyLong(), anyString(), anyInt(), any(), any())).thenAnswer(inv ->
+                journal.upsert(inv.getArgument(0), GameType.valueOf(inv.getArgument(1))));
+        when(repository.claim(anyLong(), any())).thenAnswer(inv ->
+                journal.claim(inv.getArgument(0), inv.getArgument(1)));
+
+        MatchService matchService = mock(MatchService.class, withSettings().stubOnly());
+        when(matchService.hasOngoingMatch(anyLong())).thenAnswer(inv ->
+                matchesByUser.containsKey(inv.<Long>getArgument(0)));
+        when(matchService.createMatch(anyLong(), anyLong(), any())).thenAnswer(inv -> {
+            Match match = new Match();
+            match.setId(matchIds.incrementAndGet());
+            match.setPlayer1Id(inv.getArgument(0));
+            match.setPlayer2Id(inv.getArgument(1));
+            match.setGameType(inv.getArgument(2));
+            for (Long player : List.of(match.getPlayer1Id(), match.getPlayer2Id())) {
+                matchesByUser.computeIfAbsent(player, k -> new CopyOnWriteArrayList<>()).add(match.getId());
+                FakeJournal.onRollback(() -> matchesByUser.computeIfPresent(player, (k, ids) -> {
+                    ids.remove(match.getId());
+                    return ids.isEmpty() ? null : ids;
+                }));
+            }
+            return match;
+        });
+
+        RatingService ratingService = mock(RatingService.class, withSettings().stubOnly());
+        when(ratingService.getRating(anyLong(), any())).thenAnswer(inv ->
+                1000 + (int) (inv.<Long>getArgument(0) % 400));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        service = new MatchQueueService(repository, matchService, ratingService,
+                mock(SimpMessagingTemplate.class, withSettings().stubOnly()), registry, pool,
+                new QueueLeases(pool, repository, registry, 600_000), event -> { }, new FakeTransactions());
+        ReflectionTestUtils.setField(service, "initialWindow", 100);
+        ReflectionTestUtils.setField(service, "windowGrowthPerSecond", 10.0);
+        ReflectionTestUtils.setField(service, "maxWindow", 600);
+        service.registerMetrics();
+    }
+
+    @Test
+    void parallelJoinsAndTicks_putEachUserInAtMostOneMatch() throws Exception {
+        List<Callable<Object>> tasks = new ArrayList<>();
+        for (long user = 1; user <= USERS; user++) {
+            long userId = user;
+            for (int j = 0; j < JOINS_PER_USER; j++) {
+                GameType type = TYPES[(int) ((user + j / 2) % TYPES.length)];
+                tasks.add(() -> inTransaction(() -> service.joinQueue(userId, type)));
+            }
+            if (user % 50 == 0) {
+                for (GameType type : TYPES) {
+                    tasks.add(() -> service.tryMatch(type));
+                }
+            }
+        }
+        Collections.shuffle(tasks, new Random(42));
+
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            for (Future<Object> future : executor.invokeAll(tasks)) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // A join by someone already matched is refused; a deadlock victim is rolled back
+                    assertThat(e.getCause()).isInstanceOfAny(IllegalStateException.class,
+                            CannotAcquireLockException.class);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(matchesByUser).isNotEmpty();
+        assertThat(matchesByUser.values()).allSatisfy(ids -> assertThat(ids).hasSize(1));
+        for (Long matched : matchesByUser.keySet()) {
+            assertThat(journal.rows).doesNotContainKey(matched);
+            assertThat(pool.find(matched)).isEmpty();
+        }
+    }
+
+    /** Runs {@code work} the way a transaction would end: commit on return, rollback on exception. */
+    private static <T> T inTransaction(Supplier<T> work) {
+        TransactionSynchronizationManager.initSynchronization();
+        int status = TransactionSynchronization.STATUS_ROLLED_BACK;
+        try {
+            T result = work.get();
+            status = TransactionSynchronization.STATUS_COMMITTED;
+            return result;
+        } finally {
+            List<TransactionSynchronization> synchronizations =
+                    new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+            TransactionSynchronizationManager.clearSynchronization();
+            Collections.reverse(synchronizations);
+            for (TransactionSynchronization synchronization : synchronizations) {
+                synchronization.afterCompletion(status);
+            }
+        }
+    }
+
+    /** Runs each pair of a matchmaking pass in its own {@link #inTransaction}, like a TransactionTemplate. */
+    private static final class FakeTransactions implements TransactionOperations {
+        @Override
+        public <T> T execute(TransactionCallback<T> action) throws TransactionException {
+            return inTransaction(() -> action.doInTransaction(null));
+        }
+    }
+
+    /** match_queue with its unique user_id: row locks until completion, undo on rollback, lock wait timeout. */
+    private static final class FakeJournal {
+        final Map<Long, GameType> rows = new ConcurrentHashMap<>();
+        private final Map<Long, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+        int upsert(Long userId, GameType gameType) {
+            lock(userId);
+            GameType previous = rows.put(userId, gameType);
+            onRollback(() -> {
+                if (previous == null) rows.remove(userId);
+                else rows.put(userId, previous);
+            });
+            return previous == null ? 1 : 2;
+        }
+
+        int claim(Long userId, GameType gameType) {
+            lock(userId);
+            if (!rows.remove(userId, gameType)) {
+                return 0;
+            }
+            onRollback(() -> rows.put(userId, gameType));
+            return 1;
+        }
+
+        private void lock(Long userId) {
+            ReentrantLock lock = locks.computeIfAbsent(userId, k -> new ReentrantLock());
+            try {
+                if (!lock.tryLock(2, TimeUnit.SECONDS)) {
+                    throw new CannotAcquireLockException("Lock wait timeout on user " + userId);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        }
+
+        private static void onRollback(Runnable undo) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        undo.run();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.indichess.match.service;
+
+import com.indichess.match.model.GameType;
+import com.indichess.match.model.Match;
+import com.indichess.match.repo.MatchRepository;
+import com.indichess.match.service.MatchSweeper.Action;
+import com.indichess.match.websocket.GameEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MatchSweeperTest {
+
+    private final ClockScheduler clockScheduler = mock(ClockScheduler.class);
+    private final PresenceService presenceService = mock(PresenceService.class);
+    private final MatchSweeper sweeper = new MatchSweeper(mock(MatchRepository.class), mock(MatchService.class),
+            mock(GameService.class), clockScheduler, presenceService, mock(GameEventPublisher.class),
+            new SimpleMeterRegistry(), 500, 20, 45, 600, 2000);
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    @BeforeEach
+    void clockNotExpired() {
+        when(clockScheduler.deadlineMillis(any())).thenReturn(System.currentTimeMillis() + 60_000);
+        when(presenceService.goneFor(anyLong(), anyLong())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void classify_abortsGameWithoutFirstMove() {
+        assertThat(sweeper.classify(match(0, now.minusSeconds(60)), now)).isEqualTo(Action.ABORT);
+        assertThat(sweeper.classify(match(0, now.minusSeconds(10)), now)).isEqualTo(Action.NONE);
+    }
+
+    @Test
+    void classify_flagsOnlyPastGrace() {
+        when(clockScheduler.deadlineMillis(any())).thenReturn(System.currentTimeMillis() - 5_000);
+        assertThat(sweeper.classify(match(12, now.minusMinutes(5)), now)).isEqualTo(Action.FLAG);
+
+        when(clockScheduler.deadlineMillis(any())).thenReturn(System.currentTimeMillis() - 500);
+        assertThat(sweeper.classify(match(12, now.minusMinutes(5)), now)).isEqualTo(Action.NONE);
+    }
+
+    @Test
+    void classify_abandonsOnlyWhenBothPlayersAreGone() {
+        when(presenceService.goneFor(10L, 1L)).thenReturn(Optional.of(Duration.ofMinutes(20)));
+        assertThat(sweeper.classify(match(12, now.minusMinutes(30)), now)).isEqualTo(Action.NONE);
+
+        when(presenceService.goneFor(10L, 2L)).thenReturn(Optional.of(Duration.ofMinutes(11)));
+        assertThat(sweeper.classify(match(12, now.minusMinutes(30)), now)).isEqualTo(Action.ABANDON);
+    }
+
+    private static Match match(int ply, LocalDateTime startedAt) {
+        Match match = new Match();
+        match.setId(10L);
+        match.setPlayer1Id(1L);
+        match.setPlayer2Id(2L);
+        match.setGameType(GameType.BLITZ);
+        match.setCurrentPly(ply);
+        match.setStartedAt(startedAt);
+        return match;
+    }
+}
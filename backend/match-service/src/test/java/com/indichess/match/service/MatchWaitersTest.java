@@ -0,0 +1,34 @@
+package com.indichess.match.service;
+
+import com.indichess.match.dto.MatchResponse;
+import com.indichess.match.event.MatchPairedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MatchWaitersTest {
+
+    private final MatchWaiters waiters = new MatchWaiters(new SimpleMeterRegistry());
+
+    @Test
+    void onPaired_completesWaitersOfBothPlayersOnly() {
+        DeferredResult<Object> first = new DeferredResult<>(30_000L);
+        DeferredResult<Object> second = new DeferredResult<>(30_000L);
+        DeferredResult<Object> bystander = new DeferredResult<>(30_000L);
+        waiters.register(1L, first);
+        waiters.register(2L, second);
+        waiters.register(3L, bystander);
+
+        MatchResponse match = new MatchResponse();
+        match.setId(10L);
+        match.setPlayer1Id(1L);
+        match.setPlayer2Id(2L);
+        waiters.onPaired(new MatchPairedEvent(match));
+
+        assertThat(first.getResult()).isSameAs(match);
+        assertThat(second.getResult()).isSameAs(match);
+        assertThat(bystander.hasResult()).isFalse();
+    }
+}
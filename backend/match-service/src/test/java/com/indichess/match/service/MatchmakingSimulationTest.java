@@ -0,0 +1,48 @@
+package com.indichess.match.service;
+
+import com.indichess.match.service.MatchmakingSimulator.Arrival;
+import com.indichess.match.service.MatchmakingSimulator.Report;
+import com.indichess.match.service.MatchmakingSimulator.Strategy;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares pairing settings on the same arrival stream. Excluded from the normal build; run
+ * with {@code mvn test -Psimulation}. Pass {@code -Dsimulation.arrivals=path.csv} to replay a
+ * recorded stream instead of the synthetic population.
+ */
+@Tag("simulation")
+class MatchmakingSimulationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(MatchmakingSimulationTest.class);
+
+    private static final List<Strategy> STRATEGIES = List.of(
+            new Strategy("current", 100, 10, 600, 1000),
+            new Strategy("narrow-slow", 50, 5, 400, 1000),
+            new Strategy("wide-fast", 200, 20, 800, 1000),
+            new Strategy("current-250ms-tick", 100, 10, 600, 250));
+
+    @Test
+    void compareStrategies() throws Exception {
+        String recorded = System.getProperty("simulation.arrivals");
+        List<Arrival> arrivals = recorded != null
+                ? MatchmakingSimulator.recorded(Path.of(recorded))
+                : MatchmakingSimulator.synthetic(42, 600_000, MatchmakingSimulator.rates(0.2, 1, 3, 1.5),
+                        1200, 300, 90);
+
+        for (Strategy strategy : STRATEGIES) {
+            Report report = MatchmakingSimulator.run(strategy, arrivals);
+            log.info("\n{}", report.format());
+
+            assertThat(report.pairs() * 2 + report.abandoned()).isLessThanOrEqualTo(report.arrivals());
+            assertThat(report.gapPercentiles()[2]).isLessThanOrEqualTo(strategy.maxWindow());
+        }
+    }
+}
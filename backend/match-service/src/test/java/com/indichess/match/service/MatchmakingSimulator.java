@@ -0,0 +1,240 @@
+package com.indichess.match.service;
+
+import com.indichess.match.model.GameType;
+import com.indichess.match.model.Match;
+import com.indichess.match.repo.MatchQueueRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionOperations;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Offline matchmaking simulator. Replays an arrival stream (synthetic or recorded) through the
+ * real {@link MatchQueueService} and {@link InMemoryMatchmakingBackend} on virtual time: joins
+ * at each arrival, {@code tryMatch} on every matchmaking tick, and a leave when a player's
+ * patience runs out. Persistence and messaging are stubbed, so only pairing cost is measured.
+ */
+class MatchmakingSimulator {
+
+    /** One player joining the queue; {@code patienceMillis} is how long they wait before leaving. */
+    record Arrival(long atMillis, long userId, GameType gameType, int rating, long patienceMillis) {
+    }
+
+    /** Pairing settings under test, i.e. the {@code app.matchmaking.*} values. */
+    record Strategy(String name, int initialWindow, double growthPerSecond, int maxWindow, long tickMillis) {
+    }
+
+    record Report(String strategy, int arrivals, int pairs, int abandoned, double simulatedSeconds,
+                  double pairsPerSecond, long[] waitPercentilesMillis, int[] gapPercentiles,
+                  int[] gapHistogram, double cpuMicrosPerPair) {
+
+        static final double[] PERCENTILES = {0.5, 0.9, 0.99};
+        static final int GAP_BUCKET = 50;
+
+        String format() {
+            return String.format("%-18s arrivals=%d pairs=%d abandoned=%d pairs/s=%.2f "
+                            + "wait p50/p90/p99=%.1f/%.1f/%.1fs gap p50/p90/p99=%d/%d/%d cpu/pair=%.1fus%n"
+                            + "%-18s gap histogram (per %d): %s",
+                    strategy, arrivals, pairs, abandoned, pairsPerSecond,
+                    waitPercentilesMillis[0] / 1000.0, waitPercentilesMillis[1] / 1000.0,
+                    waitPercentilesMillis[2] / 1000.0, gapPercentiles[0], gapPercentiles[1], gapPercentiles[2],
+                    cpuMicrosPerPair, "", GAP_BUCKET, Arrays.toString(gapHistogram));
+        }
+    }
+
+    /**
+     * Poisson arrivals per game type at {@code ratePerSecond}, ratings drawn from a normal
+     * distribution clamped to [100, 3000], and exponentially distributed patience.
+     */
+    static List<Arrival> synthetic(long seed, long durationMillis, Map<GameType, Double> ratePerSecond,
+                                   double ratingMean, double ratingStdDev, double meanPatienceSeconds) {
+        Random random = new Random(seed);
+        List<Arrival> arrivals = new ArrayList<>();
+        long userId = 1;
+        for (Map.Entry<GameType, Double> rate : ratePerSecond.entrySet()) {
+            double t = 0;
+            while (true) {
+                t += -Math.log(1 - random.nextDouble()) / rate.getValue() * 1000;
+                if (t >= durationMillis) break;
+                int rating = (int) Math.max(100, Math.min(3000, ratingMean + random.nextGaussian() * ratingStdDev));
+                long patience = (long) (-Math.log(1 - random.nextDouble()) * meanPatienceSeconds * 1000);
+                arrivals.add(new Arrival((long) t, userId++, rate.getKey(), rating, patience));
+            }
+        }
+        arrivals.sort(Comparator.comparingLong(Arrival::atMillis));
+        return arrivals;
+    }
+
+    /** Reads a recorded stream: one {@code offsetMillis,gameType,rating,patienceMillis} line per arrival. */
+    static List<Arrival> recorded(Path csv) throws IOException {
+        List<Arrival> arrivals = new ArrayList<>();
+        long userId = 1;
+        for (String line : Files.readAllLines(csv)) {
+            if (line.isBlank() || line.startsWith("#")) continue;
+            String[] f = line.split(",");
+            arrivals.add(new Arrival(Long.parseLong(f[0].trim()), userId++, GameType.valueOf(f[1].trim()),
+                    Integer.parseInt(f[2].trim()), f.length > 3 ? Long.parseLong(f[3].trim()) : Long.MAX_VALUE));
+        }
+        arrivals.sort(Comparator.comparingLong(Arrival::atMillis));
+        return arrivals;
+    }
+
+    static Report run(Strategy strategy, List<Arrival> arrivals) {
+        return new MatchmakingSimulator(strategy, arrivals).run();
+    }
+
+    private static final int ARRIVE = 0;
+    private static final int TICK = 1;
+    private static final int GIVE_UP = 2;
+
+    private record Event(long atMillis, int kind, Arrival arrival) {
+    }
+
+    private final Strategy strategy;
+    private final List<Arrival> arrivals;
+    private final Map<Long, Arrival> byUser = new HashMap<>();
+    private final Map<Long, GameType> journal = new HashMap<>();
+    private final List<Long> waits = new ArrayList<>();
+    private final List<Integer> gaps = new ArrayList<>();
+    private final MatchQueueService service;
+    private long now;
+    private long matchIds;
+
+    private MatchmakingSimulator(Strategy strategy, List<Arrival> arrivals) {
+        this.strategy = strategy;
+        this.arrivals = arrivals;
+        for (Arrival arrival : arrivals) {
+            byUser.put(arrival.userId(), arrival);
+        }
+
+        MatchQueueRepository repository = mock(MatchQueueRepository.class, withSettings().stubOnly());
+        when(repository.upsert(anyLong(), anyString(), anyInt(), any(), any())).thenAnswer(inv ->
+                journal.put(inv.getArgument(0), GameType.valueOf(inv.getArgument(1))) == null ? 1 : 2);
+        when(repository.claim(anyLong(), any())).thenAnswer(inv ->
+                journal.remove(inv.getArgument(0), inv.getArgument(1)) ? 1 : 0);
+
+        RatingService ratingService = mock(RatingService.class, withSettings().stubOnly());
+        when(ratingService.getRating(anyLong(), any())).thenAnswer(inv ->
+                byUser.get(inv.<Long>getArgument(0)).rating());
+
+        MatchService matchService = mock(MatchService.class, withSettings().stubOnly());
+        when(matchService.createMatch(anyLong(), anyLong(), any())).thenAnswer(inv -> {
+            Arrival a = byUser.get(inv.<Long>getArgument(0));
+            Arrival b = byUser.get(inv.<Long>getArgument(1));
+            waits.add(now - a.atMillis());
+            waits.add(now - b.atMillis());
+            gaps.add(Math.abs(a.rating() - b.rating()));
+            Match match = new Match();
+            match.setId(++matchIds);
+            return match;
+        });
+
+        // Simulated players leave explicitly when their patience runs out, so leases never lapse
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        InMemoryMatchmakingBackend pool = new InMemoryMatchmakingBackend();
+        service = new MatchQueueService(repository, matchService, ratingService,
+                mock(SimpMessagingTemplate.class, withSettings().stubOnly()), registry, pool,
+                new QueueLeases(pool, repository, registry, Long.MAX_VALUE / 4), event -> { },
+                TransactionOperations.withoutTransaction());
+        ReflectionTestUtils.setField(service, "initialWindow", strategy.initialWindow());
+        ReflectionTestUtils.setField(service, "windowGrowthPerSecond", strategy.growthPerSecond());
+        ReflectionTestUtils.setField(service, "maxWindow", strategy.maxWindow());
+        service.clock = () -> now;
+        service.registerMetrics();
+    }
+
+    private Report run() {
+        PriorityQueue<Event> events = new PriorityQueue<>(
+                Comparator.comparingLong(Event::atMillis).thenComparingInt(Event::kind));
+        long end = 0;
+        for (Arrival arrival : arrivals) {
+            events.add(new Event(arrival.atMillis(), ARRIVE, arrival));
+            end = Math.max(end, arrival.atMillis());
+        }
+        for (long t = strategy.tickMillis(); t <= end + strategy.tickMillis(); t += strategy.tickMillis()) {
+            events.add(new Event(t, TICK, null));
+        }
+
+        int abandoned = 0;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        while (!events.isEmpty()) {
+            Event event = events.poll();
+            now = event.atMillis();
+            switch (event.kind()) {
+                case ARRIVE -> {
+                    Arrival arrival = event.arrival();
+                    service.joinQueue(arrival.userId(), arrival.gameType());
+                    if (arrival.patienceMillis() != Long.MAX_VALUE) {
+                        events.add(new Event(now + arrival.patienceMillis(), GIVE_UP, arrival));
+                    }
+                }
+                case TICK -> {
+                    for (GameType type : GameType.values()) {
+                        service.tryMatch(type);
+                    }
+                }
+                default -> {
+                    if (journal.containsKey(event.arrival().userId())) {
+                        service.leaveQueue(event.arrival().userId());
+                        abandoned++;
+                    }
+                }
+            }
+        }
+        long cpuNanos = threads.getCurrentThreadCpuTime() - cpuStart;
+
+        int pairs = gaps.size();
+        double seconds = Math.max(1, end) / 1000.0;
+        long[] sortedWaits = waits.stream().mapToLong(Long::longValue).sorted().toArray();
+        int[] sortedGaps = gaps.stream().mapToInt(Integer::intValue).sorted().toArray();
+        long[] waitPercentiles = new long[Report.PERCENTILES.length];
+        int[] gapPercentiles = new int[Report.PERCENTILES.length];
+        for (int i = 0; i < Report.PERCENTILES.length; i++) {
+            waitPercentiles[i] = sortedWaits.length == 0 ? 0 : sortedWaits[index(sortedWaits.length, Report.PERCENTILES[i])];
+            gapPercentiles[i] = sortedGaps.length == 0 ? 0 : sortedGaps[index(sortedGaps.length, Report.PERCENTILES[i])];
+        }
+        int[] histogram = new int[strategy.maxWindow() / Report.GAP_BUCKET + 1];
+        for (int gap : sortedGaps) {
+            histogram[Math.min(histogram.length - 1, gap / Report.GAP_BUCKET)]++;
+        }
+        return new Report(strategy.name(), arrivals.size(), pairs, abandoned, seconds, pairs / seconds,
+                waitPercentiles, gapPercentiles, histogram, pairs == 0 ? 0 : cpuNanos / 1000.0 / pairs);
+    }
+
+    private static int index(int size, double percentile) {
+        return Math.min(size - 1, (int) Math.ceil(percentile * size) - 1);
+    }
+
+    static Map<GameType, Double> rates(double classical, double rapid, double blitz, double bullet) {
+        Map<GameType, Double> rates = new EnumMap<>(GameType.class);
+        rates.put(GameType.CLASSICAL, classical);
+        rates.put(GameType.RAPID, rapid);
+        rates.put(GameType.BLITZ, blitz);
+        rates.put(GameType.BULLET, bullet);
+        return rates;
+    }
+}
@@ -0,0 +1,39 @@
+package com.indichess.match.service;
+
+import com.indichess.match.dto.MatchResponse;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MoveDedupeWindowTest {
+
+    private final MoveDedupeWindow window = new MoveDedupeWindow();
+
+    @Test
+    void find_returnsRecordedResultForSameSubmission() {
+        MatchResponse response = new MatchResponse();
+        response.setCurrentPly(1);
+        window.record(10L, 1L, 1, "e2e4", response);
+
+        assertThat(window.find(10L, 1L, 1, "e2e4")).containsSame(response);
+    }
+
+    @Test
+    void find_ignoresDifferentPlayerOrMove() {
+        window.record(10L, 1L, 1, "e2e4", new MatchResponse());
+
+        assertThat(window.find(10L, 2L, 1, "e2e4")).isEmpty();
+        assertThat(window.find(10L, 1L, 1, "d2d4")).isEmpty();
+        assertThat(window.find(11L, 1L, 1, "e2e4")).isEmpty();
+    }
+
+    @Test
+    void find_forgetsPliesOlderThanWindow() {
+        for (int ply = 1; ply <= MoveDedupeWindow.PLIES_PER_MATCH + 1; ply++) {
+            window.record(10L, ply % 2 == 1 ? 1L : 2L, ply, "m" + ply, new MatchResponse());
+        }
+
+        assertThat(window.find(10L, 1L, 1, "m1")).isEmpty();
+        assertThat(window.find(10L, 2L, 2, "m2")).isPresent();
+    }
+}
@@ -0,0 +1,71 @@
+package com.indichess.match.service;
+
+import com.indichess.match.event.PlayerDisconnectedEvent;
+import com.indichess.match.event.PlayerReconnectedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isA;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class PresenceServiceTest {
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final PresenceService presenceService = new PresenceService(new InMemoryPresenceStore(86400), eventPublisher);
+
+    @Test
+    void disconnect_marksUserGoneFromWatchedMatch() {
+        presenceService.sessionConnected("s1", 1L);
+        presenceService.subscribed("s1", "sub-0", 10L);
+        assertThat(presenceService.isOnline(1L)).isTrue();
+
+        presenceService.sessionDisconnected("s1");
+        presenceService.sessionDisconnected("s1");
+
+        assertThat(presenceService.isOnline(1L)).isFalse();
+        assertThat(presenceService.goneFor(10L, 1L)).isPresent();
+        verify(eventPublisher).publishEvent(isA(PlayerDisconnectedEvent.class));
+    }
+
+    @Test
+    void secondSessionKeepsUserPresentUntilBothLeave() {
+        presenceService.sessionConnected("s1", 1L);
+        presenceService.sessionConnected("s2", 1L);
+        presenceService.subscribed("s1", "sub-0", 10L);
+        presenceService.subscribed("s2", "sub-0", 10L);
+
+        presenceService.sessionDisconnected("s1");
+
+        assertThat(presenceService.isOnline(1L)).isTrue();
+        assertThat(presenceService.goneFor(10L, 1L)).isEmpty();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void resubscribe_clearsGoneAndPublishesReconnect() {
+        presenceService.sessionConnected("s1", 1L);
+        presenceService.subscribed("s1", "sub-0", 10L);
+        presenceService.sessionDisconnected("s1");
+
+        presenceService.sessionConnected("s2", 1L);
+        presenceService.subscribed("s2", "sub-0", 10L);
+
+        assertThat(presenceService.goneFor(10L, 1L)).isEmpty();
+        verify(eventPublisher).publishEvent(isA(PlayerReconnectedEvent.class));
+    }
+
+    @Test
+    void matchFinished_dropsGoneMarks() {
+        presenceService.sessionConnected("s1", 1L);
+        presenceService.subscribed("s1", "sub-0", 10L);
+        presenceService.sessionDisconnected("s1");
+
+        presenceService.matchFinished(10L, 1L, 2L);
+
+        assertThat(presenceService.goneFor(10L, 1L)).isEmpty();
+    }
+}
@@ -0,0 +1,57 @@
+package com.indichess.match.service;
+
+import com.indichess.match.dto.RatingHistoryResponse;
+import com.indichess.match.model.GameType;
+import com.indichess.match.model.HistoryResolution;
+import com.indichess.match.model.RatingRollup;
+import com.indichess.match.repo.RatingHistoryRepository;
+import com.indichess.match.repo.RatingRollupRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RatingHistoryServiceTest {
+
+    @Mock
+    private RatingHistoryRepository historyRepository;
+
+    @Mock
+    private RatingRollupRepository rollupRepository;
+
+    @InjectMocks
+    private RatingHistoryService ratingHistoryService;
+
+    @Test
+    void multiYearRange_isServedFromWeeklyRollupsOldestFirst() {
+        LocalDate to = LocalDate.of(2026, 3, 4);
+        LocalDate from = to.minusYears(3);
+        when(rollupRepository.findByUserIdAndGameTypeAndResolutionAndBucketStartBetweenOrderByBucketStartDesc(
+                eq(1L), eq(GameType.BLITZ), eq(HistoryResolution.WEEK), eq(LocalDate.of(2023, 2, 27)), eq(to), any()))
+                .thenReturn(List.of(
+                        rollup(LocalDate.of(2026, 3, 2), 1310, 1290, 1330),
+                        rollup(LocalDate.of(2026, 2, 23), 1280, 1250, 1285)));
+
+        RatingHistoryResponse response = ratingHistoryService.history(1L, GameType.BLITZ, from, to, null);
+
+        assertThat(response.getResolution()).isEqualTo(HistoryResolution.WEEK);
+        assertThat(response.getPoints()).extracting(p -> p.getRating()).containsExactly(1280, 1310);
+        assertThat(response.getPoints().get(1).getMinRating()).isEqualTo(1290);
+        verifyNoInteractions(historyRepository);
+    }
+
+    private static RatingRollup rollup(LocalDate start, int close, int min, int max) {
+        return new RatingRollup(null, 1L, GameType.BLITZ, HistoryResolution.WEEK, start, min, close, min, max, 3);
+    }
+}
@@ -0,0 +1,70 @@
+package com.indichess.match.service;
+
+import com.indichess.match.service.RatingStrategy.GameResult;
+import com.indichess.match.service.RatingStrategy.PlayerRating;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RatingReplayTest {
+
+    private static final long DAY = 86_400_000L;
+    private static final PlayerRating INITIAL = new PlayerRating(1200, 350, 0.06);
+
+    private final Glicko2RatingStrategy strategy = new Glicko2RatingStrategy(0.5, 45, 350);
+
+    @Test
+    void gameMode_matchesRatingEachGameInTurn() {
+        RatingReplay replay = new RatingReplay(strategy, DAY, false, INITIAL);
+        replay.game(1, 2, 1.0, 1000);
+        replay.game(2, 1, 0.5, 2000);
+
+        PlayerRating a = strategy.rate(INITIAL, List.of(new GameResult(INITIAL, 1.0)));
+        PlayerRating b = strategy.rate(INITIAL, List.of(new GameResult(INITIAL, 0.0)));
+        PlayerRating a2 = strategy.rate(a, List.of(new GameResult(b, 0.5)));
+
+        assertThat(replay.players()).isEqualTo(2);
+        assertThat(replay.userId(0)).isEqualTo(1);
+        assertThat(replay.rating(0)).isCloseTo(a2.rating(), within(1e-9));
+        assertThat(replay.deviation(0)).isCloseTo(a2.deviation(), within(1e-9));
+        assertThat(replay.wins(0)).isEqualTo(1);
+        assertThat(replay.draws(1)).isEqualTo(1);
+        assertThat(replay.lastRatedAt(1)).isEqualTo(2000);
+    }
+
+    @Test
+    void batchMode_ratesAPeriodAgainstPrePeriodOpponents_acrossManyPlayers() {
+        RatingReplay replay = new RatingReplay(strategy, DAY, true, INITIAL);
+        for (long user = 1; user <= 10_000; user += 2) {
+            replay.game(user, user + 1, 1.0, user);
+            replay.game(user + 1, user, 1.0, user);
+        }
+        replay.game(1, 3, 1.0, DAY + 1);
+        replay.finish();
+
+        PlayerRating even = strategy.rate(INITIAL, List.of(new GameResult(INITIAL, 1.0), new GameResult(INITIAL, 0.0)));
+        assertThat(replay.players()).isEqualTo(10_000);
+        assertThat(replay.games()).isEqualTo(10_001);
+        assertThat(replay.rating(9_999)).isCloseTo(even.rating(), within(1e-9));
+        assertThat(replay.deviation(9_999)).isCloseTo(even.deviation(), within(1e-9));
+        assertThat(replay.rating(0)).isGreaterThan(replay.rating(2));
+        assertThat(replay.lastRatedAt(0)).isEqualTo(2 * DAY);
+    }
+
+    @Test
+    void batchMode_leavesTheLastPeriodOpenUntilFinished() {
+        RatingReplay replay = new RatingReplay(strategy, DAY, true, INITIAL);
+        replay.game(1, 2, 1.0, 1000);
+        replay.game(1, 2, 0.0, DAY + 1000);
+
+        assertThat(replay.openPeriodStart()).isEqualTo(DAY);
+        assertThat(replay.lastRatedAt(0)).isEqualTo(DAY);
+        assertThat(replay.wins(0) + replay.losses(0)).isEqualTo(2);
+
+        replay.finish();
+        assertThat(replay.openPeriodStart()).isEqualTo(Long.MIN_VALUE);
+    }
+}
@@ -1,19 +1,28 @@
 package com.indichess.match.service;
 
+import com.indichess.match.event.RatingChangedEvent;
 import com.indichess.match.model.GameType;
 import com.indichess.match.model.Rating;
+import com.indichess.match.model.RatingPeriodResult;
+import com.indichess.match.repo.RatingPeriodResultRepository;
 import com.indichess.match.repo.RatingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,11 +31,17 @@ class RatingServiceTest {
     @Mock
     private RatingRepository ratingRepository;
 
-    @InjectMocks
+    @Mock
+    private RatingPeriodResultRepository periodResultRepository;
+
+    private final RatingCache ratingCache = new RatingCache(new SimpleMeterRegistry(), 1000, 600);
+
     private RatingService ratingService;
 
     @BeforeEach
     void setUp() {
+        ratingService = new RatingService(ratingRepository, periodResultRepository,
+                new Glicko2RatingStrategy(0.5, 45, 350), event -> { }, ratingCache);
     }
 
     @Test
@@ -55,6 +70,44 @@ class RatingServiceTest {
         assertThat(result).isEqualTo(1200);
     }
 
+    @Test
+    void getRating_isServedFromCacheAfterFirstRead() {
+        Rating rating = new Rating();
+        rating.setRating(1650);
+        when(ratingRepository.findByUserIdAndGameType(7L, GameType.BULLET)).thenReturn(Optional.of(rating));
+
+        assertThat(ratingService.getRating(7L, GameType.BULLET)).isEqualTo(1650);
+        assertThat(ratingService.getRating(7L, GameType.BULLET)).isEqualTo(1650);
+
+        verify(ratingRepository, times(1)).findByUserIdAndGameType(7L, GameType.BULLET);
+    }
+
+    @Test
+    void getRating_keepsCachedRatingWhenAnOlderChangeArrivesLate() {
+        Rating rating = new Rating();
+        rating.setRating(1650);
+        rating.setChangeStamp(100L);
+        when(ratingRepository.findByUserIdAndGameType(7L, GameType.BULLET)).thenReturn(Optional.of(rating));
+        ratingService.getRating(7L, GameType.BULLET);
+
+        ratingCache.onRatingChanged(new RatingChangedEvent(7L, GameType.BULLET, 3L, 1600, 1620, 90L));
+        assertThat(ratingService.getRating(7L, GameType.BULLET)).isEqualTo(1650);
+
+        ratingCache.onRatingChanged(new RatingChangedEvent(7L, GameType.BULLET, 4L, 1650, 1670, 110L));
+        assertThat(ratingService.getRating(7L, GameType.BULLET)).isEqualTo(1670);
+    }
+
+    @Test
+    void closeRatingPeriod_backsOffWhenAnotherNodeClaimedThePeriod() {
+        when(periodResultRepository.findByFinishedAtBeforeOrderByResultId(any())).thenReturn(List.of(
+                new RatingPeriodResult(1L, 10L, GameType.BLITZ, 1L, 2L, 1.0, LocalDateTime.now())));
+        when(periodResultRepository.claim(anyCollection())).thenReturn(0);
+
+        assertThat(ratingService.closeRatingPeriod(System.currentTimeMillis())).isZero();
+
+        verifyNoInteractions(ratingRepository);
+    }
+
     @Test
     void getRatingsForUser_returnsListFromRepository() {
         Long userId = 1L;
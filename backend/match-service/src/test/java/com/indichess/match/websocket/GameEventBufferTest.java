@@ -0,0 +1,64 @@
+package com.indichess.match.websocket;
+
+import com.indichess.match.dto.GameUpdateMessage;
+import com.indichess.match.dto.MatchResponse;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GameEventBufferTest {
+
+    private final GameEventBuffer buffer = new GameEventBuffer(4, 100);
+
+    @Test
+    void since_returnsOnlyMissedEventsInOrder() {
+        long first = buffer.append(1L, GameUpdateMessage.moveMade(new MatchResponse(), "e2e4")).getSeq();
+        buffer.append(1L, GameUpdateMessage.moveMade(new MatchResponse(), "e7e5"));
+        buffer.append(1L, GameUpdateMessage.drawOffered(new MatchResponse()));
+
+        List<GameUpdateMessage> missed = buffer.since(1L, first).orElseThrow();
+
+        assertThat(missed).extracting(GameUpdateMessage::getSeq).containsExactly(first + 1, first + 2);
+        assertThat(buffer.since(1L, first + 2)).hasValue(List.of());
+        assertThat(buffer.latestSeq(1L)).isEqualTo(first + 2);
+    }
+
+    @Test
+    void since_isEmptyOnceGapIsOverwritten() {
+        long first = buffer.append(1L, GameUpdateMessage.moveMade(new MatchResponse(), "e2e4")).getSeq();
+        for (int i = 0; i < 4; i++) {
+            buffer.append(1L, GameUpdateMessage.moveMade(new MatchResponse(), "m" + i));
+        }
+
+        assertThat(buffer.since(1L, first - 1)).isEmpty();
+        assertThat(buffer.since(1L, first)).hasValueSatisfying(events -> assertThat(events).hasSize(4));
+    }
+
+    @Test
+    void append_sendsConcurrentEventsInSeqOrder() throws Exception {
+        List<Long> sent = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 2000; i++) {
+            executor.execute(() -> buffer.append(1L, GameUpdateMessage.moveMade(new MatchResponse(), "m"),
+                    e -> sent.add(e.getSeq())));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(sent).hasSize(2000).isSorted();
+    }
+
+    @Test
+    void since_isEmptyForUnknownMatchOrFutureSeq() {
+        long seq = buffer.append(1L, GameUpdateMessage.draw(new MatchResponse())).getSeq();
+
+        assertThat(buffer.since(2L, seq)).isEmpty();
+        assertThat(buffer.since(1L, seq + 1)).isEmpty();
+    }
+}
@@ -5,6 +5,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -16,5 +17,7 @@ public class UserResponse {
     private String pfpUrl;
     private String country;
     private Integer rating;
+    /** Current rating per game type, kept in sync from match-service. */
+    private Map<String, Integer> ratings;
     private LocalDateTime createdAt;
 }
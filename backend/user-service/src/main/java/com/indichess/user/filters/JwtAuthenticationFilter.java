@@ -1,12 +1,17 @@
 package com.indichess.user.filters;
 
+import com.indichess.user.model.UserPrincipal;
 import com.indichess.user.service.JwtService;
 import com.indichess.user.service.MyUserDetailsService;
+import com.indichess.user.service.RoleCache;
+import com.indichess.user.service.SessionService;
+import com.indichess.user.service.SessionStore.SessionOwner;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,32 +21,64 @@ import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 
+/**
+ * Authenticates Bearer requests. In stateless mode (the default) the principal is built from
+ * the token's claims, parsed once, with roles from {@link RoleCache}. With
+ * {@code app.auth.trust-gateway-headers} the gateway's {@code X-User-Id}/{@code X-Username}
+ * are used instead, but only when they name the user the token's session was opened for;
+ * otherwise the token is parsed as usual. Either way the token must still have an open session.
+ */
 @Component
-@RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
-    
+
+    private static final String USER_ID_HEADER = "X-User-Id";
+    private static final String USERNAME_HEADER = "X-Username";
+
     private final JwtService jwtService;
     private final MyUserDetailsService userDetailsService;
-    
+    private final SessionService sessionService;
+    private final RoleCache roleCache;
+    private final boolean stateless;
+    private final boolean trustGatewayHeaders;
+
+    public JwtAuthenticationFilter(JwtService jwtService,
+                                   MyUserDetailsService userDetailsService,
+                                   SessionService sessionService,
+                                   RoleCache roleCache,
+                                   @Value("${app.auth.stateless:true}") boolean stateless,
+                                   @Value("${app.auth.trust-gateway-headers:false}") boolean trustGatewayHeaders) {
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+        this.sessionService = sessionService;
+        this.roleCache = roleCache;
+        this.stateless = stateless;
+        this.trustGatewayHeaders = trustGatewayHeaders;
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        
+
         final String authHeader = request.getHeader("Authorization");
-        
+
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
-        
+
         try {
             final String jwt = authHeader.substring(7);
-            final String username = jwtService.extractUsername(jwt);
-            
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
-                if (jwtService.validateToken(jwt, username)) {
+
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                UserDetails userDetails = stateless && trustGatewayHeaders ? fromGatewayHeaders(request, jwt) : null;
+                if (userDetails == null) {
+                    userDetails = stateless ? fromClaims(jwt) : fromDatabase(jwt);
+                    if (userDetails != null && !sessionService.isActive(jwt)) {
+                        userDetails = null;
+                    }
+                }
+
+                if (userDetails != null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
@@ -54,7 +91,43 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         } catch (Exception e) {
             logger.error("Cannot set user authentication: {}", e);
         }
-        
+
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * The principal named by the gateway headers, if the token has an open session for that
+     * same user; null otherwise, so headers sent around the gateway cannot name another user.
+     */
+    private UserDetails fromGatewayHeaders(HttpServletRequest request, String jwt) {
+        String userId = request.getHeader(USER_ID_HEADER);
+        String username = request.getHeader(USERNAME_HEADER);
+        if (userId == null || username == null) {
+            return null;
+        }
+        SessionOwner claimed = new SessionOwner(Long.valueOf(userId), username);
+        return sessionService.sessionOwner(jwt).filter(claimed::equals).isPresent()
+                ? principal(claimed.userId(), claimed.username())
+                : null;
+    }
+
+    private UserDetails fromClaims(String jwt) {
+        Claims claims = jwtService.verify(jwt);
+        Long userId = claims.get("userId", Long.class);
+        String username = claims.getSubject();
+        return userId == null || username == null ? null : principal(userId, username);
+    }
+
+    private UserPrincipal principal(Long userId, String username) {
+        return new UserPrincipal(userId, username, roleCache.authoritiesFor(userId));
+    }
+
+    private UserDetails fromDatabase(String jwt) {
+        final String username = jwtService.extractUsername(jwt);
+        if (username == null) {
+            return null;
+        }
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        return jwtService.validateToken(jwt, username) ? userDetails : null;
+    }
 }
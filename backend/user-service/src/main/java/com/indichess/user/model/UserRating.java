@@ -0,0 +1,34 @@
+package com.indichess.user.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** A user's rating in one game type, as last reported by match-service. */
+@Entity
+@Table(name = "user_ratings", uniqueConstraints = @UniqueConstraint(name = "uk_user_ratings_user_type",
+        columnNames = {"user_id", "game_type"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRating {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "user_rating_id")
+    private Long userRatingId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "game_type", nullable = false, length = 20)
+    private String gameType;
+
+    @Column(name = "rating", nullable = false)
+    private Integer rating;
+
+    /** When match-service made the change, in epoch millis. */
+    @Column(name = "changed_at", nullable = false)
+    private Long changedAt;
+}
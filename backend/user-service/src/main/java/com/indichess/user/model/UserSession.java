@@ -22,7 +22,7 @@ public class UserSession {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
-    @Column(name = "token_hash", nullable = false)
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
     private String tokenHash;
     
     @Column(name = "expires_at", nullable = false)
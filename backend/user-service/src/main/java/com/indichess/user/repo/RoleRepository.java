@@ -2,11 +2,16 @@ package com.indichess.user.repo;
 
 import com.indichess.user.model.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
     Optional<Role> findByName(String name);
+
+    @Query("SELECT r.name FROM User u JOIN u.roles r WHERE u.userId = ?1")
+    List<String> findNamesByUserId(Long userId);
 }
@@ -0,0 +1,27 @@
+package com.indichess.user.repo;
+
+import com.indichess.user.model.UserRating;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserRatingRepository extends JpaRepository<UserRating, Long> {
+    List<UserRating> findAllByUserIdOrderByGameType(Long userId);
+
+    /**
+     * Stores the rating unless a newer change is already stored, so redelivered or reordered
+     * stream entries are harmless.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_ratings (user_id, game_type, rating, changed_at) "
+            + "VALUES (:userId, :gameType, :rating, :changedAt) "
+            + "ON DUPLICATE KEY UPDATE rating = IF(VALUES(changed_at) >= changed_at, VALUES(rating), rating), "
+            + "changed_at = GREATEST(changed_at, VALUES(changed_at))", nativeQuery = true)
+    int upsertIfNewer(@Param("userId") Long userId, @Param("gameType") String gameType,
+                      @Param("rating") int rating, @Param("changedAt") long changedAt);
+}
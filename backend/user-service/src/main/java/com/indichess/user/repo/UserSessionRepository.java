@@ -12,10 +12,19 @@ import java.util.Optional;
 @Repository
 public interface UserSessionRepository extends JpaRepository<UserSession, String> {
     Optional<UserSession> findByTokenHash(String tokenHash);
+
+    boolean existsByTokenHash(String tokenHash);
+
+    @Query("SELECT s FROM UserSession s JOIN FETCH s.user WHERE s.tokenHash = ?1 AND s.expiresAt > ?2")
+    Optional<UserSession> findLiveWithUser(String tokenHash, LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM UserSession s WHERE s.tokenHash = ?1")
+    int deleteByTokenHash(String tokenHash);
     
     @Modifying
     @Query("DELETE FROM UserSession s WHERE s.expiresAt < ?1")
-    void deleteExpiredSessions(LocalDateTime now);
+    int deleteExpiredSessions(LocalDateTime now);
     
     @Modifying
     @Query("DELETE FROM UserSession s WHERE s.user.userId = ?1")
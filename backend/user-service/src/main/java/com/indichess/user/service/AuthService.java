@@ -4,16 +4,11 @@ import com.indichess.user.dto.AuthResponse;
 import com.indichess.user.dto.LoginRequest;
 import com.indichess.user.dto.RegisterRequest;
 import com.indichess.user.model.User;
-import com.indichess.user.model.UserSession;
-import com.indichess.user.repo.UserSessionRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.util.UUID;
-
 @Service
 @RequiredArgsConstructor
 public class AuthService {
@@ -21,7 +16,7 @@ public class AuthService {
     private final UserService userService;
     private final JwtService jwtService;
     private final PasswordEncoder passwordEncoder;
-    private final UserSessionRepository sessionRepository;
+    private final SessionService sessionService;
     
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -74,11 +69,8 @@ public class AuthService {
         return response;
     }
     
-    @Transactional
     public void logout(String token) {
-        String tokenHash = jwtService.hashToken(token);
-        sessionRepository.findByTokenHash(tokenHash)
-                .ifPresent(sessionRepository::delete);
+        sessionService.close(token);
     }
 
     private static final long REFRESH_GRACE_SECONDS = 300; // 5 minutes
@@ -103,8 +95,7 @@ public class AuthService {
     }
     
     public boolean isTokenBlacklisted(String token) {
-        String tokenHash = jwtService.hashToken(token);
-        return sessionRepository.findByTokenHash(tokenHash).isEmpty(); // If not found, token is blacklisted
+        return !sessionService.isActive(token);
     }
 
     @Transactional
@@ -119,18 +110,6 @@ public class AuthService {
     }
     
     private void saveSession(User user, String token) {
-        String sessionId = UUID.randomUUID().toString();
-        String tokenHash = jwtService.hashToken(token);
-        LocalDateTime expiresAt = jwtService.extractExpiration(token).toInstant()
-                .atZone(java.time.ZoneId.systemDefault())
-                .toLocalDateTime();
-        
-        UserSession session = new UserSession();
-        session.setSessionId(sessionId);
-        session.setUser(user);
-        session.setTokenHash(tokenHash);
-        session.setExpiresAt(expiresAt);
-        
-        sessionRepository.save(session);
+        sessionService.open(user.getUserId(), user.getUsername(), token, jwtService.extractExpiration(token).toInstant());
     }
 }
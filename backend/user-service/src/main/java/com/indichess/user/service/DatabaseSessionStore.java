@@ -0,0 +1,68 @@
+package com.indichess.user.service;
+
+import com.indichess.user.model.UserSession;
+import com.indichess.user.repo.UserRepository;
+import com.indichess.user.repo.UserSessionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * {@code user_sessions} table, for deployments without Redis. Lookups go through the unique
+ * index on {@code token_hash}; expired rows are purged on a schedule.
+ */
+@Component
+@ConditionalOnProperty(name = "app.sessions.store", havingValue = "database")
+@RequiredArgsConstructor
+@Slf4j
+public class DatabaseSessionStore implements SessionStore {
+
+    private final UserSessionRepository sessionRepository;
+    private final UserRepository userRepository;
+
+    @Override
+    @Transactional
+    public void save(String tokenDigest, SessionOwner owner, Instant expiresAt) {
+        UserSession session = new UserSession();
+        session.setSessionId(UUID.randomUUID().toString());
+        session.setUser(userRepository.getReferenceById(owner.userId()));
+        session.setTokenHash(tokenDigest);
+        session.setExpiresAt(LocalDateTime.ofInstant(expiresAt, ZoneId.systemDefault()));
+        sessionRepository.save(session);
+    }
+
+    @Override
+    public boolean exists(String tokenDigest) {
+        return sessionRepository.existsByTokenHash(tokenDigest);
+    }
+
+    @Override
+    public Optional<SessionOwner> findOwner(String tokenDigest) {
+        return sessionRepository.findLiveWithUser(tokenDigest, LocalDateTime.now())
+                .map(s -> new SessionOwner(s.getUser().getUserId(), s.getUser().getUsername()));
+    }
+
+    @Override
+    @Transactional
+    public void delete(String tokenDigest) {
+        sessionRepository.deleteByTokenHash(tokenDigest);
+    }
+
+    @Scheduled(fixedDelayString = "${app.sessions.purge-interval-ms:600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = sessionRepository.deleteExpiredSessions(LocalDateTime.now());
+        if (purged > 0) {
+            log.debug("Purged {} expired sessions", purged);
+        }
+    }
+}
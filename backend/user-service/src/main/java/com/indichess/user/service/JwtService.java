@@ -1,23 +1,22 @@
 package com.indichess.user.service;
 
+import com.indichess.jwt.JwtVerifier;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
 
 @Service
+@RequiredArgsConstructor
 public class JwtService {
     
-    @Value("${app.jwt.secret}")
-    private String secret;
+    private final JwtVerifier jwtVerifier;
     
     @Value("${app.jwt.ttl-seconds:18000}")
     private Long ttlSeconds;
@@ -40,12 +39,13 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
     
+    /** Verifies the token once and returns its claims; throws if it is invalid or expired. */
+    public Claims verify(String token) {
+        return jwtVerifier.verify(token);
+    }
+    
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        return jwtVerifier.verify(token);
     }
     
     private Boolean isTokenExpired(String token) {
@@ -55,12 +55,7 @@ public class JwtService {
     /** Allow token expired within graceSeconds (e.g. 300 = 5 min) for refresh. Returns claims or throws. */
     public Claims getClaimsForRefresh(String token, long graceSeconds) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .setAllowedClockSkewSeconds(graceSeconds)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return jwtVerifier.verifyAllowingExpiry(token, graceSeconds);
         } catch (Exception e) {
             throw new IllegalArgumentException("Invalid or expired token");
         }
@@ -78,7 +73,7 @@ public class JwtService {
                 .setSubject(subject)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + ttlSeconds * 1000))
-                .signWith(getSigningKey())
+                .signWith(jwtVerifier.getSigningKey())
                 .compact();
     }
     
@@ -86,14 +81,4 @@ public class JwtService {
         final String extractedUsername = extractUsername(token);
         return (extractedUsername.equals(username) && !isTokenExpired(token));
     }
-    
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
-    
-    public String hashToken(String token) {
-        // Simple hash for token blacklisting (in production, use proper hashing)
-        return String.valueOf(token.hashCode());
-    }
 }
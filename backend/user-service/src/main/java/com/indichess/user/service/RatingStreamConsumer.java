@@ -0,0 +1,186 @@
+package com.indichess.user.service;
+
+import com.indichess.user.service.UserRatingService.RatingChange;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.MapRecord;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads match-service's rating stream as a member of a consumer group and copies each change
+ * into {@code user_ratings}. Entries are acknowledged only after their batch commits; on start,
+ * and after any failed batch, the consumer first re-reads what it had received but not
+ * acknowledged. Entries left pending by a consumer that has been silent for
+ * {@code claim-idle-ms} (e.g. a container replaced under a new host name) are claimed and
+ * applied here.
+ */
+@Component
+@ConditionalOnProperty(name = "app.rating-sync.enabled", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class RatingStreamConsumer {
+
+    private static final int BATCH = 200;
+    private static final Duration BLOCK = Duration.ofSeconds(2);
+    private static final long RETRY_MILLIS = 5000;
+    private static final int CLAIM_SCAN = 1000;
+
+    private final StringRedisTemplate redis;
+    private final UserRatingService userRatingService;
+    private final String stream;
+    private final String group;
+    private final String consumer;
+    private final Duration claimIdle;
+    private volatile boolean running;
+    private Thread worker;
+
+    public RatingStreamConsumer(StringRedisTemplate redis,
+                                UserRatingService userRatingService,
+                                @Value("${app.rating-sync.stream:ratings:changes}") String stream,
+                                @Value("${app.rating-sync.group:user-service}") String group,
+                                @Value("${app.rating-sync.consumer:${HOSTNAME:user-service}}") String consumer,
+                                @Value("${app.rating-sync.claim-idle-ms:60000}") long claimIdleMs) {
+        this.redis = redis;
+        this.userRatingService = userRatingService;
+        this.stream = stream;
+        this.group = group;
+        this.consumer = consumer;
+        this.claimIdle = Duration.ofMillis(claimIdleMs);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "rating-stream-consumer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void run() {
+        boolean groupReady = false;
+        ReadOffset offset = ReadOffset.from("0");
+        long nextClaim = 0;
+        while (running) {
+            try {
+                if (!groupReady) {
+                    createGroup();
+                    groupReady = true;
+                }
+                if (System.currentTimeMillis() >= nextClaim) {
+                    nextClaim = System.currentTimeMillis() + claimIdle.toMillis();
+                    claimAbandoned();
+                }
+                List<MapRecord<String, Object, Object>> records = redis.opsForStream().read(
+                        Consumer.from(group, consumer),
+                        StreamReadOptions.empty().count(BATCH).block(BLOCK),
+                        StreamOffset.create(stream, offset));
+                if (records == null || records.isEmpty()) {
+                    // Nothing (left) pending from before; continue with new entries
+                    offset = ReadOffset.lastConsumed();
+                    continue;
+                }
+                handle(records);
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                // The failed batch is still pending for this consumer; read it again from the start
+                offset = ReadOffset.from("0");
+                log.warn("Rating stream read failed, retrying in {} ms: {}", RETRY_MILLIS, e.getMessage());
+                sleep();
+            }
+        }
+    }
+
+    private void handle(List<MapRecord<String, Object, Object>> records) {
+        List<RatingChange> changes = new ArrayList<>(records.size());
+        List<RecordId> ids = new ArrayList<>(records.size());
+        for (MapRecord<String, Object, Object> record : records) {
+            ids.add(record.getId());
+            try {
+                Map<Object, Object> fields = record.getValue();
+                changes.add(new RatingChange(
+                        Long.valueOf(fields.get("userId").toString()),
+                        fields.get("gameType").toString(),
+                        Integer.parseInt(fields.get("rating").toString()),
+                        Long.parseLong(fields.get("changedAt").toString())));
+            } catch (RuntimeException e) {
+                log.warn("Skipping malformed rating stream entry {}: {}", record.getId(), e.getMessage());
+            }
+        }
+        userRatingService.apply(changes);
+        redis.opsForStream().acknowledge(stream, group, ids.toArray(RecordId[]::new));
+    }
+
+    /** Takes over entries that other consumers received but have not acknowledged for {@link #claimIdle}. */
+    private void claimAbandoned() {
+        PendingMessages pending = redis.opsForStream().pending(stream, group, Range.unbounded(), CLAIM_SCAN);
+        List<RecordId> ids = new ArrayList<>();
+        for (PendingMessage message : pending) {
+            if (!consumer.equals(message.getConsumerName())
+                    && message.getElapsedTimeSinceLastDelivery().compareTo(claimIdle) >= 0) {
+                ids.add(message.getId());
+            }
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<MapRecord<String, Object, Object>> claimed = redis.opsForStream().claim(
+                stream, group, consumer, claimIdle, ids.toArray(RecordId[]::new));
+        log.info("Claimed {} rating stream entries left pending by other consumers", claimed.size());
+        if (!claimed.isEmpty()) {
+            handle(claimed);
+        }
+    }
+
+    /** Creates the group (and the stream, if match-service has not written yet) unless it exists. */
+    private void createGroup() {
+        try {
+            redis.execute((RedisCallback<String>) connection -> connection.streamCommands().xGroupCreate(
+                    stream.getBytes(StandardCharsets.UTF_8), group, ReadOffset.from("0"), true));
+        } catch (RuntimeException e) {
+            for (Throwable t = e; t != null; t = t.getCause()) {
+                if (String.valueOf(t.getMessage()).contains("BUSYGROUP")) {
+                    return;
+                }
+            }
+            throw e;
+        }
+    }
+
+    private void sleep() {
+        try {
+            Thread.sleep(RETRY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.indichess.user.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * One {@code session:{digest}} key per token, expiring with the token, so a lookup is a
+ * single key read and nothing has to be purged. The value is {@code userId:username};
+ * sessions saved before the username was recorded hold the user id alone.
+ */
+@Component
+@ConditionalOnProperty(name = "app.sessions.store", havingValue = "redis", matchIfMissing = true)
+public class RedisSessionStore implements SessionStore {
+
+    private static final String PREFIX = "session:";
+
+    private final StringRedisTemplate redis;
+
+    public RedisSessionStore(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public void save(String tokenDigest, SessionOwner owner, Instant expiresAt) {
+        Duration ttl = Duration.between(Instant.now(), expiresAt);
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        redis.opsForValue().set(PREFIX + tokenDigest, owner.userId() + ":" + owner.username(), ttl);
+    }
+
+    @Override
+    public boolean exists(String tokenDigest) {
+        return Boolean.TRUE.equals(redis.hasKey(PREFIX + tokenDigest));
+    }
+
+    @Override
+    public Optional<SessionOwner> findOwner(String tokenDigest) {
+        String value = redis.opsForValue().get(PREFIX + tokenDigest);
+        int separator = value == null ? -1 : value.indexOf(':');
+        if (separator < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(new SessionOwner(Long.valueOf(value.substring(0, separator)), value.substring(separator + 1)));
+    }
+
+    @Override
+    public void delete(String tokenDigest) {
+        redis.delete(PREFIX + tokenDigest);
+    }
+}
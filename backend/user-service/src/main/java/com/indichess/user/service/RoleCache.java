@@ -0,0 +1,42 @@
+package com.indichess.user.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.indichess.user.repo.RoleRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Role names per user for stateless authentication. Entries live briefly, so a granted or
+ * revoked role takes effect within the TTL without a user lookup on every request.
+ */
+@Service
+public class RoleCache {
+
+    private final LoadingCache<Long, List<GrantedAuthority>> authorities;
+
+    public RoleCache(RoleRepository roleRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${app.auth.roles-cache.max-size:10000}") long maxSize,
+                     @Value("${app.auth.roles-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.authorities = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build(userId -> roleRepository.findNamesByUserId(userId).stream()
+                        .<GrantedAuthority>map(SimpleGrantedAuthority::new)
+                        .toList());
+        CaffeineCacheMetrics.monitor(meterRegistry, authorities, "roles");
+    }
+
+    public List<GrantedAuthority> authoritiesFor(Long userId) {
+        return authorities.get(userId);
+    }
+}
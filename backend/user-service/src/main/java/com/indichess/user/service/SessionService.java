@@ -0,0 +1,123 @@
+package com.indichess.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.indichess.jwt.JwtVerifier;
+import com.indichess.jwt.TokenDigest;
+import com.indichess.user.service.SessionStore.SessionOwner;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Session checks for issued tokens. Tokens known to be logged out or unknown are remembered
+ * briefly per instance, so a client retrying with a dead token does not reach the store on
+ * every request. Only negative answers are cached: a token is recorded before it is handed
+ * out, so "absent" can never turn into "present", while a logout on another instance must
+ * take effect at once.
+ * <p>
+ * Tokens issued before sessions were introduced (the cutover recorded by the V8 migration)
+ * have no session; they stay valid until they expire, and logging out does not revoke them.
+ */
+@Service
+@Slf4j
+public class SessionService {
+
+    private static final long NO_CUTOVER = Long.MIN_VALUE;
+
+    private final SessionStore sessionStore;
+    private final JwtVerifier jwtVerifier;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Boolean> inactive;
+    private volatile Long cutoverMillis;
+
+    public SessionService(SessionStore sessionStore,
+                          JwtVerifier jwtVerifier,
+                          JdbcTemplate jdbcTemplate,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.sessions.negative-cache.max-size:10000}") long maxSize,
+                          @Value("${app.sessions.negative-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.sessionStore = sessionStore;
+        this.jwtVerifier = jwtVerifier;
+        this.jdbcTemplate = jdbcTemplate;
+        this.inactive = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, inactive, "sessions.inactive");
+    }
+
+    public void open(Long userId, String username, String token, Instant expiresAt) {
+        sessionStore.save(TokenDigest.sha256(token), new SessionOwner(userId, username), expiresAt);
+    }
+
+    public boolean isActive(String token) {
+        String digest = TokenDigest.sha256(token);
+        if (inactive.getIfPresent(digest) != null) {
+            return false;
+        }
+        if (sessionStore.exists(digest)) {
+            return true;
+        }
+        if (issuedBeforeCutover(token)) {
+            return true;
+        }
+        inactive.put(digest, Boolean.TRUE);
+        return false;
+    }
+
+    /**
+     * The user the token's open session was opened for, or empty if it has none (logged out,
+     * unknown, or issued before the cutover) or the session does not record its owner.
+     */
+    public Optional<SessionOwner> sessionOwner(String token) {
+        String digest = TokenDigest.sha256(token);
+        if (inactive.getIfPresent(digest) != null) {
+            return Optional.empty();
+        }
+        return sessionStore.findOwner(digest);
+    }
+
+    public void close(String token) {
+        String digest = TokenDigest.sha256(token);
+        sessionStore.delete(digest);
+        if (!issuedBeforeCutover(token)) {
+            inactive.put(digest, Boolean.TRUE);
+        }
+    }
+
+    private boolean issuedBeforeCutover(String token) {
+        long cutover = cutoverMillis();
+        if (cutover == NO_CUTOVER) {
+            return false;
+        }
+        try {
+            Date issuedAt = jwtVerifier.verify(token).getIssuedAt();
+            return issuedAt != null && issuedAt.getTime() < cutover;
+        } catch (RuntimeException e) {
+            return false; // invalid or expired: never valid without a session
+        }
+    }
+
+    private long cutoverMillis() {
+        Long cutover = cutoverMillis;
+        if (cutover == null) {
+            List<Long> rows = jdbcTemplate.queryForList(
+                    "SELECT cutover_at_ms FROM session_cutover WHERE id = 1", Long.class);
+            cutover = rows.isEmpty() ? NO_CUTOVER : rows.get(0);
+            cutoverMillis = cutover;
+            log.debug("Session cutover at {}", cutover);
+        }
+        return cutover;
+    }
+}
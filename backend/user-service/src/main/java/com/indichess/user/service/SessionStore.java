@@ -0,0 +1,24 @@
+package com.indichess.user.service;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Issued tokens that have not been logged out, keyed by the token's SHA-256 digest. Entries
+ * live no longer than the token itself.
+ */
+public interface SessionStore {
+
+    /** The user a session was opened for, as of login. */
+    record SessionOwner(Long userId, String username) {
+    }
+
+    void save(String tokenDigest, SessionOwner owner, Instant expiresAt);
+
+    boolean exists(String tokenDigest);
+
+    /** The owner of the token's session, or empty if there is no session or it predates owner tracking. */
+    Optional<SessionOwner> findOwner(String tokenDigest);
+
+    void delete(String tokenDigest);
+}
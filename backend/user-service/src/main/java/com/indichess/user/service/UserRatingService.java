@@ -0,0 +1,38 @@
+package com.indichess.user.service;
+
+import com.indichess.user.model.UserRating;
+import com.indichess.user.repo.UserRatingRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@RequiredArgsConstructor
+public class UserRatingService {
+
+    public record RatingChange(Long userId, String gameType, int rating, long changedAt) {
+    }
+
+    private final UserRatingRepository userRatingRepository;
+
+    /** Applies a batch of changes from the rating stream in one transaction. */
+    @Transactional
+    public void apply(List<RatingChange> changes) {
+        for (RatingChange change : changes) {
+            userRatingRepository.upsertIfNewer(change.userId(), change.gameType(), change.rating(), change.changedAt());
+        }
+    }
+
+    /** Ratings by game type, e.g. {@code {"BLITZ": 1380, "RAPID": 1412}}. */
+    public Map<String, Integer> ratingsFor(Long userId) {
+        Map<String, Integer> ratings = new LinkedHashMap<>();
+        for (UserRating rating : userRatingRepository.findAllByUserIdOrderByGameType(userId)) {
+            ratings.put(rating.getGameType(), rating.getRating());
+        }
+        return ratings;
+    }
+}
@@ -22,6 +22,7 @@ public class UserService {
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
     private final PasswordEncoder passwordEncoder;
+    private final UserRatingService userRatingService;
     
     @Transactional
     public User createUser(String username, String email, String password, String country) {
@@ -72,6 +73,7 @@ public class UserService {
         response.setPfpUrl(user.getPfpUrl());
         response.setCountry(user.getCountry());
         response.setRating(user.getRating());
+        response.setRatings(userRatingService.ratingsFor(user.getUserId()));
         response.setCreatedAt(user.getCreatedAt());
         return response;
     }
@@ -0,0 +1,10 @@
+-- Per-game-type ratings copied from match-service's rating stream; changed_at (epoch millis)
+-- lets an out-of-order change be ignored
+CREATE TABLE IF NOT EXISTS user_ratings (
+    user_rating_id BIGINT PRIMARY KEY AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    game_type VARCHAR(20) NOT NULL,
+    rating INT NOT NULL,
+    changed_at BIGINT NOT NULL,
+    UNIQUE KEY uk_user_ratings_user_type (user_id, game_type)
+);
@@ -0,0 +1,7 @@
+-- Sessions are now keyed by the token's SHA-256 digest; rows stored under the old
+-- String.hashCode() key can never match again.
+DELETE FROM user_sessions;
+
+ALTER TABLE user_sessions MODIFY token_hash CHAR(64) NOT NULL;
+
+CREATE UNIQUE INDEX uk_user_sessions_token_hash ON user_sessions (token_hash);
@@ -0,0 +1,8 @@
+-- When user-service started checking sessions. Tokens issued before then have no session and
+-- are accepted until they expire instead of logging everyone out on upgrade.
+CREATE TABLE IF NOT EXISTS session_cutover (
+    id TINYINT PRIMARY KEY,
+    cutover_at_ms BIGINT NOT NULL
+);
+
+INSERT IGNORE INTO session_cutover (id, cutover_at_ms) VALUES (1, FLOOR(UNIX_TIMESTAMP(NOW(3)) * 1000));
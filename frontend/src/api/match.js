@@ -27,8 +27,8 @@ export async function getMoveHistory(matchId) {
   return data
 }
 
-export async function makeMove(matchId, moveUci) {
-  const data = await api.post(`/api/matches/${matchId}/move`, { moveUci })
+export async function makeMove(matchId, moveUci, expectedPly) {
+  const data = await api.post(`/api/matches/${matchId}/move`, { moveUci, expectedPly })
   return data
 }
 
@@ -31,4 +31,19 @@ export function ratingForGameType(ratings, gameType) {
   return r?.rating ?? 1200
 }
 
+/**
+ * Rating chart series for a user and game type.
+ * @param {number} userId
+ * @param {string} gameType - e.g. 'RAPID'
+ * @param {{ from?: string, to?: string, resolution?: 'GAME' | 'DAY' | 'WEEK' }} [options] - ISO dates
+ * @returns {Promise<{ gameType: string, resolution: string, points: Array<{ at: string, rating: number, minRating: number, maxRating: number, changes: number }> }>}
+ */
+export async function getRatingHistory(userId, gameType, options = {}) {
+  const params = new URLSearchParams({ gameType })
+  for (const key of ['from', 'to', 'resolution']) {
+    if (options[key]) params.set(key, options[key])
+  }
+  return api.get(`/api/ratings/user/${userId}/history?${params}`)
+}
+
 export { GAME_TYPE_MAP }
@@ -12,6 +12,10 @@ import * as ratingsApi from '../api/ratings.js'
 import {
   createStompClient,
   subscribeGame,
+  subscribeGameResume,
+  subscribeClockPong,
+  sendResume,
+  sendClockPing,
   sendMove,
   sendResign,
   sendOfferDraw,
@@ -19,6 +23,8 @@ import {
   sendDeclineDraw,
 } from '../ws/stompClient.js'
 
+const CLOCK_PING_INTERVAL_MS = 5000
+
 function ResignConfirmModal({ onConfirm, onCancel }) {
   return (
     <div className="fixed inset-0 z-50 flex items-center justify-center p-4 bg-black/50 backdrop-blur-sm" role="dialog" aria-modal="true" aria-labelledby="resign-title">
@@ -54,6 +60,11 @@ export default function GamePage() {
   const [myRatings, setMyRatings] = useState([])
   const [opponentRatings, setOpponentRatings] = useState([])
   const stompRef = useRef(null)
+  // Last game event seq applied; sent on (re)connect so the server replays only what was missed
+  const lastSeqRef = useRef(null)
+  const moveHistoryRef = useRef([])
+  // Latest measured round trip, reported on each clock ping for lag compensation
+  const rttRef = useRef(null)
 
   const amWhite = match && userId === match.player1Id
   const opponentId = match && (amWhite ? match.player2Id : match.player1Id)
@@ -69,13 +80,24 @@ export default function GamePage() {
 
   const [showResignConfirm, setShowResignConfirm] = useState(false)
 
-  const formatClock = (seconds) => {
-    if (seconds == null || seconds < 0) return '0:00'
-    const m = Math.floor(seconds / 60)
-    const s = Math.max(0, Math.floor(seconds % 60))
+  // Tenths are shown under ten seconds, where they decide bullet games
+  const formatClock = (ms) => {
+    if (ms == null || ms <= 0) return '0:00'
+    if (ms < 10000) return `0:0${(Math.floor(ms / 100) / 10).toFixed(1)}`
+    const total = Math.floor(ms / 1000)
+    const m = Math.floor(total / 60)
+    const s = total % 60
     return `${m}:${String(s).padStart(2, '0')}`
   }
 
+  // Millisecond clock from the server, falling back to the whole-second field
+  const clockMs = (m, white) => {
+    const ms = white ? m.player1TimeLeftMs : m.player2TimeLeftMs
+    if (typeof ms === 'number') return ms
+    const sec = white ? m.player1TimeLeftSeconds : m.player2TimeLeftSeconds
+    return typeof sec === 'number' ? sec * 1000 : 600000
+  }
+
   const [displayWhiteClock, setDisplayWhiteClock] = useState('10:00')
   const [displayBlackClock, setDisplayBlackClock] = useState('10:00')
   const matchRef = useRef(match)
@@ -100,8 +122,8 @@ export default function GamePage() {
   useEffect(() => {
     if (!match) return
 
-    const p1 = typeof match.player1TimeLeftSeconds === 'number' ? match.player1TimeLeftSeconds : 600
-    const p2 = typeof match.player2TimeLeftSeconds === 'number' ? match.player2TimeLeftSeconds : 600
+    const p1 = clockMs(match, true)
+    const p2 = clockMs(match, false)
 
     if (match.status !== 'ONGOING') {
       setDisplayWhiteClock(formatClock(p1))
@@ -115,8 +137,8 @@ export default function GamePage() {
       const m = matchRef.current
       if (!m || m.status !== 'ONGOING') return
 
-      const p1Time = typeof m.player1TimeLeftSeconds === 'number' ? m.player1TimeLeftSeconds : 600
-      const p2Time = typeof m.player2TimeLeftSeconds === 'number' ? m.player2TimeLeftSeconds : 600
+      const p1Time = clockMs(m, true)
+      const p2Time = clockMs(m, false)
 
       let lastMoveAt = parseServerTime(m.lastMoveAt) ?? parseServerTime(m.startedAt)
       if (!lastMoveAt) lastMoveAt = gameStartRef.current
@@ -124,7 +146,7 @@ export default function GamePage() {
       const fenParts = (m.fenCurrent || '').split(' ')
       const isWhiteToMove = fenParts[1] === 'w'
 
-      const elapsed = Math.floor((Date.now() - lastMoveAt) / 1000)
+      const elapsed = Math.max(0, Date.now() - lastMoveAt)
 
       if (isWhiteToMove) {
         setDisplayWhiteClock(formatClock(Math.max(0, p1Time - elapsed)))
@@ -136,7 +158,7 @@ export default function GamePage() {
     }
 
     tick()
-    const id = setInterval(tick, 250)
+    const id = setInterval(tick, 100)
     return () => clearInterval(id)
   }, [match])
 
@@ -162,11 +184,16 @@ export default function GamePage() {
     return () => { cancelled = true }
   }, [matchId])
 
+  // Moves arriving as events are appended locally; the full history is only fetched when it is out of step
   useEffect(() => {
     if (!matchId || !match) return
+    if (moveHistoryRef.current.length === (match.currentPly ?? 0)) return
     let cancelled = false
     matchApi.getMoveHistory(matchId).then((list) => {
-      if (!cancelled && Array.isArray(list)) setMoveHistory(list)
+      if (!cancelled && Array.isArray(list)) {
+        moveHistoryRef.current = list
+        setMoveHistory(list)
+      }
     }).catch(() => {})
     return () => { cancelled = true }
   }, [matchId, match?.currentPly])
@@ -214,16 +241,26 @@ export default function GamePage() {
     const client = createStompClient(() => token)
     if (!client) return
     stompRef.current = client
-    client.onConnect = () => {
-      setConnected(true)
-      subscribeGame(client, matchId, (msg) => {
-        if (msg.match) {
-          setMatch(msg.match)
-          if (msg.moveUci && msg.moveUci.length >= 4) {
-            setLastMove({ from: msg.moveUci.slice(0, 2), to: msg.moveUci.slice(2, 4) })
-          }
-        }
-      })
+    const applyEvent = (msg) => {
+      if (!msg.match) return
+      setMatch(msg.match)
+      if (msg.moveUci && msg.moveUci.length >= 4) {
+        setLastMove({ from: msg.moveUci.slice(0, 2), to: msg.moveUci.slice(2, 4) })
+      }
+      const ply = msg.match.currentPly
+      if (msg.type === 'MOVE_MADE' && msg.moveUci && ply === moveHistoryRef.current.length + 1) {
+        const next = [...moveHistoryRef.current, {
+          ply,
+          moveNotation: msg.moveUci,
+          fromSquare: msg.moveUci.slice(0, 2),
+          toSquare: msg.moveUci.slice(2, 4),
+          fenAfter: msg.match.fenCurrent,
+        }]
+        moveHistoryRef.current = next
+        setMoveHistory(next)
+      }
+    }
+    const resync = () => {
       matchApi.getMatch(matchId).then((data) => {
         setMatch(data)
         if (data?.lastMoveUci && data.lastMoveUci.length >= 4) {
@@ -231,10 +268,46 @@ export default function GamePage() {
         }
       }).catch(() => {})
     }
+    client.onConnect = () => {
+      setConnected(true)
+      subscribeGame(client, matchId, (msg) => {
+        if (msg.seq == null) return applyEvent(msg)
+        const last = lastSeqRef.current
+        if (last != null && msg.seq <= last) return
+        if (last != null && msg.seq > last + 1) {
+          // A frame was missed: the resume reply includes this one too
+          sendResume(client, matchId, last)
+          return
+        }
+        lastSeqRef.current = msg.seq
+        applyEvent(msg)
+      })
+      subscribeGameResume(client, matchId, (reply) => {
+        if (reply.type === 'RESUME') {
+          for (const ev of reply.events || []) {
+            if (lastSeqRef.current != null && ev.seq <= lastSeqRef.current) continue
+            lastSeqRef.current = ev.seq
+            applyEvent(ev)
+          }
+        } else {
+          lastSeqRef.current = reply.latestSeq ?? null
+          resync()
+        }
+      })
+      sendResume(client, matchId, lastSeqRef.current)
+      subscribeClockPong(client, matchId, (clientTs) => {
+        rttRef.current = Math.max(0, Math.round(performance.now()) - clientTs)
+      })
+      sendClockPing(client, matchId, rttRef.current)
+    }
     client.onDisconnect = () => setConnected(false)
     client.onStompError = () => setConnected(false)
     client.activate()
+    const pingId = setInterval(() => {
+      if (client.connected) sendClockPing(client, matchId, rttRef.current)
+    }, CLOCK_PING_INTERVAL_MS)
     return () => {
+      clearInterval(pingId)
       client.deactivate?.()
       stompRef.current = null
     }
@@ -256,11 +329,12 @@ export default function GamePage() {
       const move = game.move({ from: selectedSquare, to: sq })
       if (move) {
         const uci = move.promotion ? `${selectedSquare}${sq}${move.promotion}` : `${selectedSquare}${sq}`
+        const expectedPly = (match.currentPly ?? 0) + 1
         const client = stompRef.current
         if (client && client.connected) {
-          sendMove(client, matchId, uci)
+          sendMove(client, matchId, uci, expectedPly)
         } else {
-          matchApi.makeMove(matchId, uci).then((updated) => setMatch(updated)).catch(() => {})
+          matchApi.makeMove(matchId, uci, expectedPly).then((updated) => setMatch(updated)).catch(() => {})
         }
         setSelectedSquare(null)
       }
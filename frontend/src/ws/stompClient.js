@@ -2,29 +2,55 @@ import { Client } from '@stomp/stompjs'
 import SockJS from 'sockjs-client'
 import { getApiBase } from '../config/api.js'
 
-// SockJS requires http/https URL, not ws/wss
-function getWsUrl() {
+// After this many native WebSocket attempts that never open, fall back to SockJS
+const MAX_NATIVE_FAILURES = 2
+
+// Native endpoint uses ws/wss; the SockJS fallback requires an http/https URL
+function getWsUrls() {
   const base = getApiBase()
   const origin = base || (typeof window !== 'undefined' ? window.location.origin : '')
-  const protocol = origin.startsWith('https') ? 'https' : 'http'
+  const secure = origin.startsWith('https')
   const host = origin.replace(/^https?:\/\//, '')
-  return `${protocol}://${host}/ws-indichess`
+  return {
+    native: `${secure ? 'wss' : 'ws'}://${host}/ws-indichess`,
+    sockjs: `${secure ? 'https' : 'http'}://${host}/ws-indichess/sockjs`,
+  }
+}
+
+function withToken(url, token) {
+  if (!token) return url
+  const sep = url.includes('?') ? '&' : '?'
+  return `${url}${sep}token=${encodeURIComponent(token)}`
 }
 
 /**
  * Create a STOMP client that connects with JWT.
+ * Prefers a native WebSocket (permessage-deflate, no SockJS framing) and switches to SockJS
+ * when native connections repeatedly fail to open, e.g. behind proxies that block upgrades.
  * tokenGetter() is called at connect time.
  */
 export function createStompClient(tokenGetter) {
-  const wsUrl = getWsUrl()
-  if (!wsUrl) return null
+  const urls = getWsUrls()
+  if (!urls.native) return null
+
+  let nativeFailures = 0
 
   const client = new Client({
     webSocketFactory: () => {
       const token = tokenGetter()
-      const sep = wsUrl.includes('?') ? '&' : '?'
-      const url = token ? `${wsUrl}${sep}token=${encodeURIComponent(token)}` : wsUrl
-      return new SockJS(url)
+      if (typeof WebSocket === 'undefined' || nativeFailures >= MAX_NATIVE_FAILURES) {
+        return new SockJS(withToken(urls.sockjs, token))
+      }
+      const ws = new WebSocket(withToken(urls.native, token), ['v12.stomp', 'v11.stomp', 'v10.stomp'])
+      let opened = false
+      ws.addEventListener('open', () => {
+        opened = true
+        nativeFailures = 0
+      })
+      ws.addEventListener('close', () => {
+        if (!opened) nativeFailures += 1
+      })
+      return ws
     },
     reconnectDelay: 3000,
     heartbeatIncoming: 4000,
@@ -58,14 +84,63 @@ export function subscribeGame(client, matchId, onMessage) {
   return () => sub.unsubscribe()
 }
 
+/**
+ * Subscribe to this client's private replies for a match (answers to sendResume).
+ */
+export function subscribeGameResume(client, matchId, onReply) {
+  if (!client || matchId == null) return () => {}
+  const sub = client.subscribe(`/user/queue/game/${matchId}`, (message) => {
+    onReply(JSON.parse(message.body))
+  })
+  return () => sub.unsubscribe()
+}
+
+/**
+ * Ask for the game events after lastSeq (null if none seen yet).
+ * The reply is RESUME with the missed events, or RESYNC when they are no longer buffered.
+ */
+export function sendResume(client, matchId, lastSeq) {
+  if (!client || !matchId) return
+  client.publish({
+    destination: `/app/game/${matchId}/resume`,
+    body: JSON.stringify({ lastSeq: lastSeq ?? null }),
+  })
+}
+
+/**
+ * Subscribe to echoes of this client's clock pings; onPong receives the clientTs it sent.
+ */
+export function subscribeClockPong(client, matchId, onPong) {
+  if (!client || matchId == null) return () => {}
+  const sub = client.subscribe(`/user/queue/game/${matchId}/pong`, (message) => {
+    const body = JSON.parse(message.body)
+    if (body && typeof body.clientTs === 'number') onPong(body.clientTs)
+  })
+  return () => sub.unsubscribe()
+}
+
+/**
+ * Clock ping. rttMs is the round trip measured from the previous pong (null before the first);
+ * the server uses it to give back clock time lost to network lag.
+ */
+export function sendClockPing(client, matchId, rttMs) {
+  if (!client || !matchId) return
+  client.publish({
+    destination: `/app/game/${matchId}/ping`,
+    body: JSON.stringify({ clientTs: Math.round(performance.now()), rttMs: rttMs ?? null }),
+  })
+}
+
 /**
  * Send a move via WebSocket.
+ * expectedPly is the ply this move creates (currentPly + 1); the server uses it to answer
+ * a resent move with the original result instead of applying it twice.
  */
-export function sendMove(client, matchId, moveUci) {
+export function sendMove(client, matchId, moveUci, expectedPly) {
   if (!client || !matchId) return
   client.publish({
     destination: `/app/game/${matchId}/move`,
-    body: JSON.stringify({ moveUci }),
+    body: JSON.stringify({ moveUci, expectedPly }),
   })
 }
 